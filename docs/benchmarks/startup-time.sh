@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+# Время до готовности (readiness) для двух образов: обычный jar и AOT + CDS + профиль fast-startup.
+# Требуются docker и запущенный postgres из docker-compose (сеть bank-network, схема уже применена).
+#
+#   ./docs/benchmarks/startup-time.sh [запусков на образ, по умолчанию 5]
+#
+# Результат: медиана и минимум wall-clock до HTTP 200 на /actuator/health/readiness,
+# плюс метрика application.ready.time, которую публикует сам Spring Boot.
+set -euo pipefail
+
+RUNS="${1:-5}"
+NETWORK="${NETWORK:-bank-card-management_bank-network}"
+DB_URL="${DB_URL:-jdbc:postgresql://postgres:5432/bank_card_db}"
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+
+build_baseline() {
+  # Исходный вариант: fat jar без AOT и CDS
+  docker build -q -t bank-card-app:baseline -f - "$ROOT" <<'DOCKERFILE'
+FROM maven:3.9-eclipse-temurin-17 AS build
+WORKDIR /app
+COPY pom.xml .
+RUN mvn -q dependency:go-offline
+COPY src ./src
+RUN mvn -q clean package -DskipTests
+FROM eclipse-temurin:17-jre-alpine
+WORKDIR /app
+COPY --from=build /app/target/*.jar app.jar
+ENTRYPOINT ["java", "-jar", "app.jar"]
+DOCKERFILE
+}
+
+measure() {
+  local image="$1" profiles="$2" name="startup-bench-$$"
+  local start end ready_ms
+  start=$(date +%s%3N)
+  docker run -d --rm --name "$name" --network "$NETWORK" -p 18080:8080 \
+    -e SPRING_PROFILES_ACTIVE="$profiles" \
+    -e SPRING_DATASOURCE_URL="$DB_URL" \
+    "$image" >/dev/null
+  until curl -fs http://localhost:18080/actuator/health/readiness >/dev/null 2>&1; do
+    sleep 0.05
+  done
+  end=$(date +%s%3N)
+  ready_ms=$(curl -fs http://localhost:18080/actuator/metrics/application.ready.time \
+    | sed -E 's/.*"value":([0-9.E]+).*/\1/')
+  docker stop "$name" >/dev/null
+  echo "$((end - start)) $ready_ms"
+}
+
+report() {
+  local label="$1" image="$2" profiles="$3"
+  local walls=() jvm=()
+  for _ in $(seq "$RUNS"); do
+    read -r wall ready <<<"$(measure "$image" "$profiles")"
+    walls+=("$wall")
+    jvm+=("$ready")
+  done
+  local sorted median min
+  sorted=$(printf '%s\n' "${walls[@]}" | sort -n)
+  median=$(echo "$sorted" | sed -n "$(( (RUNS + 1) / 2 ))p")
+  min=$(echo "$sorted" | head -1)
+  printf '%-22s wall-clock to ready: median %6d ms, min %6d ms; application.ready.time (s): %s\n' \
+    "$label" "$median" "$min" "${jvm[*]}"
+}
+
+build_baseline
+docker build -q -t bank-card-app:fast-startup "$ROOT" >/dev/null
+
+report "baseline" bank-card-app:baseline dev
+report "aot+cds+fast-startup" bank-card-app:fast-startup dev,fast-startup
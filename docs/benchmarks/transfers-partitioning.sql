@@ -0,0 +1,97 @@
+-- Сравнение секционированной transfers с обычной таблицей на 50M строк.
+-- Запуск: psql -d bank_card_db -f docs/benchmarks/transfers-partitioning.sql
+-- Скрипт создает собственные таблицы bench_*, рабочие данные не затрагиваются.
+
+\timing on
+
+DROP TABLE IF EXISTS bench_transfers_heap;
+DROP TABLE IF EXISTS bench_transfers_part CASCADE;
+
+CREATE TABLE bench_transfers_heap (
+    id BIGINT NOT NULL,
+    from_card_id BIGINT NOT NULL,
+    to_card_id BIGINT NOT NULL,
+    amount DECIMAL(19,2) NOT NULL,
+    description VARCHAR(500),
+    created_at TIMESTAMP NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE bench_transfers_part (LIKE bench_transfers_heap INCLUDING DEFAULTS)
+    PARTITION BY RANGE (created_at);
+ALTER TABLE bench_transfers_part ADD PRIMARY KEY (id, created_at);
+
+-- 36 месяцев истории
+DO $$
+DECLARE
+    v_month DATE := date_trunc('month', now() - INTERVAL '35 months')::date;
+BEGIN
+    WHILE v_month <= date_trunc('month', now())::date LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF bench_transfers_part FOR VALUES FROM (%L) TO (%L)',
+                       'bench_transfers_part_' || to_char(v_month, 'YYYY_MM'),
+                       v_month, (v_month + INTERVAL '1 month')::date);
+        v_month := (v_month + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+-- 50M переводов, 200k карт, равномерно по времени
+INSERT INTO bench_transfers_heap
+SELECT g,
+       (random() * 200000)::bigint + 1,
+       (random() * 200000)::bigint + 1,
+       round((random() * 1000)::numeric + 1, 2),
+       'bench',
+       date_trunc('month', now() - INTERVAL '35 months') + (g::double precision / 50000000) * INTERVAL '1095 days',
+       (random() * 50000)::bigint + 1
+FROM generate_series(1, 50000000) g;
+
+INSERT INTO bench_transfers_part SELECT * FROM bench_transfers_heap;
+
+CREATE INDEX ON bench_transfers_heap (created_at);
+CREATE INDEX ON bench_transfers_heap (from_card_id, created_at DESC, id DESC);
+CREATE INDEX ON bench_transfers_part (created_at);
+CREATE INDEX ON bench_transfers_part (from_card_id, created_at DESC, id DESC);
+
+VACUUM ANALYZE bench_transfers_heap;
+VACUUM ANALYZE bench_transfers_part;
+
+-- 1. Сумма переводов карты за месяц (TransferRepository.getTotalTransferredAmount)
+PREPARE heap_total(BIGINT, TIMESTAMP, TIMESTAMP) AS
+    SELECT SUM(amount) FROM bench_transfers_heap WHERE from_card_id = $1 AND created_at >= $2 AND created_at < $3;
+PREPARE part_total(BIGINT, TIMESTAMP, TIMESTAMP) AS
+    SELECT SUM(amount) FROM bench_transfers_part WHERE from_card_id = $1 AND created_at >= $2 AND created_at < $3;
+
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE heap_total(42, date_trunc('month', now() - INTERVAL '2 months'), date_trunc('month', now() - INTERVAL '1 month'));
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE part_total(42, date_trunc('month', now() - INTERVAL '2 months'), date_trunc('month', now() - INTERVAL '1 month'));
+
+-- 2. Выгрузка / выписка за месяц (полный скан диапазона)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM bench_transfers_heap
+WHERE created_at >= date_trunc('month', now() - INTERVAL '2 months') AND created_at < date_trunc('month', now() - INTERVAL '1 month');
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM bench_transfers_part
+WHERE created_at >= date_trunc('month', now() - INTERVAL '2 months') AND created_at < date_trunc('month', now() - INTERVAL '1 month');
+
+-- 3. Размеры индексов: на секционированной таблице каждая партиция обслуживается vacuum отдельно
+SELECT relname, pg_size_pretty(pg_relation_size(oid)) AS size
+FROM pg_class
+WHERE relname LIKE 'bench_transfers_%' AND relkind IN ('r', 'i')
+ORDER BY pg_relation_size(oid) DESC
+LIMIT 20;
+
+-- 4. Удаление месяца: DELETE против DETACH + DROP
+BEGIN;
+EXPLAIN (ANALYZE, BUFFERS)
+DELETE FROM bench_transfers_heap WHERE created_at < date_trunc('month', now() - INTERVAL '34 months');
+ROLLBACK;
+
+BEGIN;
+DO $$
+BEGIN
+    EXECUTE format('ALTER TABLE bench_transfers_part DETACH PARTITION %I',
+                   'bench_transfers_part_' || to_char(now() - INTERVAL '35 months', 'YYYY_MM'));
+END;
+$$;
+ROLLBACK;
@@ -0,0 +1,86 @@
+#!/usr/bin/env bash
+# Сравнение режимов исполнения запросов: пул платформенных потоков Tomcat против виртуальных потоков.
+# Один и тот же jar (mvn package -Pjava21 -DskipTests) запускается на JRE 21 дважды с одинаковым пулом Hikari,
+# нагрузка - hey (https://github.com/rakyll/hey): переводы и список карт.
+#
+#   ADMIN_PASSWORD=... ./docs/benchmarks/virtual-threads-load.sh [concurrency...]
+#
+# Требуется запущенный postgres из docker-compose с примененной схемой.
+# -Djdk.tracePinnedThreads=short печатает стек при каждом пиннинге carrier-потока - в логе vt-режима
+# их быть не должно.
+set -euo pipefail
+
+: "${ADMIN_PASSWORD:?set ADMIN_PASSWORD for admin@bank.com}"
+CONCURRENCY=("${@:-50 200 800}")
+DURATION="${DURATION:-30s}"
+POOL_SIZE="${DB_POOL_SIZE:-20}"
+PORT=18081
+BASE="http://localhost:$PORT"
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+JAR="$(ls "$ROOT"/target/card-management-*.jar | head -1)"
+LOGS="$ROOT/target/vt-bench"
+mkdir -p "$LOGS"
+
+start_app() {
+  local mode="$1" profiles="dev"
+  [[ "$mode" == "virtual" ]] && profiles="dev,virtual-threads"
+  java -Djdk.tracePinnedThreads=short -jar "$JAR" \
+    --server.port=$PORT \
+    --spring.profiles.active="$profiles" \
+    --spring.jpa.show-sql=false \
+    --spring.datasource.hikari.maximum-pool-size="$POOL_SIZE" \
+    >"$LOGS/$mode.log" 2>&1 &
+  APP_PID=$!
+  until curl -fs "$BASE/actuator/health/readiness" >/dev/null 2>&1; do sleep 0.2; done
+}
+
+stop_app() {
+  kill "$APP_PID" && wait "$APP_PID" 2>/dev/null || true
+}
+
+json_field() {
+  sed -E "s/.*\"$1\":\"?([^,\"}]+).*/\1/"
+}
+
+login() {
+  curl -fs -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$1\",\"password\":\"$2\"}" "$BASE/api/v1/auth/login" | json_field token
+}
+
+seed() {
+  # Отдельный пользователь с двумя картами и запасом баланса на весь прогон
+  local email="bench-$(date +%s%N)@bank.test" admin user_id
+  admin=$(login admin@bank.com "$ADMIN_PASSWORD")
+  user_id=$(curl -fs -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$email\",\"password\":\"benchmark\",\"firstName\":\"Load\",\"lastName\":\"Test\"}" \
+    "$BASE/api/v1/auth/register" | json_field id)
+  for _ in 1 2; do
+    curl -fs -H 'Content-Type: application/json' -H "Authorization: Bearer $admin" \
+      -d "{\"owner\":\"LOAD TEST\",\"expiryDate\":\"2035-01-01\",\"balance\":1000000,\"userId\":$user_id}" \
+      "$BASE/api/v1/cards" | json_field id
+  done | paste -sd ' ' >"$LOGS/cards"
+  TOKEN=$(login "$email" benchmark)
+  read -r FROM_CARD TO_CARD <"$LOGS/cards"
+}
+
+# hey печатает "Requests/sec" и распределение задержек, из него берется строка "99% in"
+run_load() {
+  local label="$1" concurrency="$2"; shift 2
+  local out rps p99
+  out=$(hey -z "$DURATION" -c "$concurrency" -H "Authorization: Bearer $TOKEN" "$@")
+  rps=$(echo "$out" | awk '/Requests\/sec/ {print $2}')
+  p99=$(echo "$out" | awk '/99% in/ {print $3 * 1000}')
+  printf '%-9s %-10s c=%-4s %10s req/s   p99 %8s ms\n' "$MODE" "$label" "$concurrency" "$rps" "$p99"
+}
+
+for MODE in platform virtual; do
+  start_app "$MODE"
+  seed
+  for c in ${CONCURRENCY[@]}; do
+    run_load transfers "$c" -m POST -T application/json \
+      -d "{\"fromCardId\":$FROM_CARD,\"toCardId\":$TO_CARD,\"amount\":0.01}" "$BASE/api/v1/transfers"
+    run_load cards "$c" "$BASE/api/v1/cards/my?size=20"
+  done
+  stop_app
+  echo "$MODE: $(grep -c 'VirtualThread\[' "$LOGS/$MODE.log" || true) pinned-thread reports in $LOGS/$MODE.log"
+done
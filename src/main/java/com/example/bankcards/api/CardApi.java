@@ -2,6 +2,7 @@ package com.example.bankcards.api;
 
 import com.example.bankcards.dto.request.CardRequest;
 import com.example.bankcards.dto.response.CardResponse;
+import com.example.bankcards.dto.response.WalletSummaryResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,9 +10,12 @@ import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RequestMapping("/api/v1/cards")
 @Tag(name = "Карты", description = "Управление банковскими картами")
@@ -29,12 +33,20 @@ public interface CardApi {
     CardResponse updateCard(@PathVariable Long cardId, @Valid @RequestBody CardRequest request);
 
     @GetMapping("/my")
-    @Operation(summary = "Получить мои карты")
-    Page<CardResponse> getMyCards(@PageableDefault(size = 10) Pageable pageable);
+    @Operation(summary = "Получить мои карты (ETag, If-None-Match -> 304)")
+    Page<CardResponse> getMyCards(@PageableDefault(size = 10) Pageable pageable, WebRequest request);
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток изменений моих карт (SSE): баланс и статус вместо опроса /my")
+    SseEmitter streamCardEvents();
+
+    @GetMapping("/summary")
+    @Operation(summary = "Получить сводку по моим картам")
+    WalletSummaryResponse getMySummary();
 
     @GetMapping("/{cardId}")
-    @Operation(summary = "Получить карту по ID")
-    CardResponse getCard(@PathVariable Long cardId);
+    @Operation(summary = "Получить карту по ID (ETag / Last-Modified, условный GET -> 304)")
+    CardResponse getCard(@PathVariable Long cardId, WebRequest request);
 
     @PatchMapping("/{cardId}/request-block")
     @Operation(summary = "Подать заявку на блокировку карты")
@@ -0,0 +1,27 @@
+package com.example.bankcards.api;
+
+import com.example.bankcards.dto.response.StatementRunResponse;
+import com.example.bankcards.util.StatementFormat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RequestMapping("/api/v1/statements")
+@Tag(name = "Выписки", description = "Формирование ежемесячных выписок по картам")
+@SecurityRequirement(name = "bearerAuth")
+public interface StatementApi {
+
+    @PostMapping("/{month}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Запустить формирование выписок за месяц (yyyy-MM) в фоне (202 Accepted), " +
+            "с продолжением с последнего checkpoint; 409 - прогон уже идет")
+    ResponseEntity<StatementRunResponse> generateStatements(
+            @PathVariable YearMonth month,
+            @RequestParam(defaultValue = "CSV") StatementFormat format
+    );
+}
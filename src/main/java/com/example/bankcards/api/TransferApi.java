@@ -1,15 +1,22 @@
 package com.example.bankcards.api;
 
+import com.example.bankcards.dto.request.TransferExportFilter;
 import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferFeedResponse;
 import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.dto.response.TransferSubmissionResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RequestMapping("/api/v1/transfers")
 @Tag(name = "Переводы", description = "Управление переводами между картами")
@@ -20,6 +27,14 @@ public interface TransferApi {
     @Operation(summary = "Создать перевод между картами")
     TransferResponse createTransfer(@Valid @RequestBody TransferRequest request);
 
+    @PostMapping("/async")
+    @Operation(summary = "Поставить перевод в очередь (202 Accepted, статус - /{submissionId}/status)")
+    ResponseEntity<TransferSubmissionResponse> submitTransfer(@Valid @RequestBody TransferRequest request);
+
+    @GetMapping("/{submissionId}/status")
+    @Operation(summary = "Статус перевода, поставленного в очередь")
+    TransferSubmissionResponse getSubmissionStatus(@PathVariable Long submissionId);
+
     @GetMapping("/my")
     @Operation(summary = "Получить мои переводы")
     Page<TransferResponse> getMyTransfers(@PageableDefault Pageable pageable);
@@ -31,7 +46,19 @@ public interface TransferApi {
             @PageableDefault Pageable pageable
     );
 
+    @GetMapping("/card/{cardId}/feed")
+    @Operation(summary = "Лента переводов по карте (курсорная пагинация)")
+    TransferFeedResponse getCardTransferFeed(
+            @PathVariable Long cardId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    );
+
+    @GetMapping("/export")
+    @Operation(summary = "Выгрузить историю переводов (CSV / NDJSON, потоково)")
+    ResponseEntity<StreamingResponseBody> exportTransfers(@ParameterObject TransferExportFilter filter);
+
     @GetMapping("/{transferId}")
-    @Operation(summary = "Получить перевод по ID")
-    TransferResponse getTransfer(@PathVariable Long transferId);
+    @Operation(summary = "Получить перевод по ID (ETag / Last-Modified, условный GET -> 304)")
+    TransferResponse getTransfer(@PathVariable Long transferId, WebRequest request);
 }
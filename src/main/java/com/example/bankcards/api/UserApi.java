@@ -12,6 +12,7 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RequestMapping("/api/v1/users")
 @SecurityRequirement(name = "bearerAuth")
@@ -29,8 +30,8 @@ public interface UserApi {
     UserResponse getUser(@PathVariable Long id);
 
     @GetMapping("/me")
-    @Operation(summary = "Получить информацию о текущем пользователе")
-    UserResponse getCurrentUser();
+    @Operation(summary = "Получить информацию о текущем пользователе (ETag / Last-Modified, условный GET -> 304)")
+    UserResponse getCurrentUser(WebRequest request);
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @userSecurity.isCurrentUser(#id)")
@@ -0,0 +1,38 @@
+package com.example.bankcards.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.adaptive-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AdaptiveLimitProperties.class)
+public class AdaptiveConcurrencyConfig {
+
+    @Bean
+    public AdaptiveConcurrencyRegistry adaptiveConcurrencyRegistry(AdaptiveLimitProperties properties,
+                                                                   MeterRegistry meterRegistry) {
+        return new AdaptiveConcurrencyRegistry(properties, meterRegistry);
+    }
+
+    // После отсеков (HIGHEST_PRECEDENCE + 1): запрос, отклоненный группой, не влияет на замеры лимита
+    @Bean
+    public FilterRegistrationBean<AdaptiveConcurrencyFilter> adaptiveConcurrencyFilter(AdaptiveConcurrencyRegistry registry,
+                                                                                      AdaptiveLimitProperties properties,
+                                                                                      ObjectMapper objectMapper) {
+        FilterRegistrationBean<AdaptiveConcurrencyFilter> registration =
+                new FilterRegistrationBean<>(new AdaptiveConcurrencyFilter(registry, properties, objectMapper));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    @Bean
+    public ConcurrencyLimitsEndpoint concurrencyLimitsEndpoint(AdaptiveConcurrencyRegistry registry) {
+        return new ConcurrencyLimitsEndpoint(registry);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bankcards.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// После отсеков (bulkhead) и до Spring Security: время ответа, по которому учится лимит, включает проверку JWT
+@RequiredArgsConstructor
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyRegistry registry;
+    private final AdaptiveLimitProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = registry.match(request);
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        int inflightAtStart = limiter.tryAcquire();
+        if (inflightAtStart < 0) {
+            ServiceUnavailableResponse.write(objectMapper, request, response, properties.getRetryAfter(),
+                    "Server is at its concurrency limit, retry later");
+            return;
+        }
+
+        Sample sample = new Sample(limiter, inflightAtStart, System.nanoTime());
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(sample);
+            } else {
+                sample.complete(failed, response.getStatus());
+            }
+        }
+    }
+
+    // Замер одного запроса; для async-ответов завершается по окончании async-обработки
+    private static final class Sample implements AsyncListener {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final int inflightAtStart;
+        private final long startNanos;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Sample(AdaptiveConcurrencyLimiter limiter, int inflightAtStart, long startNanos) {
+            this.limiter = limiter;
+            this.inflightAtStart = inflightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        // 4xx не участвуют в расчете: быстрые отказы валидации занизили бы базовую задержку
+        void complete(boolean error, int status) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            if (error || status >= 500) {
+                limiter.release(System.nanoTime() - startNanos, inflightAtStart, true);
+            } else if (status >= 400) {
+                limiter.releaseWithoutSample();
+            } else {
+                limiter.release(System.nanoTime() - startNanos, inflightAtStart, false);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            complete(false, response != null ? response.getStatus() : 200);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            complete(true, 0);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            complete(true, 0);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Градиентный лимит одновременных запросов (по мотивам Gradient2): базовая задержка - долгое скользящее среднее,
+// текущая - короткое. Рост задержки относительно базовой уменьшает лимит пропорционально, стабильная задержка
+// позволяет ему расти на очередь ~sqrt(limit). Лишние запросы отклоняются сразу, а не копятся в пулах
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_ALPHA = 0.2;
+
+    @Getter
+    private final String name;
+    private final AdaptiveLimitProperties.Limiter settings;
+    private final double longAlpha;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter rejectedCounter;
+    private final Counter droppedCounter;
+
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(String name, AdaptiveLimitProperties.Limiter settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.longAlpha = 2.0 / (settings.getLongWindow() + 1);
+        this.limit = settings.getInitialLimit();
+
+        Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.inflight", inflight, AtomicInteger::get)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.rtt.baseline", this, l -> l.longRtt / 1_000_000)
+                .tag("limiter", name)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("concurrency.rejected")
+                .description("Requests shed with 503 because the adaptive limit was reached")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("concurrency.dropped")
+                .description("Requests that failed with 5xx and cut the limit")
+                .tag("limiter", name)
+                .register(meterRegistry);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public double getRejected() {
+        return rejectedCounter.count();
+    }
+
+    public double getBaselineRttMillis() {
+        return longRtt / 1_000_000;
+    }
+
+    // Возвращает число запросов в работе на момент входа (нужно для onSample) или -1 при отказе
+    public int tryAcquire() {
+        int current = inflight.incrementAndGet();
+        if (current > getLimit()) {
+            inflight.decrementAndGet();
+            rejectedCounter.increment();
+            return -1;
+        }
+        return current;
+    }
+
+    public void release(long rttNanos, int inflightAtStart, boolean dropped) {
+        inflight.decrementAndGet();
+        lock.lock();
+        try {
+            if (dropped) {
+                droppedCounter.increment();
+                limit = clamp(limit * settings.getBackoffRatio());
+            } else {
+                onSample(rttNanos, inflightAtStart);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void releaseWithoutSample() {
+        inflight.decrementAndGet();
+    }
+
+    private void onSample(long rttNanos, int inflightAtStart) {
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt = shortRtt + SHORT_ALPHA * (rttNanos - shortRtt);
+        longRtt = longRtt + longAlpha * (rttNanos - longRtt);
+
+        // Задержка заметно ниже базовой (после деградации) - базовая подтягивается быстрее окна
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, settings.getRttTolerance() * longRtt / shortRtt));
+
+        // Недогруженный лимит не растет: пока запросов вдвое меньше лимита, его рост ничего не проверяет
+        if (gradient == 1.0 && inflightAtStart < limit / 2) {
+            return;
+        }
+
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        limit = clamp(limit * (1 - settings.getSmoothing()) + newLimit * settings.getSmoothing());
+    }
+
+    private double clamp(double value) {
+        return Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), value));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AdaptiveConcurrencyRegistry {
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new LinkedHashMap<>();
+    private final List<Route> routes = new ArrayList<>();
+
+    public AdaptiveConcurrencyRegistry(AdaptiveLimitProperties properties, MeterRegistry meterRegistry) {
+        properties.getLimiters().forEach((name, settings) -> {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(name, settings, meterRegistry);
+            limiters.put(name, limiter);
+            List<RequestRoute> excluded = settings.getExcludePaths().stream().map(RequestRoute::parse).toList();
+            for (String path : settings.getPaths()) {
+                routes.add(new Route(RequestRoute.parse(path), excluded, limiter));
+            }
+        });
+    }
+
+    // null - маршрут не ограничивается адаптивным лимитом
+    public AdaptiveConcurrencyLimiter match(HttpServletRequest request) {
+        PathContainer path = RequestRoute.pathOf(request);
+        for (Route route : routes) {
+            if (route.matches(request.getMethod(), path)) {
+                return route.limiter();
+            }
+        }
+        return null;
+    }
+
+    public Collection<AdaptiveConcurrencyLimiter> getLimiters() {
+        return limiters.values();
+    }
+
+    private record Route(RequestRoute route, List<RequestRoute> excluded, AdaptiveConcurrencyLimiter limiter) {
+
+        boolean matches(String method, PathContainer path) {
+            return route.matches(method, path) && excluded.stream().noneMatch(e -> e.matches(method, path));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.adaptive-limit")
+public class AdaptiveLimitProperties {
+
+    private boolean enabled = true;
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Map<String, Limiter> limiters = new LinkedHashMap<>();
+
+    @Data
+    public static class Limiter {
+        private List<String> paths = new ArrayList<>();
+
+        // Долгие потоковые ответы (выгрузки) исказили бы задержку, по которой учится лимит
+        private List<String> excludePaths = new ArrayList<>();
+
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+
+        // Во сколько раз краткосрочная задержка может превысить базовую, прежде чем лимит начнет снижаться
+        private double rttTolerance = 1.5;
+
+        // Доля нового значения при пересчете лимита: меньше - плавнее реакция на единичные выбросы
+        private double smoothing = 0.2;
+
+        // Окно (в запросах) долгосрочной базовой задержки
+        private int longWindow = 600;
+
+        // Множитель лимита при ответе 5xx/исключении - провалы БД снижают лимит сразу, не дожидаясь задержек
+        private double backoffRatio = 0.9;
+    }
+}
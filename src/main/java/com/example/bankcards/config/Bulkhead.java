@@ -0,0 +1,104 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Изолированный отсек маршрутов: собственный лимит одновременных запросов и собственная доля соединений
+public class Bulkhead {
+
+    private static final ThreadLocal<Bulkhead> CURRENT = new ThreadLocal<>();
+
+    @Getter
+    private final String name;
+    private final BulkheadProperties.Group settings;
+    private final Semaphore requests;
+    private final Semaphore connections;
+    private final Counter rejectedCounter;
+    private final Counter connectionTimeoutCounter;
+
+    public Bulkhead(String name, BulkheadProperties.Group settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.requests = new Semaphore(settings.getMaxConcurrent(), true);
+        this.connections = settings.getMaxConnections() > 0 ? new Semaphore(settings.getMaxConnections(), true) : null;
+
+        Gauge.builder("bulkhead.requests.active", requests, s -> settings.getMaxConcurrent() - s.availablePermits())
+                .tag("group", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.requests.limit", settings, BulkheadProperties.Group::getMaxConcurrent)
+                .tag("group", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.requests.queued", requests, Semaphore::getQueueLength)
+                .tag("group", name)
+                .register(meterRegistry);
+        if (connections != null) {
+            Gauge.builder("bulkhead.connections.active", connections,
+                            s -> settings.getMaxConnections() - s.availablePermits())
+                    .tag("group", name)
+                    .register(meterRegistry);
+        }
+        this.rejectedCounter = Counter.builder("bulkhead.rejected")
+                .description("Requests rejected with 503 because the group was saturated")
+                .tag("group", name)
+                .register(meterRegistry);
+        this.connectionTimeoutCounter = Counter.builder("bulkhead.connections.timeouts")
+                .description("Connection requests that exceeded the group's share of the pool")
+                .tag("group", name)
+                .register(meterRegistry);
+    }
+
+    public static Bulkhead current() {
+        return CURRENT.get();
+    }
+
+    public boolean tryEnter() {
+        boolean acquired;
+        try {
+            acquired = settings.getMaxWait().isZero()
+                    ? requests.tryAcquire()
+                    : requests.tryAcquire(settings.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCounter.increment();
+        }
+        return acquired;
+    }
+
+    public void exit() {
+        requests.release();
+    }
+
+    void bind() {
+        CURRENT.set(this);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    boolean limitsConnections() {
+        return connections != null;
+    }
+
+    boolean acquireConnection() throws InterruptedException {
+        Duration timeout = settings.getConnectionTimeout();
+        boolean acquired = connections.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (!acquired) {
+            connectionTimeoutCounter.increment();
+        }
+        return acquired;
+    }
+
+    void releaseConnection() {
+        connections.release();
+    }
+}
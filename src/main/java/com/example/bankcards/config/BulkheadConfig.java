@@ -0,0 +1,50 @@
+package com.example.bankcards.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.bulkheads", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return new BulkheadRegistry(properties, meterRegistry);
+    }
+
+    // Сразу после учета SQL (HIGHEST_PRECEDENCE), до цепочки Spring Security
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(BulkheadRegistry registry,
+                                                                BulkheadProperties properties,
+                                                                ObjectMapper objectMapper) {
+        FilterRegistrationBean<BulkheadFilter> registration =
+                new FilterRegistrationBean<>(new BulkheadFilter(registry, properties, objectMapper));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    @Bean
+    public static BeanPostProcessor bulkheadDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || !DATA_SOURCE_BEAN.equals(beanName)) {
+                    return bean;
+                }
+                return new BulkheadDataSource(dataSource);
+            }
+        };
+    }
+}
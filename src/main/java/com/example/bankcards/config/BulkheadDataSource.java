@@ -0,0 +1,92 @@
+package com.example.bankcards.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Делит общий пул Hikari на доли групп: соединение выдается, только если у текущей группы есть свободное место.
+// Сумма долей admin и listing меньше размера пула - остаток всегда доступен переводам и фоновым задачам
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    public BulkheadDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Bulkhead bulkhead = Bulkhead.current();
+        if (bulkhead == null || !bulkhead.limitsConnections()) {
+            return super.getConnection();
+        }
+        acquire(bulkhead);
+        try {
+            return releasing(super.getConnection(), bulkhead);
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.releaseConnection();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Bulkhead bulkhead = Bulkhead.current();
+        if (bulkhead == null || !bulkhead.limitsConnections()) {
+            return super.getConnection(username, password);
+        }
+        acquire(bulkhead);
+        try {
+            return releasing(super.getConnection(username, password), bulkhead);
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.releaseConnection();
+            throw e;
+        }
+    }
+
+    private static void acquire(Bulkhead bulkhead) throws SQLException {
+        try {
+            if (!bulkhead.acquireConnection()) {
+                throw new SQLTransientConnectionException(
+                        "Bulkhead '" + bulkhead.getName() + "' connection share exhausted");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    // Место в доле возвращается при close(); повторный close не освобождает его дважды
+    private static Connection releasing(Connection connection, Bulkhead bulkhead) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                BulkheadDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            bulkhead.releaseConnection();
+                        }
+                    }
+                    if ("unwrap".equals(method.getName()) || "isWrapperFor".equals(method.getName())) {
+                        Class<?> type = (Class<?>) args[0];
+                        if (type.isInstance(proxy)) {
+                            return "unwrap".equals(method.getName()) ? proxy : true;
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
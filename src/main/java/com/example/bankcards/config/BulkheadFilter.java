@@ -0,0 +1,90 @@
+package com.example.bankcards.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Стоит перед Spring Security: запрос в переполненную группу отклоняется до загрузки пользователя по JWT
+@RequiredArgsConstructor
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private final BulkheadRegistry registry;
+    private final BulkheadProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Bulkhead bulkhead = registry.match(request);
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!bulkhead.tryEnter()) {
+            reject(bulkhead, request, response);
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable exit = () -> {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.exit();
+            }
+        };
+
+        bulkhead.bind();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Bulkhead.unbind();
+            // Потоковые ответы (выгрузки) держат место в группе до завершения async-обработки
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(exit));
+            } else {
+                exit.run();
+            }
+        }
+    }
+
+    private void reject(Bulkhead bulkhead, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ServiceUnavailableResponse.write(objectMapper, request, response, properties.getRetryAfter(),
+                "Too many concurrent requests in group '" + bulkhead.getName() + "', retry later");
+    }
+
+    private record ReleasingListener(Runnable exit) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            exit.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            exit.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            exit.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Повторный startAsync переносит слушателя в новый контекст - освобождение произойдет по его завершении
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.bulkheads")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    // Подсказка клиенту в Retry-After при отказе 503
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // Группы проверяются в порядке объявления, запрос попадает в первую подходящую
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Data
+    public static class Group {
+        // "GET /api/v1/cards/my" или "/api/v1/statements/**" (любой метод)
+        private List<String> paths = new ArrayList<>();
+
+        private int maxConcurrent = 16;
+
+        // 0 - отказ сразу, без ожидания освободившегося места
+        private Duration maxWait = Duration.ZERO;
+
+        // Доля пула Hikari, которую группа может занять одновременно (0 - без ограничения)
+        private int maxConnections;
+
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BulkheadRegistry {
+
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+    private final List<Route> routes = new ArrayList<>();
+
+    public BulkheadRegistry(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        properties.getGroups().forEach((name, group) -> {
+            Bulkhead bulkhead = new Bulkhead(name, group, meterRegistry);
+            bulkheads.put(name, bulkhead);
+            for (String path : group.getPaths()) {
+                routes.add(new Route(RequestRoute.parse(path), bulkhead));
+            }
+        });
+    }
+
+    // null - маршрут не входит ни в одну группу и не ограничивается
+    public Bulkhead match(HttpServletRequest request) {
+        PathContainer path = RequestRoute.pathOf(request);
+        for (Route route : routes) {
+            if (route.route().matches(request.getMethod(), path)) {
+                return route.bulkhead();
+            }
+        }
+        return null;
+    }
+
+    public Collection<Bulkhead> getBulkheads() {
+        return bulkheads.values();
+    }
+
+    private record Route(RequestRoute route, Bulkhead bulkhead) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bankcards.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// /actuator/concurrencylimits: текущие лимиты и отказы без обращения к Prometheus
+@Endpoint(id = "concurrencylimits")
+@RequiredArgsConstructor
+public class ConcurrencyLimitsEndpoint {
+
+    private final AdaptiveConcurrencyRegistry registry;
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> limits() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        registry.getLimiters().forEach(limiter -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("limit", limiter.getLimit());
+            state.put("inflight", limiter.getInflight());
+            state.put("rejected", (long) limiter.getRejected());
+            state.put("baselineRttMillis", limiter.getBaselineRttMillis());
+            result.put(limiter.getName(), state);
+        });
+        return result;
+    }
+}
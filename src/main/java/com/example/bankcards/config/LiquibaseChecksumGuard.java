@@ -0,0 +1,130 @@
+package com.example.bankcards.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+// Liquibase на каждом старте берет блокировку и сверяет DATABASECHANGELOG со всеми changeSet'ами.
+// Если хэш файлов миграций совпадает с записанным после последнего успешного прогона - запуск пропускается
+@Slf4j
+public class LiquibaseChecksumGuard implements BeanPostProcessor {
+
+    static final String[] CHANGELOG_LOCATIONS = {"classpath*:db/changelog/**/*.*", "classpath*:db/migration/**/*.*"};
+
+    private static final String SELECT_SQL = "SELECT checksum FROM schema_changelog_checksum WHERE id = 1";
+    private static final String UPDATE_SQL =
+            "UPDATE schema_changelog_checksum SET checksum = ?, updated_at = CURRENT_TIMESTAMP WHERE id = 1";
+    private static final String INSERT_SQL =
+            "INSERT INTO schema_changelog_checksum (id, checksum, updated_at) VALUES (1, ?, CURRENT_TIMESTAMP)";
+
+    private final ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver();
+
+    // При spring.liquibase.enabled=false (в т.ч. тренировочный запуск CDS) база не трогается вовсе
+    private final boolean liquibaseEnabled;
+
+    private String checksum;
+    private boolean skipped;
+
+    public LiquibaseChecksumGuard(boolean liquibaseEnabled) {
+        this.liquibaseEnabled = liquibaseEnabled;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof SpringLiquibase liquibase && liquibaseEnabled) {
+            checksum = computeChecksum();
+            String stored = readStoredChecksum(liquibase);
+            if (checksum.equals(stored)) {
+                liquibase.setShouldRun(false);
+                skipped = true;
+                log.info("Liquibase skipped: changelog checksum {} is already applied", checksum);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // Сюда доходим только после успешного прогона: при ошибке миграции старт прерывается в afterPropertiesSet
+        if (bean instanceof SpringLiquibase liquibase && liquibaseEnabled && !skipped) {
+            storeChecksum(liquibase);
+        }
+        return bean;
+    }
+
+    String computeChecksum() {
+        try {
+            List<Resource> resources = new ArrayList<>();
+            for (String location : CHANGELOG_LOCATIONS) {
+                for (Resource resource : resourceResolver.getResources(location)) {
+                    if (resource.isReadable()) {
+                        resources.add(resource);
+                    }
+                }
+            }
+            resources.sort(Comparator.comparing(LiquibaseChecksumGuard::relativePath));
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Resource resource : resources) {
+                digest.update(relativePath(resource).getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = resource.getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read Liquibase changelog", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String readStoredChecksum(SpringLiquibase liquibase) {
+        try {
+            return new JdbcTemplate(liquibase.getDataSource()).queryForObject(SELECT_SQL, String.class);
+        } catch (DataAccessException e) {
+            // Нет таблицы или строки - первый запуск на этой базе, Liquibase выполняется полностью
+            return null;
+        }
+    }
+
+    private void storeChecksum(SpringLiquibase liquibase) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(liquibase.getDataSource());
+        try {
+            if (jdbcTemplate.update(UPDATE_SQL, checksum) == 0) {
+                jdbcTemplate.update(INSERT_SQL, checksum);
+            }
+        } catch (DataAccessException e) {
+            // Не записанная сумма означает лишь полный прогон Liquibase при следующем старте
+            log.warn("Cannot store changelog checksum: {}", e.getMessage());
+        }
+    }
+
+    // Путь относительно db/, одинаковый для exploded classpath, jar и образа с CDS
+    private static String relativePath(Resource resource) {
+        try {
+            String uri = resource.getURI().toString();
+            int index = uri.lastIndexOf("/db/");
+            return index >= 0 ? uri.substring(index + 1) : URI.create(uri).getPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.bankcards.config;
+
+public final class ReadConsistencyContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadConsistencyContext() {
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.bankcards.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+public class ReadConsistencyFilter extends OncePerRequestFilter {
+
+    // Клиент, который только что выполнил запись, может потребовать чтение с primary (read-your-writes)
+    public static final String HEADER = "X-Read-Consistency";
+    public static final String STRONG = "strong";
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (STRONG.equalsIgnoreCase(request.getHeader(HEADER))) {
+            ReadConsistencyContext.requirePrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadConsistencyContext.clear();
+        }
+    }
+}
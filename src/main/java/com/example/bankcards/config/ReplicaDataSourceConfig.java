@@ -0,0 +1,90 @@
+package com.example.bankcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @LiquibaseDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                     DataSourceProperties primaryProperties,
+                                                     ReplicaDataSourceProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaDataSourceProperties.Node> nodes = properties.getNodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            ReplicaDataSourceProperties.Node node = nodes.get(i);
+            String name = "replica-" + i;
+
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(node.getUrl());
+            replica.setUsername(node.getUsername() != null ? node.getUsername() : primaryProperties.getUsername());
+            replica.setPassword(node.getPassword() != null ? node.getPassword() : primaryProperties.getPassword());
+            replica.setMaximumPoolSize(node.getMaximumPoolSize());
+            replica.setMinimumIdle(node.getMinimumIdle());
+            replica.setConnectionTimeout(node.getConnectionTimeout().toMillis());
+            replica.setReadOnly(true);
+            // Недоступная при старте реплика не должна ронять приложение - ее исключит монитор
+            replica.setInitializationFailTimeout(-1);
+
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        // Физическое соединение берется при первом запросе, когда read-only флаг транзакции уже известен
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource routingDataSource,
+                                               ReplicaDataSourceProperties properties) {
+        return new ReplicaLagMonitor(routingDataSource, properties);
+    }
+
+    @Bean
+    public MeterBinder replicaMetrics(ReplicaRoutingDataSource routingDataSource) {
+        return registry -> routingDataSource.getReplicas().forEach(replica -> {
+            Gauge.builder("datasource.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLagSeconds)
+                    .tag("replica", replica.getName())
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .tag("replica", replica.getName())
+                    .register(registry);
+        });
+    }
+}
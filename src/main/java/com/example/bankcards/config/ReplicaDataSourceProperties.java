@@ -0,0 +1,32 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled;
+
+    // Реплика с отставанием больше порога исключается из маршрутизации до следующей проверки
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private long healthCheckIntervalMs = 5000;
+
+    private List<Node> nodes = new ArrayList<>();
+
+    @Data
+    public static class Node {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 20;
+        private int minimumIdle = 2;
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReplicaDataSourceProperties properties;
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        routingDataSource.refreshReplicaHealth(properties.getMaxLag());
+    }
+}
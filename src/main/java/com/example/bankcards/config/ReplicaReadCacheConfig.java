@@ -0,0 +1,27 @@
+package com.example.bankcards.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+// Диалект задается до afterPropertiesSet фабрики: иначе она возьмет HibernateJpaDialect у vendor adapter,
+// а JpaTransactionManager получает диалект от фабрики
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replicas", name = "enabled", havingValue = "true")
+public class ReplicaReadCacheConfig {
+
+    @Bean
+    public static BeanPostProcessor replicaReadJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factoryBean) {
+                    factoryBean.setJpaDialect(new ReplicaReadJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bankcards.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+// Read-only транзакция может уйти на отстающую реплику: ее сессия читает L2, но не кладет в него загруженное.
+// Иначе putFromLoad вернул бы в регионы card / user_wallet_summary строку, которую CardLockServiceImpl
+// только что сбросил после записи на primary. Задается свойство EntityManager, а не CacheMode сессии:
+// find() пересчитывает режим из свойств. Режим восстанавливается - при open-in-view сессия переживает транзакцию
+public class ReplicaReadJpaDialect extends HibernateJpaDialect {
+
+    private static final String STORE_MODE = "jakarta.persistence.cache.storeMode";
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || ReadConsistencyContext.isPrimaryRequired()) {
+            return transactionData;
+        }
+
+        Object previousStoreMode = entityManager.getProperties().getOrDefault(STORE_MODE, CacheStoreMode.USE);
+        entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+        return new ReplicaReadTransactionData(transactionData, entityManager, previousStoreMode);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaReadTransactionData data) {
+            if (data.entityManager().isOpen()) {
+                data.entityManager().setProperty(STORE_MODE, data.previousStoreMode());
+            }
+            super.cleanupTransaction(data.delegate());
+            return;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private record ReplicaReadTransactionData(Object delegate, EntityManager entityManager, Object previousStoreMode) {
+    }
+}
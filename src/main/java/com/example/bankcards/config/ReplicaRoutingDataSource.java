@@ -0,0 +1,110 @@
+package com.example.bankcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    @Getter
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaDataSources) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaDataSources.forEach((name, dataSource) -> {
+            targets.put(name, dataSource);
+            replicas.add(new Replica(name, dataSource));
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // Пишущие транзакции, вложенные в них read-only вызовы и запросы с X-Read-Consistency: strong - на primary
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() ||
+                ReadConsistencyContext.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica.getName();
+            }
+        }
+        return PRIMARY;
+    }
+
+    public void refreshReplicaHealth(Duration maxLag) {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.isHealthy();
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                replica.lagSeconds = rs.getDouble(1);
+                replica.healthy = replica.lagSeconds <= maxLag.toMillis() / 1000.0;
+            } catch (SQLException e) {
+                replica.healthy = false;
+                log.debug("Replica {} health check failed", replica.getName(), e);
+            }
+
+            if (wasHealthy != replica.isHealthy()) {
+                log.warn("Replica {} is now {} (lag {}s, tolerance {})", replica.getName(),
+                        replica.isHealthy() ? "in rotation" : "out of rotation",
+                        replica.getLagSeconds(), maxLag);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+
+    @Getter
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        // До первой успешной проверки реплика не получает чтений
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.bankcards.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+// Маршрут из настроек фильтров: "GET /api/v1/cards/my" или "/api/v1/statements/**" (любой метод)
+record RequestRoute(String method, PathPattern pattern) {
+
+    static RequestRoute parse(String definition) {
+        String[] parts = definition.trim().split("\\s+", 2);
+        return parts.length == 2
+                ? new RequestRoute(parts[0].toUpperCase(), PathPatternParser.defaultInstance.parse(parts[1]))
+                : new RequestRoute(null, PathPatternParser.defaultInstance.parse(parts[0]));
+    }
+
+    static PathContainer pathOf(HttpServletRequest request) {
+        return PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    boolean matches(String requestMethod, PathContainer path) {
+        return (method == null || method.equals(requestMethod)) && pattern.matches(path);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.bankcards.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,6 +18,10 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.DispatcherTypeRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -32,6 +37,13 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Потоковые ответы (выгрузка, SSE) завершаются async-диспетчеризацией, доступ уже проверен
+                        // в исходном запросе; остальные async-диспетчеризации проверяются как обычно
+                        .requestMatchers(new AndRequestMatcher(
+                                new DispatcherTypeRequestMatcher(DispatcherType.ASYNC),
+                                new OrRequestMatcher(
+                                        new AntPathRequestMatcher(StreamingExportConfig.EXPORT_PATH),
+                                        new AntPathRequestMatcher("/api/v1/cards/events")))).permitAll()
                         .requestMatchers(
                                 // Swagger/OpenAPI
                                 "/docs/**",
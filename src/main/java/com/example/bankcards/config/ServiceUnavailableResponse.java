@@ -0,0 +1,37 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.dto.response.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+// Отказ фильтров сброса нагрузки: до контроллеров, поэтому тело пишется вручную в формате GlobalExceptionHandler
+final class ServiceUnavailableResponse {
+
+    private ServiceUnavailableResponse() {
+    }
+
+    static void write(ObjectMapper objectMapper,
+                      HttpServletRequest request,
+                      HttpServletResponse response,
+                      Duration retryAfter,
+                      String message) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                Instant.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "SERVICE_UNAVAILABLE",
+                message,
+                request.getRequestURI()
+        ));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.bankcards.config;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Снаружи транзакционного прокси: flush при коммите тоже относится к методу
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.sql-budget", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetAspect {
+
+    private final SqlBudgetRecorder recorder;
+
+    @Around("within(com.example.bankcards.service.impl..*) && " +
+            "(@annotation(org.springframework.transaction.annotation.Transactional) || " +
+            "@within(org.springframework.transaction.annotation.Transactional))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." +
+                joinPoint.getSignature().getName();
+
+        SqlStatementStats stats = SqlStatementContext.open(method);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            SqlStatementContext.close(stats);
+            recorder.recordMethod(stats);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bankcards.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql-budget", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // Оборачивается только основной DataSource: при включенных репликах это прокси над маршрутизатором,
+    // и запрос учитывается один раз, на какой бы узел он ни ушел.
+    // Подсчет строк проксирует каждый ResultSet и перехватывает каждый вызов next() - по умолчанию выключен
+    @Bean
+    public static BeanPostProcessor sqlBudgetDataSourcePostProcessor(Environment environment) {
+        boolean countRows = environment.getProperty("app.sql-budget.count-rows", Boolean.class, false);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || !DATA_SOURCE_BEAN.equals(beanName)) {
+                    return bean;
+                }
+                SqlStatementListener listener = new SqlStatementListener();
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener);
+                if (countRows) {
+                    builder.methodListener(listener).proxyResultSet();
+                }
+                return builder.build();
+            }
+        };
+    }
+}
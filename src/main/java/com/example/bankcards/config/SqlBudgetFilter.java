@@ -0,0 +1,52 @@
+package com.example.bankcards.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Раньше цепочки Spring Security, чтобы в бюджет запроса попадала и загрузка пользователя по JWT
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.sql-budget", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private static final String UNMATCHED = "UNMATCHED";
+
+    // В срезах @WebMvcTest регистратора с MeterRegistry нет - фильтр тогда только ведет счетчики
+    private final ObjectProvider<SqlBudgetRecorder> recorder;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        SqlStatementStats stats = SqlStatementContext.open(UNMATCHED);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementContext.close(stats);
+            recorder.ifAvailable(r -> r.recordRequest(withEndpoint(stats, request)));
+        }
+    }
+
+    private SqlStatementStats withEndpoint(SqlStatementStats stats, HttpServletRequest request) {
+        // Тег - шаблон маршрута, а не фактический URI, иначе каждый id карты порождает новую серию метрик
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : UNMATCHED);
+        return stats.renamed(endpoint);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.sql-budget", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetRecorder {
+
+    private final MeterRegistry meterRegistry;
+
+    // Худший вызов каждого эндпоинта / метода за интервал отчета
+    private final Map<String, SqlStatementStats> worst = new ConcurrentHashMap<>();
+
+    @Value("${app.sql-budget.warn-statements:25}")
+    private int warnStatements;
+
+    @Value("${app.sql-budget.warn-jdbc-time:500ms}")
+    private Duration warnJdbcTime;
+
+    @Value("${app.sql-budget.count-rows:false}")
+    private boolean countRows;
+
+    @Value("${app.sql-budget.report-top:5}")
+    private int reportTop;
+
+    public SqlBudgetRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordRequest(SqlStatementStats stats) {
+        record("sql.request", "endpoint", stats);
+    }
+
+    public void recordMethod(SqlStatementStats stats) {
+        record("sql.method", "method", stats);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sql-budget.report-interval-ms:300000}")
+    public void reportWorstOffenders() {
+        if (worst.isEmpty()) {
+            return;
+        }
+
+        List<SqlStatementStats> top = worst.values().stream()
+                .sorted(Comparator.comparingInt(SqlStatementStats::getStatements).reversed()
+                        .thenComparing(SqlStatementStats::getJdbcNanos, Comparator.reverseOrder()))
+                .limit(reportTop)
+                .toList();
+        worst.clear();
+
+        log.info("Top SQL consumers since last report:{}", top.stream()
+                .map(stats -> "\n  " + stats)
+                .reduce("", String::concat));
+    }
+
+    private void record(String metric, String tag, SqlStatementStats stats) {
+        DistributionSummary.builder(metric + ".statements")
+                .description("JDBC statements executed")
+                .tag(tag, stats.getName())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        // Без подсчета строк метрика всегда была бы нулевой
+        if (countRows) {
+            DistributionSummary.builder(metric + ".rows")
+                    .description("Rows read from JDBC result sets")
+                    .tag(tag, stats.getName())
+                    .register(meterRegistry)
+                    .record(stats.getRows());
+        }
+        Timer.builder(metric + ".jdbc.time")
+                .description("Time spent in JDBC calls")
+                .tag(tag, stats.getName())
+                .register(meterRegistry)
+                .record(stats.getJdbcTime());
+
+        worst.merge(stats.getName(), stats, (current, candidate) ->
+                candidate.getStatements() > current.getStatements() ? candidate : current);
+
+        if (stats.getStatements() > warnStatements || stats.getJdbcTime().compareTo(warnJdbcTime) > 0) {
+            log.warn("SQL budget exceeded by {}", stats);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bankcards.config;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public final class SqlStatementContext {
+
+    // Вложенные области учета текущего потока: HTTP-запрос -> метод сервиса -> вложенный метод сервиса
+    private static final ThreadLocal<Deque<SqlStatementStats>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private SqlStatementContext() {
+    }
+
+    public static SqlStatementStats open(String name) {
+        SqlStatementStats stats = new SqlStatementStats(name);
+        SCOPES.get().push(stats);
+        return stats;
+    }
+
+    public static void close(SqlStatementStats stats) {
+        Deque<SqlStatementStats> scopes = SCOPES.get();
+        scopes.remove(stats);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    // Выполняет действие в отдельной области и возвращает ее счетчики - основа для проверок бюджета в тестах
+    public static SqlStatementStats measure(String name, Runnable action) {
+        SqlStatementStats stats = open(name);
+        try {
+            action.run();
+            return stats;
+        } finally {
+            close(stats);
+        }
+    }
+
+    static void recordExecution(int statementCount, long elapsedNanos) {
+        // Запрос учитывается во всех открытых областях, чтобы итог HTTP-запроса включал вложенные методы
+        for (SqlStatementStats stats : SCOPES.get()) {
+            stats.recordExecution(statementCount, elapsedNanos);
+        }
+    }
+
+    static void recordRow() {
+        for (SqlStatementStats stats : SCOPES.get()) {
+            stats.recordRow();
+        }
+    }
+
+    static boolean isActive() {
+        return !SCOPES.get().isEmpty();
+    }
+}
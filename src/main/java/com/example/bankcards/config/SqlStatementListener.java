@@ -0,0 +1,46 @@
+package com.example.bankcards.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+// Счетчики datasource-proxy: выполненные запросы (пачка batch - один вызов JDBC), время JDBC и строки ResultSet
+public class SqlStatementListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final String STARTED_AT = "sqlBudget.startedAt";
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // getElapsedTime() в миллисекундах, для коротких запросов по индексу это почти всегда 0
+        if (SqlStatementContext.isActive()) {
+            execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        if (startedAt != null && SqlStatementContext.isActive()) {
+            SqlStatementContext.recordExecution(1, System.nanoTime() - startedAt);
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())
+                && SqlStatementContext.isActive()) {
+            SqlStatementContext.recordRow();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.bankcards.config;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class SqlStatementStats {
+
+    private final String name;
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+
+    public SqlStatementStats(String name) {
+        this.name = name;
+    }
+
+    SqlStatementStats renamed(String newName) {
+        SqlStatementStats copy = new SqlStatementStats(newName);
+        copy.statements = statements;
+        copy.rows = rows;
+        copy.jdbcNanos = jdbcNanos;
+        return copy;
+    }
+
+    void recordExecution(int statementCount, long elapsedNanos) {
+        statements += statementCount;
+        jdbcNanos += elapsedNanos;
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    public Duration getJdbcTime() {
+        return Duration.ofNanos(jdbcNanos);
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + statements + " statements, " + rows + " rows, " + getJdbcTime().toMillis() + " ms JDBC";
+    }
+}
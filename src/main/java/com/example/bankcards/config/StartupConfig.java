@@ -0,0 +1,55 @@
+package com.example.bankcards.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+import java.util.Set;
+
+// Настройки быстрого старта, включаются профилем fast-startup (application-fast-startup.yml)
+@Configuration
+public class StartupConfig {
+
+    // Бины вне пути обработки запросов (OpenAPI, swagger, админские эндпоинты) создаются при первом обращении.
+    // Контроллеры регистрируются в HandlerMapping по имени бина, поэтому ленивый контроллер не теряет маршруты
+    @Bean
+    @ConditionalOnProperty(prefix = "app.startup", name = "lazy-non-request-beans", havingValue = "true")
+    public static BeanFactoryPostProcessor nonRequestBeansLazyInitializer(Environment environment) {
+        Binder binder = Binder.get(environment);
+        Set<String> beanNames = binder.bind("app.startup.lazy-beans", Bindable.setOf(String.class))
+                .orElse(Set.of());
+        List<String> packages = binder.bind("app.startup.lazy-packages", Bindable.listOf(String.class))
+                .orElse(List.of());
+
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                // Бины из @Bean-методов не имеют своего класса в определении - смотрим на класс конфигурации
+                String factoryBean = definition.getFactoryBeanName();
+                boolean declaredInPackage = factoryBean != null && beanFactory.containsBeanDefinition(factoryBean)
+                        && inPackages(beanFactory.getBeanDefinition(factoryBean), packages);
+
+                if (beanNames.contains(name) || inPackages(definition, packages) || declaredInPackage) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.startup", name = "liquibase-skip-unchanged", havingValue = "true")
+    public static LiquibaseChecksumGuard liquibaseChecksumGuard(Environment environment) {
+        return new LiquibaseChecksumGuard(environment.getProperty("spring.liquibase.enabled", Boolean.class, true));
+    }
+
+    private static boolean inPackages(BeanDefinition definition, List<String> packages) {
+        String className = definition.getBeanClassName();
+        return className != null && packages.stream().anyMatch(className::startsWith);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.bankcards.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+@EnableConfigurationProperties(StatementProperties.class)
+public class StatementConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool statementPool(StatementProperties properties) {
+        return new ForkJoinPool(properties.getParallelism());
+    }
+
+    // Ручной запуск выполняется вне HTTP-потока; одновременных прогонов не больше одного - их отсекает аренда
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService statementRunner() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statement-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.statements")
+public class StatementProperties {
+
+    private String outputDir = "statements";
+
+    // Каждый поток держит одно соединение на время сканирования диапазона - не больше размера пула Hikari
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // Ширина диапазона id карт на одну задачу и единица checkpoint
+    private long rangeSize = 1000;
+
+    private int fetchSize = 1000;
+
+    // Аренда SchedulerLockService на прогон; с запасом покрывает полный месяц, при падении узла истекает сама
+    private Duration lockLease = Duration.ofHours(2);
+}
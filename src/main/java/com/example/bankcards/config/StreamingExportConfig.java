@@ -0,0 +1,41 @@
+package com.example.bankcards.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+@Configuration
+public class StreamingExportConfig implements WebMvcConfigurer {
+
+    static final String EXPORT_PATH = "/api/v1/transfers/export";
+
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+    @Value("${app.transfers.export.timeout:30m}")
+    private Duration exportTimeout;
+
+    // Длинный таймаут только у потоковой выгрузки; остальные async-ответы живут с таймаутом контейнера
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // Вызывается до startAsync, поэтому таймаут еще можно поменять
+                HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+                if (request instanceof AsyncWebRequest asyncRequest && servletRequest != null &&
+                        EXPORT_PATH.equals(PATH_HELPER.getPathWithinApplication(servletRequest))) {
+                    asyncRequest.setTimeout(exportTimeout.toMillis());
+                }
+            }
+        });
+    }
+}
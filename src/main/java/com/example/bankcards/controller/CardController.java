@@ -3,7 +3,11 @@ package com.example.bankcards.controller;
 import com.example.bankcards.api.CardApi;
 import com.example.bankcards.dto.request.CardRequest;
 import com.example.bankcards.dto.response.CardResponse;
+import com.example.bankcards.dto.response.WalletSummaryResponse;
+import com.example.bankcards.service.CardEventService;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.WalletSummaryService;
+import com.example.bankcards.util.VersionedResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -14,12 +18,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequiredArgsConstructor
 public class CardController implements CardApi {
 
     private final CardService cardService;
+    private final WalletSummaryService walletSummaryService;
+    private final CardEventService cardEventService;
 
     @Override
     public CardResponse createCard(@Valid @RequestBody CardRequest request) {
@@ -32,13 +40,33 @@ public class CardController implements CardApi {
     }
 
     @Override
-    public Page<CardResponse> getMyCards(@PageableDefault(size = 10) Pageable pageable) {
-        return cardService.getUserCards(pageable);
+    public Page<CardResponse> getMyCards(@PageableDefault(size = 10) Pageable pageable, WebRequest request) {
+        // null при совпавшем ETag - ответ 304 без тела
+        VersionedResponse<Page<CardResponse>> cards = cardService.getVersionedUserCards(pageable);
+        if (cards.version().checkNotModified(request)) {
+            return null;
+        }
+        return cards.body();
+    }
+
+    @Override
+    public SseEmitter streamCardEvents() {
+        return cardEventService.subscribe();
+    }
+
+    @Override
+    public WalletSummaryResponse getMySummary() {
+        return walletSummaryService.getCurrentUserSummary();
     }
 
     @Override
-    public CardResponse getCard(@PathVariable Long cardId) {
-        return cardService.getCardById(cardId);
+    public CardResponse getCard(@PathVariable Long cardId, WebRequest request) {
+        // ETag считается по телу ответа: совпал с If-None-Match - 304 без тела
+        VersionedResponse<CardResponse> card = cardService.getVersionedCard(cardId);
+        if (card.version().checkNotModified(request)) {
+            return null;
+        }
+        return card.body();
     }
 
     @Override
@@ -0,0 +1,27 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.api.StatementApi;
+import com.example.bankcards.dto.response.StatementRunResponse;
+import com.example.bankcards.service.StatementService;
+import com.example.bankcards.util.StatementFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+
+@RestController
+@RequiredArgsConstructor
+public class StatementController implements StatementApi {
+
+    private final StatementService statementService;
+
+    @Override
+    public ResponseEntity<StatementRunResponse> generateStatements(
+            @PathVariable YearMonth month,
+            @RequestParam(defaultValue = "CSV") StatementFormat format) {
+        return ResponseEntity.accepted().body(statementService.startMonthlyStatements(month, format));
+    }
+}
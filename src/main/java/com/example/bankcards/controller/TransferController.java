@@ -1,29 +1,59 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.api.TransferApi;
+import com.example.bankcards.dto.request.TransferExportFilter;
 import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferFeedResponse;
 import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.dto.response.TransferSubmissionResponse;
+import com.example.bankcards.service.TransferExportService;
 import com.example.bankcards.service.TransferService;
+import com.example.bankcards.service.TransferSubmissionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequiredArgsConstructor
 public class TransferController implements TransferApi {
 
     private final TransferService transferService;
+    private final TransferExportService transferExportService;
+    private final TransferSubmissionService transferSubmissionService;
 
     @Override
     public TransferResponse createTransfer(@Valid @RequestBody TransferRequest request) {
         return transferService.createTransfer(request);
     }
 
+    @Override
+    public ResponseEntity<TransferSubmissionResponse> submitTransfer(@Valid @RequestBody TransferRequest request) {
+        TransferSubmissionResponse submission = transferSubmissionService.submitTransfer(request);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/v1/transfers/{submissionId}/status")
+                        .buildAndExpand(submission.getId())
+                        .toUri())
+                .body(submission);
+    }
+
+    @Override
+    public TransferSubmissionResponse getSubmissionStatus(@PathVariable Long submissionId) {
+        return transferSubmissionService.getSubmission(submissionId);
+    }
+
     @Override
     public Page<TransferResponse> getMyTransfers(@PageableDefault Pageable pageable) {
         return transferService.getUserTransfers(pageable);
@@ -37,7 +67,32 @@ public class TransferController implements TransferApi {
     }
 
     @Override
-    public TransferResponse getTransfer(@PathVariable Long transferId) {
+    public TransferFeedResponse getCardTransferFeed(
+            @PathVariable Long cardId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return transferService.getCardTransferFeed(cardId, cursor, size);
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportTransfers(TransferExportFilter filter) {
+        StreamingResponseBody body = transferExportService.exportTransfers(filter);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(filter.getFormat().getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transfers." + filter.getFormat().getExtension() + "\"");
+        if (filter.isGzip()) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @Override
+    public TransferResponse getTransfer(@PathVariable Long transferId, WebRequest request) {
+        if (transferService.getTransferVersion(transferId).map(version -> version.checkNotModified(request)).orElse(false)) {
+            return null;
+        }
         return transferService.getTransferById(transferId);
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.example.bankcards.api.UserApi;
 import com.example.bankcards.dto.request.UserRequest;
 import com.example.bankcards.dto.response.UserResponse;
 import com.example.bankcards.service.UserService;
+import com.example.bankcards.util.VersionedResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -13,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequiredArgsConstructor
@@ -31,8 +33,12 @@ public class UserController implements UserApi {
     }
 
     @Override
-    public UserResponse getCurrentUser() {
-        return userService.getCurrentUser();
+    public UserResponse getCurrentUser(WebRequest request) {
+        VersionedResponse<UserResponse> user = userService.getVersionedCurrentUser();
+        if (user.version().checkNotModified(request)) {
+            return null;
+        }
+        return user.body();
     }
 
     @Override
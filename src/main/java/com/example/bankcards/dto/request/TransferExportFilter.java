@@ -0,0 +1,32 @@
+package com.example.bankcards.dto.request;
+
+import com.example.bankcards.util.ExportFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferExportFilter {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private Long cardId;
+
+    @Builder.Default
+    private ExportFormat format = ExportFormat.CSV;
+
+    private boolean gzip;
+}
@@ -0,0 +1,24 @@
+package com.example.bankcards.dto.response;
+
+import com.example.bankcards.util.StatementFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementRunResponse {
+    private String month;
+    private StatementFormat format;
+    private String outputDir;
+    private int totalRanges;
+    private int skippedRanges;
+    private long cards;
+    private long transfers;
+    private long durationMs;
+    // false - прогон принят и выполняется в фоне, счетчики еще не заполнены
+    private boolean completed;
+}
@@ -0,0 +1,18 @@
+package com.example.bankcards.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferFeedResponse {
+    private List<TransferResponse> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,33 @@
+package com.example.bankcards.dto.response;
+
+import com.example.bankcards.util.TransferSubmissionStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferSubmissionResponse {
+    private Long id;
+    private TransferSubmissionStatus status;
+    private Long fromCardId;
+    private Long toCardId;
+    private BigDecimal amount;
+
+    // Заполняется после проведения перевода
+    private Long transferId;
+    private String errorMessage;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+}
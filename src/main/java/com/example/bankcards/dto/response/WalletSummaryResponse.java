@@ -0,0 +1,27 @@
+package com.example.bankcards.dto.response;
+
+import com.example.bankcards.util.CardStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletSummaryResponse {
+    private Long userId;
+    private BigDecimal totalBalance;
+    private int totalCards;
+    private Map<CardStatus, Integer> cardsByStatus;
+    private int pendingBlockRequests;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+}
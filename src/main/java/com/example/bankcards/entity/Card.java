@@ -3,7 +3,10 @@ package com.example.bankcards.entity;
 import com.example.bankcards.util.CardStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -12,6 +15,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "cards")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "card")
+@SQLRestriction("deleted_at IS NULL")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,7 +25,8 @@ import java.time.LocalDateTime;
 public class Card {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_seq")
+    @SequenceGenerator(name = "card_seq", sequenceName = "cards_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "card_number", nullable = false, unique = true)
@@ -56,4 +62,13 @@ public class Card {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Надгробие: строка остается до фоновой очистки, запросы по сущности ее не видят
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    // Загрузка по id может вернуть надгробие из L2-кэша, поэтому проверяется явно
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
 }
\ No newline at end of file
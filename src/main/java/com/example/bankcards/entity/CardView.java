@@ -0,0 +1,56 @@
+package com.example.bankcards.entity;
+
+import com.example.bankcards.util.CardStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Строка read model списков карт; пишется только CardViewService, поля совпадают с CardResponse
+@Entity
+@Immutable
+@Table(name = "card_view")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CardView {
+
+    @Id
+    private Long id;
+
+    @Column(name = "masked_number")
+    private String maskedNumber;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(name = "expiry_date", nullable = false)
+    private LocalDate expiryDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CardStatus status;
+
+    @Column(name = "requested_block")
+    private Boolean requestedBlock;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "projected_at", nullable = false)
+    private LocalDateTime projectedAt;
+}
@@ -0,0 +1,44 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Запись архива переводов; пишется только TransferArchiveService, приложение ее не изменяет
+@Entity
+@Immutable
+@Table(name = "transfers_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "from_card_id", nullable = false)
+    private Long fromCardId;
+
+    @Column(name = "to_card_id", nullable = false)
+    private Long toCardId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(length = 500)
+    private String description;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
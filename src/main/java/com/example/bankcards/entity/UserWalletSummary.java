@@ -0,0 +1,44 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_wallet_summary")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "wallet-summary")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserWalletSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_balance", nullable = false)
+    private BigDecimal totalBalance;
+
+    @Column(name = "active_cards", nullable = false)
+    private int activeCards;
+
+    @Column(name = "blocked_cards", nullable = false)
+    private int blockedCards;
+
+    @Column(name = "expired_cards", nullable = false)
+    private int expiredCards;
+
+    @Column(name = "pending_block_requests", nullable = false)
+    private int pendingBlockRequests;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.event;
+
+import com.example.bankcards.dto.response.CardResponse;
+
+// Публикуется внутри транзакции, подписчикам SSE доставляется только после коммита
+public record CardChangedEvent(Long userId, CardResponse card) {
+}
@@ -0,0 +1,137 @@
+package com.example.bankcards.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+// Межузловая доставка дельт карт через LISTEN/NOTIFY: NOTIFY отправляется в транзакции изменения
+// и доходит до слушателей только после ее коммита, каждый узел раздает событие своим SSE-подписчикам.
+// Слушатель держит отдельное соединение вне пула - оно не занимает слоты bulkhead
+@Slf4j
+@Component
+public class CardEventRelay {
+
+    static final String CHANNEL = "card_events";
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final DataSourceProperties dataSourceProperties;
+    private volatile Thread listener;
+    private volatile boolean running;
+
+    @Value("${app.cards.events.relay-poll-interval:1s}")
+    private Duration pollInterval;
+
+    @Value("${app.cards.events.reconnect-delay:3s}")
+    private Duration reconnectDelay;
+
+    public CardEventRelay(JdbcTemplate jdbcTemplate,
+                          ObjectMapper objectMapper,
+                          DataSourceProperties dataSourceProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    // Вызывается внутри транзакции изменения карты; при откате уведомление не отправляется
+    public void publish(CardChangedEvent event) {
+        jdbcTemplate.query(NOTIFY_SQL, rs -> { }, CHANNEL, toJson(event));
+    }
+
+    public synchronized void start(CardEventConsumer consumer) {
+        if (listener != null) {
+            return;
+        }
+        running = true;
+        listener = new Thread(() -> listen(consumer), "card-events-relay");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+    }
+
+    // Полезная нагрузка не десериализуется в CardResponse: в SSE уходит исходный JSON карты
+    void dispatch(String payload, CardEventConsumer consumer) {
+        try {
+            JsonNode root = objectMapper.readTree(payload);
+            JsonNode card = root.path("card");
+            consumer.accept(root.path("userId").asLong(), card.path("id").asLong(), card.toString());
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Skipping malformed card event: {}", e.getMessage());
+        }
+    }
+
+    protected Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+    }
+
+    // События, пришедшие во время переподключения, теряются: клиент после reconnect перечитывает /api/v1/cards/my
+    private void listen(CardEventConsumer consumer) {
+        while (running) {
+            try (Connection connection = openConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for card events on channel {}", CHANNEL);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter(), consumer);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Card event listener failed, reconnecting in {}: {}", reconnectDelay, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private String toJson(CardChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize card event for card " + event.card().getId(), e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface CardEventConsumer {
+        void accept(Long userId, Long cardId, String cardJson);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.bankcards.event;
+
+import com.example.bankcards.util.CardStatus;
+
+// Payload события CARD_STATUS_CHANGED; deleted - карта снята надгробием (удаление карты или ее владельца)
+public record CardStatusChange(Long cardId, Long userId, CardStatus previousStatus, CardStatus status,
+                               boolean blockRequested, boolean deleted) {
+}
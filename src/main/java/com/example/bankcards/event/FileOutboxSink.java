@@ -0,0 +1,70 @@
+package com.example.bankcards.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Событие - строка JSON (JSON Lines) в локальном файле, который забирает агент доставки
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOutboxSink(ObjectMapper objectMapper,
+                          @Value("${app.outbox.file.path:outbox/events.jsonl}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(path);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (OutboxEvent event : events) {
+                lines.append(toLine(event)).append('\n');
+            }
+
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                // Пачка считается опубликованной только после сброса на диск
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write outbox events to " + path, e);
+        }
+    }
+
+    private String toLine(OutboxEvent event) throws JsonProcessingException {
+        ObjectNode node = objectMapper.createObjectNode()
+                .put("id", event.id())
+                .put("cardId", event.cardId())
+                .put("type", event.eventType())
+                .put("createdAt", event.createdAt().toString());
+        node.putRawValue("payload", new RawValue(event.payload()));
+        return objectMapper.writeValueAsString(node);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.bankcards.event;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Для тестов и локального запуска: app.outbox.sink=memory
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> published = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        published.addAll(events);
+    }
+
+    public List<OutboxEvent> getPublished() {
+        return List.copyOf(published);
+    }
+
+    public void clear() {
+        published.clear();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.event;
+
+import java.time.LocalDateTime;
+
+// Событие из outbox_events; payload - JSON как он сохранен в транзакции операции
+public record OutboxEvent(Long id, Long cardId, String eventType, String payload, LocalDateTime createdAt) {
+}
@@ -0,0 +1,9 @@
+package com.example.bankcards.event;
+
+import java.util.List;
+
+// Получатель событий outbox. Доставка "хотя бы один раз": пачка может прийти повторно,
+// если отметка о публикации не зафиксировалась - потребители дедуплицируют по id
+public interface OutboxSink {
+    void publish(List<OutboxEvent> events);
+}
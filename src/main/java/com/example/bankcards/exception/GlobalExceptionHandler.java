@@ -5,9 +5,11 @@ import com.example.bankcards.exception.custom.ConflictException;
 import com.example.bankcards.exception.custom.NotFoundException;
 import com.example.bankcards.exception.custom.card.CardException;
 import com.example.bankcards.exception.custom.token.TokenException;
+import com.example.bankcards.exception.custom.transfer.TransferQueueFullException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -96,6 +98,20 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    // Очередь переводов заполнена: клиент повторяет запрос через Retry-After, а не ждет таймаута
+    @ExceptionHandler(TransferQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleQueueFull(TransferQueueFullException ex,
+                                                         HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(buildError(
+                        HttpStatus.TOO_MANY_REQUESTS,
+                        "TOO_MANY_REQUESTS",
+                        ex.getMessage(),
+                        request
+                ));
+    }
+
     @ExceptionHandler({ CardException.class })
     public ResponseEntity<ErrorResponse> handleCard(CardException ex,
                                                         HttpServletRequest request) {
@@ -0,0 +1,10 @@
+package com.example.bankcards.exception.custom.card;
+
+import com.example.bankcards.exception.custom.ConflictException;
+import com.example.bankcards.util.ErrorMessages;
+
+public class CardLockTimeoutException extends ConflictException {
+    public CardLockTimeoutException() {
+        super(ErrorMessages.CARD_LOCK_TIMEOUT);
+    }
+}
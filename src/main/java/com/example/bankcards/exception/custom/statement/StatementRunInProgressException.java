@@ -0,0 +1,10 @@
+package com.example.bankcards.exception.custom.statement;
+
+import com.example.bankcards.exception.custom.ConflictException;
+import com.example.bankcards.util.ErrorMessages;
+
+public class StatementRunInProgressException extends ConflictException {
+    public StatementRunInProgressException() {
+        super(ErrorMessages.STATEMENT_RUN_IN_PROGRESS);
+    }
+}
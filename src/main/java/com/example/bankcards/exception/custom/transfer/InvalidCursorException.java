@@ -0,0 +1,13 @@
+package com.example.bankcards.exception.custom.transfer;
+
+import com.example.bankcards.exception.CustomException;
+import com.example.bankcards.util.ErrorMessages;
+
+public class InvalidCursorException extends CustomException {
+    public InvalidCursorException() {
+        super(ErrorMessages.INVALID_CURSOR);
+    }
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.bankcards.exception.custom.transfer;
+
+import com.example.bankcards.exception.CustomException;
+import com.example.bankcards.util.ErrorMessages;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class TransferQueueFullException extends CustomException {
+    private final Duration retryAfter;
+
+    public TransferQueueFullException(Duration retryAfter) {
+        super(ErrorMessages.TRANSFER_QUEUE_FULL);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bankcards.exception.custom.transfer;
+
+import com.example.bankcards.exception.custom.NotFoundException;
+import com.example.bankcards.util.ErrorMessages;
+
+public class TransferSubmissionNotFoundException extends NotFoundException {
+    public TransferSubmissionNotFoundException() {
+        super(ErrorMessages.TRANSFER_SUBMISSION_NOT_FOUND);
+    }
+    public TransferSubmissionNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.bankcards.exception.custom.transfer;
+
+import com.example.bankcards.exception.CustomException;
+import com.example.bankcards.util.ErrorMessages;
+
+public class UnsupportedTransferSortException extends CustomException {
+    public UnsupportedTransferSortException() {
+        super(ErrorMessages.UNSUPPORTED_TRANSFER_SORT);
+    }
+}
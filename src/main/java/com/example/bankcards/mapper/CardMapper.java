@@ -3,9 +3,11 @@ package com.example.bankcards.mapper;
 import com.example.bankcards.dto.response.CardResponse;
 import com.example.bankcards.entity.Card;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface CardMapper {
+    @Mapping(source = "user.id", target = "userId")
     CardResponse toDto(Card card);
     Card toModel(CardResponse response);
 }
@@ -3,9 +3,15 @@ package com.example.bankcards.mapper;
 import com.example.bankcards.dto.response.TransferResponse;
 import com.example.bankcards.entity.Transfer;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface TransferMapper {
+    @Mapping(source = "fromCard.id", target = "fromCardId")
+    @Mapping(source = "fromCard.maskedNumber", target = "fromCardMasked")
+    @Mapping(source = "toCard.id", target = "toCardId")
+    @Mapping(source = "toCard.maskedNumber", target = "toCardMasked")
+    @Mapping(source = "user.id", target = "userId")
     TransferResponse toDto(Transfer transfer);
     Transfer toModel(TransferResponse response);
 }
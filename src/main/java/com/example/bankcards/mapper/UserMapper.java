@@ -2,10 +2,12 @@ package com.example.bankcards.mapper;
 
 import com.example.bankcards.dto.response.UserResponse;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.util.UserProfile;
 import org.mapstruct.Mapper;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
     UserResponse toDto(User user);
+    UserResponse toDto(UserProfile profile);
     User toModel(UserResponse response);
 }
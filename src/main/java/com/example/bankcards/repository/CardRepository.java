@@ -1,5 +1,6 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.response.CardResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.util.CardStatus;
 import org.springframework.data.domain.Page;
@@ -11,14 +12,35 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long> {
-    Page<Card> findByUserId(Long userId, Pageable pageable);
+    // Списки собираются сразу в DTO: без гидрации сущностей и без обращения к ленивому Card.user
+    String CARD_RESPONSE_SELECT = "SELECT new com.example.bankcards.dto.response.CardResponse(" +
+            "c.id, c.maskedNumber, c.owner, c.expiryDate, c.status, c.requestedBlock, c.balance, " +
+            "c.user.id, c.createdAt, c.updatedAt) FROM Card c";
+
+    @Query(value = CARD_RESPONSE_SELECT + " WHERE c.user.id = :userId",
+            countQuery = "SELECT COUNT(c) FROM Card c WHERE c.user.id = :userId")
+    Page<CardResponse> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = CARD_RESPONSE_SELECT,
+            countQuery = "SELECT COUNT(c) FROM Card c")
+    Page<CardResponse> findAllResponses(Pageable pageable);
+
     List<Card> findByUserId(Long userId);
+
+    // Условный GET: тело и его updated_at одной выборкой из базы, мимо L2 - ETag не расходится с телом
+    @Query(CARD_RESPONSE_SELECT + " WHERE c.id = :id")
+    Optional<CardResponse> findResponseById(@Param("id") Long id);
+
+    // Статус из базы мимо L2: кэш узла может еще держать карту, удаленную на другом узле
+    @Query("SELECT c.status FROM Card c WHERE c.id = :id")
+    Optional<CardStatus> findStatusById(@Param("id") Long id);
+
     Optional<Card> findByIdAndUserId(Long id, Long userId);
 
     @Query("SELECT c FROM Card c WHERE c.user.id = :userId AND " +
@@ -28,11 +50,13 @@ public interface CardRepository extends JpaRepository<Card, Long> {
                             @Param("query") String query,
                             Pageable pageable);
 
-    List<Card> findByExpiryDateBeforeAndStatus(LocalDate date, CardStatus status);
-
     @Modifying
     @Query("UPDATE Card c SET c.balance = c.balance + :amount WHERE c.id = :cardId")
     void updateBalance(@Param("cardId") Long cardId, @Param("amount") BigDecimal amount);
 
     long countByUserId(Long userId);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.deletedAt = :deletedAt WHERE c.user.id = :userId AND c.deletedAt IS NULL")
+    int tombstoneByUserId(@Param("userId") Long userId, @Param("deletedAt") LocalDateTime deletedAt);
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.response.CardResponse;
+import com.example.bankcards.entity.CardView;
+import com.example.bankcards.util.ListVersion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CardViewRepository extends JpaRepository<CardView, Long> {
+    // Строки уже в форме CardResponse: без join, маппинга и обращений к cards
+    String CARD_VIEW_RESPONSE_SELECT = "SELECT new com.example.bankcards.dto.response.CardResponse(" +
+            "v.id, v.maskedNumber, v.owner, v.expiryDate, v.status, v.requestedBlock, v.balance, " +
+            "v.userId, v.createdAt, v.updatedAt) FROM CardView v";
+
+    @Query(value = CARD_VIEW_RESPONSE_SELECT + " WHERE v.userId = :userId",
+            countQuery = "SELECT COUNT(v) FROM CardView v WHERE v.userId = :userId")
+    Page<CardResponse> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = CARD_VIEW_RESPONSE_SELECT,
+            countQuery = "SELECT COUNT(v) FROM CardView v")
+    Page<CardResponse> findAllResponses(Pageable pageable);
+
+    // Версия списка для ETag: проекция любой карты сдвигает projected_at, удаление меняет число строк
+    @Query("SELECT new com.example.bankcards.util.ListVersion(COUNT(v), MAX(v.projectedAt)) " +
+            "FROM CardView v WHERE v.userId = :userId")
+    ListVersion findListVersionByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.example.bankcards.util.ListVersion(COUNT(v), MAX(v.projectedAt)) FROM CardView v")
+    ListVersion findListVersion();
+}
@@ -0,0 +1,53 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.entity.TransferArchive;
+import com.example.bankcards.util.EntityVersion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransferArchiveRepository extends JpaRepository<TransferArchive, Long> {
+    // Карта могла быть удалена после архивации, поэтому left join
+    String ARCHIVE_RESPONSE_SELECT = "SELECT new com.example.bankcards.dto.response.TransferResponse(" +
+            "t.id, t.fromCardId, fc.maskedNumber, t.toCardId, tc.maskedNumber, t.amount, t.description, " +
+            "t.createdAt, t.userId) FROM TransferArchive t " +
+            "LEFT JOIN Card fc ON fc.id = t.fromCardId LEFT JOIN Card tc ON tc.id = t.toCardId";
+
+    @Query(ARCHIVE_RESPONSE_SELECT + " WHERE t.id = :id")
+    Optional<TransferResponse> findResponseById(@Param("id") Long id);
+
+    @Query("SELECT new com.example.bankcards.util.EntityVersion(t.id, t.userId, t.createdAt) " +
+            "FROM TransferArchive t WHERE t.id = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+
+    @Query(ARCHIVE_RESPONSE_SELECT + " WHERE t.userId = :userId")
+    List<TransferResponse> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    long countByUserId(Long userId);
+
+    @Query(ARCHIVE_RESPONSE_SELECT + " WHERE t.userId = :userId AND (t.fromCardId = :cardId OR t.toCardId = :cardId)")
+    List<TransferResponse> findByUserIdAndCardId(@Param("userId") Long userId,
+                                                 @Param("cardId") Long cardId,
+                                                 Pageable pageable);
+
+    @Query("SELECT COUNT(t) FROM TransferArchive t WHERE t.userId = :userId AND " +
+            "(t.fromCardId = :cardId OR t.toCardId = :cardId)")
+    long countByUserIdAndCardId(@Param("userId") Long userId, @Param("cardId") Long cardId);
+
+    @Query(ARCHIVE_RESPONSE_SELECT + " WHERE t.userId = :userId AND (t.fromCardId = :cardId OR t.toCardId = :cardId) " +
+            "AND (t.createdAt < :cursorCreatedAt OR (t.createdAt = :cursorCreatedAt AND t.id < :cursorId)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransferResponse> findCardFeed(@Param("userId") Long userId,
+                                        @Param("cardId") Long cardId,
+                                        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                        @Param("cursorId") Long cursorId,
+                                        Pageable pageable);
+}
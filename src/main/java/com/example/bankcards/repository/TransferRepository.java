@@ -1,6 +1,8 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.response.TransferResponse;
 import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.util.EntityVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,17 +12,56 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, Long> {
-    Page<Transfer> findByUserId(Long userId, Pageable pageable);
+    // Маскированные номера берутся одним join-ом вместо ленивой загрузки fromCard / toCard на каждую строку
+    String TRANSFER_RESPONSE_SELECT = "SELECT new com.example.bankcards.dto.response.TransferResponse(" +
+            "t.id, fc.id, fc.maskedNumber, tc.id, tc.maskedNumber, t.amount, t.description, " +
+            "t.createdAt, t.user.id) FROM Transfer t JOIN t.fromCard fc JOIN t.toCard tc";
 
-    @Query("SELECT t FROM Transfer t WHERE t.user.id = :userId AND " +
+    // Перевод не изменяется, поэтому его версия - момент создания
+    @Query("SELECT new com.example.bankcards.util.EntityVersion(t.id, t.user.id, t.createdAt) " +
+            "FROM Transfer t WHERE t.id = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+
+    @Query(value = TRANSFER_RESPONSE_SELECT + " WHERE t.user.id = :userId",
+            countQuery = "SELECT COUNT(t) FROM Transfer t WHERE t.user.id = :userId")
+    Page<TransferResponse> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = TRANSFER_RESPONSE_SELECT + " WHERE t.user.id = :userId AND " +
+            "(fc.id = :cardId OR tc.id = :cardId)",
+            countQuery = "SELECT COUNT(t) FROM Transfer t WHERE t.user.id = :userId AND " +
             "(t.fromCard.id = :cardId OR t.toCard.id = :cardId)")
-    Page<Transfer> findByUserIdAndCardId(@Param("userId") Long userId,
-                                         @Param("cardId") Long cardId,
-                                         Pageable pageable);
+    Page<TransferResponse> findByUserIdAndCardId(@Param("userId") Long userId,
+                                                 @Param("cardId") Long cardId,
+                                                 Pageable pageable);
+
+    @Query(value = TRANSFER_RESPONSE_SELECT + " WHERE t.id IN :ids ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransferResponse> findResponsesByIdIn(@Param("ids") List<Long> ids);
+
+    // Лента карты: две ветки по индексам idx_transfers_from_card_feed / idx_transfers_to_card_feed
+    // вместо OR-предиката, каждая отдает не больше :limit строк после курсора, затем слияние по (created_at, id).
+    // Отдельное условие по created_at нужно для отсечения партиций - по сравнению кортежей Postgres их не отсекает
+    @Query(value = "SELECT feed.id FROM (" +
+            "(SELECT t.id, t.created_at FROM transfers t WHERE t.from_card_id = :cardId AND t.user_id = :userId " +
+            "AND t.created_at <= :cursorCreatedAt AND (t.created_at, t.id) < (:cursorCreatedAt, :cursorId) " +
+            "ORDER BY t.created_at DESC, t.id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT t.id, t.created_at FROM transfers t WHERE t.to_card_id = :cardId AND t.user_id = :userId " +
+            "AND t.created_at <= :cursorCreatedAt AND (t.created_at, t.id) < (:cursorCreatedAt, :cursorId) " +
+            "ORDER BY t.created_at DESC, t.id DESC LIMIT :limit)" +
+            ") feed ORDER BY feed.created_at DESC, feed.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findCardFeedIds(@Param("userId") Long userId,
+                               @Param("cardId") Long cardId,
+                               @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                               @Param("cursorId") Long cursorId,
+                               @Param("limit") int limit);
 
+    // Полуоткрытый интервал по createdAt - читаются только партиции нужных месяцев
     @Query("SELECT SUM(t.amount) FROM Transfer t WHERE t.fromCard.id = :cardId " +
             "AND t.createdAt >= :startDate AND t.createdAt < :endDate")
     BigDecimal getTotalTransferredAmount(@Param("cardId") Long cardId,
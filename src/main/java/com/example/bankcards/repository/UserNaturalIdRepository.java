@@ -0,0 +1,11 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+    @Transactional(readOnly = true)
+    Optional<User> findByEmail(String email);
+}
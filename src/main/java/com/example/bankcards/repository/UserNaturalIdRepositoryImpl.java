@@ -0,0 +1,24 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        // Поиск по natural id: email -> id берется из региона user-by-email, сама сущность - из региона user.
+        // Из кэша может прийти надгробие, поэтому удаленный пользователь отсекается здесь же
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email)
+                .filter(user -> !user.isDeleted());
+    }
+}
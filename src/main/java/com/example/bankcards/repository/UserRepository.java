@@ -1,13 +1,32 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.User;
+import com.example.bankcards.util.UserIdentity;
+import com.example.bankcards.util.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-    boolean existsByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
+    // Email удаленного пользователя занят, пока очистка не сняла строку: уникальный индекс учитывает и надгробия
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM users WHERE email = :email)", nativeQuery = true)
+    boolean existsByEmail(@Param("email") String email);
+
+    // Аутентификация идет мимо natural-id кэша: L2 узла может держать пользователя, удаленного на другом узле.
+    // SQLRestriction отсекает надгробие в самом запросе
+    @Query("SELECT u FROM User u WHERE u.email = :email")
+    Optional<User> findLiveByEmail(@Param("email") String email);
+
+    // Проверки доступа: только id и роль по индексу email, мимо natural-id кэша
+    @Query("SELECT new com.example.bankcards.util.UserIdentity(u.id, u.role) FROM User u WHERE u.email = :email")
+    Optional<UserIdentity> findIdentityByEmail(@Param("email") String email);
+
+    // Тело и версия /users/me из одной строки, мимо natural-id кэша
+    @Query("SELECT new com.example.bankcards.util.UserProfile(u.id, u.email, u.firstName, u.lastName, u.role, " +
+            "u.createdAt, u.updatedAt) FROM User u WHERE u.email = :email")
+    Optional<UserProfile> findProfileByEmail(@Param("email") String email);
 }
\ No newline at end of file
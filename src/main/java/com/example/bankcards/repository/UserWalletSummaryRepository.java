@@ -0,0 +1,18 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.UserWalletSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserWalletSummaryRepository extends JpaRepository<UserWalletSummary, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserWalletSummary s WHERE s.userId = :userId")
+    Optional<UserWalletSummary> findForUpdate(@Param("userId") Long userId);
+}
@@ -16,7 +16,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        User user = userRepository.findLiveByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException(
                         "Пользователь с email " + email + " не найден"));
 
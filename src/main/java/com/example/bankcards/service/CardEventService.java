@@ -0,0 +1,7 @@
+package com.example.bankcards.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface CardEventService {
+    SseEmitter subscribe();
+}
@@ -0,0 +1,5 @@
+package com.example.bankcards.service;
+
+public interface CardLockService {
+    void lock(Long... cardIds);
+}
@@ -4,6 +4,7 @@ import com.example.bankcards.dto.request.CardRequest;
 import com.example.bankcards.dto.response.CardResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.util.VersionedResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -18,7 +19,9 @@ public interface CardService {
     CardResponse activateCard(Long cardId);
     void deleteCard(Long cardId);
     CardResponse getCardById(Long cardId);
+    VersionedResponse<CardResponse> getVersionedCard(Long cardId);
     Page<CardResponse> getUserCards(Pageable pageable);
+    VersionedResponse<Page<CardResponse>> getVersionedUserCards(Pageable pageable);
     Page<CardResponse> getAllCards(Pageable pageable);
     List<CardResponse> searchCards(String query);
     boolean isCardBelongsToUser(Long cardId, User user);
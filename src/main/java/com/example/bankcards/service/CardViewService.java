@@ -0,0 +1,7 @@
+package com.example.bankcards.service;
+
+public interface CardViewService {
+    void markStale(Long cardId);
+    void markUserCardsStale(Long userId);
+    int projectPending();
+}
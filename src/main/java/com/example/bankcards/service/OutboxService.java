@@ -0,0 +1,9 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.util.OutboxEventType;
+
+public interface OutboxService {
+    void append(OutboxEventType type, Long cardId, Object payload);
+    int publishPending();
+    long purgePublished();
+}
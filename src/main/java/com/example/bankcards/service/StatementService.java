@@ -0,0 +1,11 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.response.StatementRunResponse;
+import com.example.bankcards.util.StatementFormat;
+
+import java.time.YearMonth;
+
+public interface StatementService {
+    StatementRunResponse generateMonthlyStatements(YearMonth month, StatementFormat format);
+    StatementRunResponse startMonthlyStatements(YearMonth month, StatementFormat format);
+}
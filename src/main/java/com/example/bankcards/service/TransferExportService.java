@@ -0,0 +1,8 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.request.TransferExportFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface TransferExportService {
+    StreamingResponseBody exportTransfers(TransferExportFilter filter);
+}
@@ -0,0 +1,8 @@
+package com.example.bankcards.service;
+
+import java.util.List;
+
+public interface TransferPartitionService {
+    List<String> createFuturePartitions();
+    List<String> detachExpiredPartitions();
+}
@@ -1,13 +1,21 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferFeedResponse;
 import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.util.ResourceVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Optional;
+
 public interface TransferService {
     TransferResponse createTransfer(TransferRequest request);
+    TransferResponse createTransfer(User user, TransferRequest request);
     Page<TransferResponse> getUserTransfers(Pageable pageable);
     Page<TransferResponse> getCardTransfers(Long cardId, Pageable pageable);
+    TransferFeedResponse getCardTransferFeed(Long cardId, String cursor, int size);
     TransferResponse getTransferById(Long transferId);
+    Optional<ResourceVersion> getTransferVersion(Long transferId);
 }
\ No newline at end of file
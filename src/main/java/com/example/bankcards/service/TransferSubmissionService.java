@@ -0,0 +1,11 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferSubmissionResponse;
+
+public interface TransferSubmissionService {
+    TransferSubmissionResponse submitTransfer(TransferRequest request);
+    TransferSubmissionResponse getSubmission(Long submissionId);
+    int processPending();
+    long purgeFinished();
+}
@@ -3,6 +3,8 @@ package com.example.bankcards.service;
 import com.example.bankcards.dto.request.UserRequest;
 import com.example.bankcards.dto.response.UserResponse;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.util.UserIdentity;
+import com.example.bankcards.util.VersionedResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -18,5 +20,7 @@ public interface UserService {
     void deleteUser(Long id);
     User getUserByEmail(String email);
     User getCurrentUserEntity();
+    UserIdentity getCurrentUserIdentity();
     UserResponse getCurrentUser();
+    VersionedResponse<UserResponse> getVersionedCurrentUser();
 }
\ No newline at end of file
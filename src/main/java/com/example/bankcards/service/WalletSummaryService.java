@@ -0,0 +1,23 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.response.WalletSummaryResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.util.CardStatus;
+
+import java.math.BigDecimal;
+
+public interface WalletSummaryService {
+    WalletSummaryResponse getCurrentUserSummary();
+    void recordCardChange(Long userId, CardState before, CardState after);
+    void lockSummaries(Long... userIds);
+
+    // Снимок полей карты, влияющих на сводку; null - карты нет (до создания / после удаления)
+    record CardState(BigDecimal balance, CardStatus status, boolean pendingBlock) {
+        public static CardState of(Card card) {
+            return new CardState(
+                    card.getBalance(),
+                    card.getStatus(),
+                    Boolean.TRUE.equals(card.getRequestedBlock()) && card.getStatus() != CardStatus.BLOCKED);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.CardEventRelay;
+import com.example.bankcards.service.CardEventService;
+import com.example.bankcards.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Service
+public class CardEventServiceImpl implements CardEventService {
+
+    static final String CARD_EVENT = "card";
+
+    private final UserService userService;
+    private final CardEventRelay relay;
+
+    // Реестр подписчиков по пользователю: рассылка затрагивает только соединения владельца карты
+    private final ConcurrentMap<Long, CopyOnWriteArrayList<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService sender;
+    private final Counter deliveredCounter;
+    private final Counter droppedCounter;
+
+    @Value("${app.cards.events.timeout:30m}")
+    private Duration timeout;
+
+    // Ожидающие отправки дельты одного соединения; обновления одной карты схлопываются в последнее
+    @Value("${app.cards.events.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${app.cards.events.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${app.cards.events.reconnect-delay:3s}")
+    private Duration reconnectDelay;
+
+    // Запись дольше send-timeout считается зависшей: подписка снимается, клиент переподключится
+    @Value("${app.cards.events.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    @Autowired
+    public CardEventServiceImpl(UserService userService,
+                                CardEventRelay relay,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cards.events.max-sender-threads:64}") int maxSenderThreads) {
+        this(userService, relay, meterRegistry, newSender(maxSenderThreads));
+    }
+
+    public CardEventServiceImpl(UserService userService,
+                                CardEventRelay relay,
+                                MeterRegistry meterRegistry,
+                                ExecutorService sender) {
+        this.userService = userService;
+        this.relay = relay;
+        this.sender = sender;
+        meterRegistry.gauge("cards.events.connections", connections);
+        this.deliveredCounter = Counter.builder("cards.events.delivered")
+                .description("Card deltas written to SSE connections")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("cards.events.dropped")
+                .description("SSE connections closed because the client did not keep up")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe() {
+        Long userId = userService.getCurrentUserEntity().getId();
+        SseEmitter emitter = createEmitter(timeout);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (id, list) -> {
+            CopyOnWriteArrayList<Subscriber> target = list != null ? list : new CopyOnWriteArrayList<>();
+            // Сверх лимита вытесняется самое старое соединение пользователя
+            while (target.size() >= maxConnectionsPerUser) {
+                evicted.add(target.remove(0));
+            }
+            target.add(subscriber);
+            return target;
+        });
+        connections.incrementAndGet();
+        evicted.forEach(Subscriber::close);
+
+        // Первое событие сразу отдает заголовки ответа, клиент видит, что поток открыт
+        subscriber.requestHeartbeat();
+        return emitter;
+    }
+
+    @PostConstruct
+    public void start() {
+        relay.start(this::deliver);
+    }
+
+    // Перед коммитом транзакции изменения: NOTIFY уходит вместе с коммитом, подписчики всех узлов
+    // получают дельту через relay
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCardChanged(CardChangedEvent event) {
+        relay.publish(event);
+    }
+
+    // Вызывается потоком relay: только постановка в буфер, запись в сокет - в sender
+    public void deliver(Long userId, Long cardId, String cardJson) {
+        List<Subscriber> targets = subscribers.get(userId);
+        if (targets == null) {
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(cardId, cardJson);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.cards.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(list -> list.forEach(subscriber -> {
+            if (subscriber.sendStuck(now)) {
+                droppedCounter.increment();
+                subscriber.close();
+            } else {
+                subscriber.requestHeartbeat();
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relay.stop();
+        subscribers.values().forEach(list -> list.forEach(Subscriber::close));
+        sender.shutdownNow();
+    }
+
+    // Поток записи берется только на время отправки одного соединения: зависший сокет держит свой поток,
+    // а не общий пул. Без очереди - при исчерпании потоков соединение закрывается, а не ждет
+    private static ExecutorService newSender(int maxSenderThreads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(0, maxSenderThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "card-events-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    protected SseEmitter createEmitter(Duration timeout) {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.computeIfPresent(subscriber.userId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+        connections.decrementAndGet();
+    }
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, String> pending = new LinkedHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long sendStartedAt;
+        private boolean heartbeatDue;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Long cardId, String cardJson) {
+            boolean overflow;
+            lock.lock();
+            try {
+                overflow = !pending.containsKey(cardId) && pending.size() >= bufferSize;
+                if (!overflow) {
+                    pending.put(cardId, cardJson);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (overflow) {
+                // Медленный клиент не копит память на сервере: соединение закрывается, клиент переподключается
+                // и перечитывает /api/v1/cards/my
+                droppedCounter.increment();
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void requestHeartbeat() {
+            lock.lock();
+            try {
+                heartbeatDue = true;
+            } finally {
+                lock.unlock();
+            }
+            scheduleDrain();
+        }
+
+        boolean sendStuck(long now) {
+            long startedAt = sendStartedAt;
+            return startedAt != 0 && now - startedAt > sendTimeout.toNanos();
+        }
+
+        // Не блокирует: пока идет запись, emitter закроет поток отправки - complete() ждал бы зависший send
+        void close() {
+            unregister(this);
+            if (draining.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (!closed.get() && draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                    droppedCounter.increment();
+                    close();
+                }
+            }
+        }
+
+        private void finishDrain() {
+            draining.set(false);
+            // close() мог прийти, пока поток еще числился пишущим
+            if (closed.get() && draining.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        // Один поток записи на соединение: события уходят по порядку, а коммитящие потоки не ждут сокет
+        private void drain() {
+            while (true) {
+                Map<Long, String> batch;
+                boolean heartbeat;
+                lock.lock();
+                try {
+                    batch = new LinkedHashMap<>(pending);
+                    pending.clear();
+                    heartbeat = heartbeatDue;
+                    heartbeatDue = false;
+                    if (closed.get() || (batch.isEmpty() && !heartbeat)) {
+                        finishDrain();
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                sendStartedAt = System.nanoTime();
+                try {
+                    if (heartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat").reconnectTime(reconnectDelay.toMillis()));
+                    }
+                    for (Map.Entry<Long, String> card : batch.entrySet()) {
+                        emitter.send(SseEmitter.event()
+                                .name(CARD_EVENT)
+                                .id(String.valueOf(card.getKey()))
+                                .data(card.getValue(), MediaType.APPLICATION_JSON));
+                        deliveredCounter.increment();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Клиент отключился; emitter сам сообщит onError/onCompletion, здесь только снимаем подписку
+                    log.debug("Card event stream for user {} closed: {}", userId, e.getMessage());
+                    unregister(this);
+                    draining.set(false);
+                    return;
+                } finally {
+                    sendStartedAt = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.UserWalletSummary;
+import com.example.bankcards.service.CardExpiryService;
+import com.example.bankcards.service.SchedulerLockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.cards.expiry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CardExpiryServiceImpl implements CardExpiryService {
+
+    static final String LOCK_NAME = "card-expiry-sweeper";
+
+    // Одна пачка - одна инструкция: выбор по частичному индексу idx_cards_active_expiry с SKIP LOCKED,
+    // смена статуса, перенос счетчиков в user_wallet_summary, события CARD_STATUS_CHANGED в outbox_events
+    // и отметки для проектора card_view.
+    // Карту, которую держит CardLockService, пачка пропускает: операция под advisory-блокировкой уже прочитала
+    // ACTIVE и записала бы его обратно полным UPDATE. MATERIALIZED - pg_try_advisory_xact_lock вызывается
+    // только для отобранных строк, а не для всех просроченных.
+    // Возвращаются (card_id, user_id) для сброса L2-кэша
+    private static final String EXPIRE_CHUNK_SQL =
+            "WITH candidates AS MATERIALIZED (" +
+            "  SELECT id FROM cards WHERE status = 'ACTIVE' AND expiry_date < ? AND deleted_at IS NULL " +
+            "  ORDER BY expiry_date, id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            "), batch AS (" +
+            "  SELECT id FROM candidates WHERE pg_try_advisory_xact_lock(id)" +
+            "), expired AS (" +
+            "  UPDATE cards c SET status = 'EXPIRED', updated_at = CURRENT_TIMESTAMP " +
+            "  FROM batch b WHERE c.id = b.id RETURNING c.id, c.user_id, c.requested_block" +
+            "), per_user AS (" +
+            "  SELECT user_id, COUNT(*) AS n FROM expired GROUP BY user_id" +
+            "), summary AS (" +
+            "  UPDATE user_wallet_summary s SET active_cards = s.active_cards - p.n, " +
+            "  expired_cards = s.expired_cards + p.n, updated_at = CURRENT_TIMESTAMP " +
+            "  FROM per_user p WHERE s.user_id = p.user_id RETURNING s.user_id" +
+            "), outbox AS (" +
+            "  INSERT INTO outbox_events (card_id, event_type, payload) " +
+            "  SELECT id, 'CARD_STATUS_CHANGED', jsonb_build_object('cardId', id, 'userId', user_id, " +
+            "  'previousStatus', 'ACTIVE', 'status', 'EXPIRED', 'blockRequested', requested_block) " +
+            "  FROM expired ORDER BY id RETURNING id" +
+            "), view_refresh AS (" +
+            "  INSERT INTO card_view_refresh (card_id) SELECT id FROM expired " +
+            "  ON CONFLICT (card_id) DO UPDATE SET requested_at = card_view_refresh.requested_at RETURNING card_id" +
+            ") " +
+            "SELECT id, user_id FROM expired";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService schedulerLockService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Counter expiredCounter;
+    private final Counter chunkCounter;
+    private final Counter skippedRunsCounter;
+    private final Timer sweepTimer;
+
+    @Value("${app.cards.expiry.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.cards.expiry.pause-between-chunks:100ms}")
+    private Duration pauseBetweenChunks;
+
+    // Аренда с запасом покрывает один запуск; при падении узла задачу подхватит другой после истечения
+    @Value("${app.cards.expiry.lock-lease:10m}")
+    private Duration lockLease;
+
+    @Value("${app.cards.expiry.lock-timeout:2s}")
+    private Duration lockTimeout;
+
+    public CardExpiryServiceImpl(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 SchedulerLockService schedulerLockService,
+                                 EntityManagerFactory entityManagerFactory,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.schedulerLockService = schedulerLockService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.expiredCounter = Counter.builder("cards.expiry.processed")
+                .description("Cards switched to EXPIRED by the sweeper")
+                .register(meterRegistry);
+        this.chunkCounter = Counter.builder("cards.expiry.chunks")
+                .description("Sweeper chunks executed")
+                .register(meterRegistry);
+        this.skippedRunsCounter = Counter.builder("cards.expiry.skipped")
+                .description("Sweeper runs skipped because another node holds the lock")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("cards.expiry.sweep")
+                .description("Duration of a full sweeper run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.cards.expiry.cron:0 5 0 * * *}")
+    public void scheduledSweep() {
+        expireOverdueCards();
+    }
+
+    @Override
+    public long expireOverdueCards() {
+        if (!schedulerLockService.tryAcquire(LOCK_NAME, lockLease)) {
+            skippedRunsCounter.increment();
+            return 0;
+        }
+
+        try {
+            return sweepTimer.record(this::sweep);
+        } finally {
+            schedulerLockService.release(LOCK_NAME);
+        }
+    }
+
+    private long sweep() {
+        LocalDate today = LocalDate.now();
+        long total = 0;
+        int processed;
+        do {
+            List<long[]> expired;
+            try {
+                expired = transactionTemplate.execute(status -> {
+                    jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeout.toMillis() + "ms'");
+                    return jdbcTemplate.query(EXPIRE_CHUNK_SQL,
+                            (rs, rowNum) -> new long[]{rs.getLong("id"), rs.getLong("user_id")},
+                            today, chunkSize);
+                });
+            } catch (PessimisticLockingFailureException e) {
+                // Сводка пользователя занята живой операцией с картой - пачка повторится в следующем запуске
+                log.warn("Card expiry sweep stopped after {} cards: {}", total, e.getMessage());
+                break;
+            }
+
+            processed = expired.size();
+            total += processed;
+            chunkCounter.increment();
+            expiredCounter.increment(processed);
+            evictFromSecondLevelCache(expired);
+
+            // Короткая пачка не значит конец: в ней могли быть пропущены карты под блокировкой.
+            // Проход заканчивается пустой пачкой, занятые карты подберет следующий запуск
+            if (processed > 0 && !pause()) {
+                break;
+            }
+        } while (processed > 0);
+
+        if (total > 0) {
+            log.info("Expired {} cards with expiry date before {}", total, today);
+        }
+        return total;
+    }
+
+    // Set-based UPDATE минует Hibernate, поэтому затронутые записи карт и сводок удаляются из регионов вручную
+    private void evictFromSecondLevelCache(List<long[]> expired) {
+        Set<Long> userIds = new HashSet<>();
+        for (long[] row : expired) {
+            entityManagerFactory.getCache().evict(Card.class, row[0]);
+            userIds.add(row[1]);
+        }
+        for (Long userId : userIds) {
+            entityManagerFactory.getCache().evict(UserWalletSummary.class, userId);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenChunks.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.custom.card.CardLockTimeoutException;
+import com.example.bankcards.service.CardLockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// Блокировка уровня транзакции (pg_advisory_xact_lock): снимается коммитом или откатом,
+// поэтому не переживает возврат соединения в пул. Пространство ключей bigint отдано под id карт
+@Slf4j
+@Service
+public class CardLockServiceImpl implements CardLockService {
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Timer acquiredTimer;
+    private final Timer timedOutTimer;
+
+    @Value("${app.cards.lock.timeout:5s}")
+    private Duration lockTimeout;
+
+    public CardLockServiceImpl(JdbcTemplate jdbcTemplate,
+                               EntityManagerFactory entityManagerFactory,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.acquiredTimer = Timer.builder("cards.lock.wait")
+                .description("Time spent waiting for card advisory locks")
+                .tag("outcome", "acquired")
+                .register(meterRegistry);
+        this.timedOutTimer = Timer.builder("cards.lock.wait")
+                .description("Time spent waiting for card advisory locks")
+                .tag("outcome", "timeout")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock(Long... cardIds) {
+        // Единый порядок захвата: встречные переводы A->B и B->A не блокируют друг друга навечно
+        long[] ordered = Arrays.stream(cardIds)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .distinct()
+                .sorted()
+                .toArray();
+        if (ordered.length == 0) {
+            return;
+        }
+
+        // lock_timeout действует до конца транзакции - заодно ограничивает ожидание строковых блокировок при flush
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeout.toMillis() + "ms'");
+        long started = System.nanoTime();
+        try {
+            for (long cardId : ordered) {
+                jdbcTemplate.query(LOCK_SQL, rs -> null, cardId);
+            }
+        } catch (PessimisticLockingFailureException e) {
+            timedOutTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            log.warn("Card lock on {} not acquired within {}: {}", Arrays.toString(ordered), lockTimeout, e.getMessage());
+            throw new CardLockTimeoutException();
+        }
+        acquiredTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        // Кэш второго уровня у каждого узла свой: под блокировкой карта должна читаться из базы,
+        // а не из записи, закэшированной до изменения на другом узле
+        Cache cache = entityManagerFactory.getCache();
+        for (long cardId : ordered) {
+            cache.evict(Card.class, cardId);
+        }
+    }
+}
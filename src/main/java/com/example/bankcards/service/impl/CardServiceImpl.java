@@ -4,17 +4,32 @@ import com.example.bankcards.dto.request.CardRequest;
 import com.example.bankcards.dto.response.CardResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.CardStatusChange;
 import com.example.bankcards.exception.custom.AccessDeniedException;
 import com.example.bankcards.exception.custom.card.CardNotFoundException;
 import com.example.bankcards.exception.custom.card.InsufficientFundsException;
 import com.example.bankcards.mapper.CardMapper;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardViewRepository;
+import com.example.bankcards.service.CardLockService;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.CardViewService;
+import com.example.bankcards.service.OutboxService;
 import com.example.bankcards.service.UserService;
+import com.example.bankcards.service.WalletSummaryService;
+import com.example.bankcards.service.WalletSummaryService.CardState;
 import com.example.bankcards.util.CardNumberMasker;
 import com.example.bankcards.util.CardStatus;
+import com.example.bankcards.util.OutboxEventType;
+import com.example.bankcards.util.EntityVersion;
+import com.example.bankcards.util.ResourceVersion;
+import com.example.bankcards.util.UserIdentity;
+import com.example.bankcards.util.VersionedResponse;
+import com.example.bankcards.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import org.jasypt.encryption.StringEncryptor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -22,6 +37,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Random;
 
@@ -34,6 +50,13 @@ public class CardServiceImpl implements CardService {
     private final StringEncryptor cardEncryptor;
     private final CardNumberMasker cardNumberMasker;
     private final CardMapper cardMapper;
+    private final WalletSummaryService walletSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight singleFlight;
+    private final CardLockService cardLockService;
+    private final OutboxService outboxService;
+    private final CardViewService cardViewService;
+    private final CardViewRepository cardViewRepository;
     private final Random random = new Random();
 
     @Override
@@ -63,13 +86,18 @@ public class CardServiceImpl implements CardService {
                 .build();
 
         Card savedCard = cardRepository.save(card);
+        cardViewService.markStale(savedCard.getId());
+        walletSummaryService.recordCardChange(user.getId(), null, CardState.of(card));
         return cardMapper.toDto(savedCard);
     }
 
     @Override
     @Transactional
     public CardResponse updateCard(Long cardId, CardRequest request) {
+        cardLockService.lock(cardId);
+        cardViewService.markStale(cardId);
         Card card = findCardEntityById(cardId);
+        CardState before = CardState.of(card);
 
         // Обновляем только разрешенные поля
         card.setOwner(request.getOwner());
@@ -82,13 +110,17 @@ public class CardServiceImpl implements CardService {
         }
 
         Card updatedCard = cardRepository.save(card);
-        return cardMapper.toDto(updatedCard);
+        walletSummaryService.recordCardChange(card.getUser().getId(), before, CardState.of(card));
+        recordStatusChange(updatedCard, before);
+        return publishChange(updatedCard);
     }
 
     @Override
     @Transactional
     public CardResponse requestToBlockCard(Long cardId) {
         User user = userService.getCurrentUserEntity();
+        cardLockService.lock(cardId);
+        cardViewService.markStale(cardId);
         Card card = findCardEntityById(cardId);
 
         // Проверяем доступ
@@ -96,82 +128,136 @@ public class CardServiceImpl implements CardService {
             throw new AccessDeniedException();
         }
 
+        CardState before = CardState.of(card);
         card.setRequestedBlock(true);
         Card updatedCard = cardRepository.save(card);
-        return cardMapper.toDto(updatedCard);
+        walletSummaryService.recordCardChange(user.getId(), before, CardState.of(card));
+        recordStatusChange(updatedCard, before);
+        return publishChange(updatedCard);
     }
 
     @Override
     @Transactional
     public CardResponse blockCard(Long cardId) {
+        cardLockService.lock(cardId);
+        cardViewService.markStale(cardId);
         Card card = findCardEntityById(cardId);
+        CardState before = CardState.of(card);
 
         card.setStatus(CardStatus.BLOCKED);
         Card updatedCard = cardRepository.save(card);
-        return cardMapper.toDto(updatedCard);
+        walletSummaryService.recordCardChange(card.getUser().getId(), before, CardState.of(card));
+        recordStatusChange(updatedCard, before);
+        return publishChange(updatedCard);
     }
 
     @Override
     @Transactional
     public CardResponse activateCard(Long cardId) {
+        cardLockService.lock(cardId);
+        cardViewService.markStale(cardId);
         Card card = findCardEntityById(cardId);
+        CardState before = CardState.of(card);
 
         // Проверяем, не истек ли срок
         if (card.getExpiryDate().isBefore(LocalDate.now())) {
             card.setStatus(CardStatus.EXPIRED);
             Card updatedCard = cardRepository.save(card);
-            return cardMapper.toDto(updatedCard);
+            walletSummaryService.recordCardChange(card.getUser().getId(), before, CardState.of(card));
+            recordStatusChange(updatedCard, before);
+            return publishChange(updatedCard);
         }
 
         card.setStatus(CardStatus.ACTIVE);
         Card updatedCard = cardRepository.save(card);
-        return cardMapper.toDto(updatedCard);
+        walletSummaryService.recordCardChange(card.getUser().getId(), before, CardState.of(card));
+        recordStatusChange(updatedCard, before);
+        return publishChange(updatedCard);
     }
 
     @Override
     @Transactional
     public void deleteCard(Long cardId) {
-        if (!cardRepository.existsById(cardId)) {
-            throw new CardNotFoundException();
-        }
-        cardRepository.deleteById(cardId);
+        cardLockService.lock(cardId);
+        cardViewService.markStale(cardId);
+        Card card = findCardEntityById(cardId);
+        CardState before = CardState.of(card);
+
+        // Только надгробие: переводы по карте и саму строку снимает TombstonePurgeService
+        card.setDeletedAt(LocalDateTime.now());
+        walletSummaryService.recordCardChange(card.getUser().getId(), before, null);
+        outboxService.append(OutboxEventType.CARD_STATUS_CHANGED, card.getId(), new CardStatusChange(
+                card.getId(), card.getUser().getId(), card.getStatus(), card.getStatus(),
+                Boolean.TRUE.equals(card.getRequestedBlock()), true));
     }
 
     @Override
     @Transactional(readOnly = true)
     public CardResponse getCardById(Long cardId) {
         User user = userService.getCurrentUserEntity();
-        Card card = findCardEntityById(cardId);
+        // Одновременные запросы одной карты делят одну выборку; доступ проверяется для каждого
+        CardResponse card = singleFlight.execute("card", cardId, () -> cardMapper.toDto(findCardEntityById(cardId)));
 
         // Проверяем доступ
-        if (!card.getUser().getId().equals(user.getId()) &&
+        if (!card.getUserId().equals(user.getId()) &&
                 !user.getRole().equals(User.Role.ADMIN)) {
             throw new AccessDeniedException();
         }
 
-        return cardMapper.toDto(card);
+        return card;
+    }
+
+    // Условный GET: ETag считается по тому же DTO, что уйдет в теле; DTO читается из базы мимо L2,
+    // иначе устаревшая копия узла получила бы ETag свежей строки и осталась бы у клиента навсегда
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedResponse<CardResponse> getVersionedCard(Long cardId) {
+        UserIdentity user = userService.getCurrentUserIdentity();
+        CardResponse card = cardRepository.findResponseById(cardId)
+                .orElseThrow(CardNotFoundException::new);
+
+        if (!card.getUserId().equals(user.id()) && !user.isAdmin()) {
+            throw new AccessDeniedException();
+        }
+
+        return new VersionedResponse<>(card, ResourceVersion.of("card",
+                new EntityVersion(card.getId(), card.getUserId(), card.getUpdatedAt())));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<CardResponse> getUserCards(Pageable pageable) {
         User user = userService.getCurrentUserEntity();
-        Page<Card> cards;
 
+        // Списки читаются только из card_view: отстают от cards не больше app.cards.view.max-staleness
         if (user.getRole().equals(User.Role.ADMIN)) {
-            cards = cardRepository.findAll(pageable);
-        } else {
-            cards = cardRepository.findByUserId(user.getId(), pageable);
+            return cardViewRepository.findAllResponses(pageable);
         }
+        return cardViewRepository.findByUserId(user.getId(), pageable);
+    }
+
+    // Версия и страница читаются из card_view в одной транзакции, то есть с одного узла. Версия - первой:
+    // проекция между двумя запросами даст тело новее ETag, и клиент просто перечитает страницу,
+    // а не останется с устаревшим телом под свежим ETag
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedResponse<Page<CardResponse>> getVersionedUserCards(Pageable pageable) {
+        UserIdentity user = userService.getCurrentUserIdentity();
 
-        return cards.map(cardMapper::toDto);
+        if (user.isAdmin()) {
+            ResourceVersion version = ResourceVersion.ofPage("cards", "all", pageable,
+                    cardViewRepository.findListVersion());
+            return new VersionedResponse<>(cardViewRepository.findAllResponses(pageable), version);
+        }
+        ResourceVersion version = ResourceVersion.ofPage("cards", user.id(), pageable,
+                cardViewRepository.findListVersionByUserId(user.id()));
+        return new VersionedResponse<>(cardViewRepository.findByUserId(user.id(), pageable), version);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<CardResponse> getAllCards(Pageable pageable) {
-        return cardRepository.findAll(pageable)
-                .map(cardMapper::toDto);
+        return cardViewRepository.findAllResponses(pageable);
     }
 
     @Override
@@ -192,13 +278,19 @@ public class CardServiceImpl implements CardService {
     @Transactional(readOnly = true)
     public Card findCardEntityById(Long cardId) {
         return cardRepository.findById(cardId)
+                .filter(card -> !card.isDeleted())
                 .orElseThrow(() -> new CardNotFoundException());
     }
 
     @Override
     @Transactional
     public void updateBalance(Long cardId, BigDecimal amount, boolean isCredit) {
+        // Повторный захват в той же транзакции (перевод уже держит обе карты) проходит сразу;
+        // read model обновит проектор, списки не ждут блокировок строк cards
+        cardLockService.lock(cardId);
+        cardViewService.markStale(cardId);
         Card card = findCardEntityById(cardId);
+        CardState before = CardState.of(card);
 
         if (isCredit) {
             card.setBalance(card.getBalance().add(amount));
@@ -211,13 +303,34 @@ public class CardServiceImpl implements CardService {
         }
 
         cardRepository.save(card);
+        walletSummaryService.recordCardChange(card.getUser().getId(), before, CardState.of(card));
+        publishChange(card);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean isCardActive(Long cardId) {
-        Card card = findCardEntityById(cardId);
-        return card.getStatus() == CardStatus.ACTIVE;
+        return cardRepository.findStatusById(cardId)
+                .map(status -> status == CardStatus.ACTIVE)
+                .orElseThrow(() -> new CardNotFoundException());
+    }
+
+    // Смена статуса уходит во внешние системы через outbox_events в транзакции самой операции
+    private void recordStatusChange(Card card, CardState before) {
+        CardState after = CardState.of(card);
+        if (before.status() == after.status() && before.pendingBlock() == after.pendingBlock()) {
+            return;
+        }
+        outboxService.append(OutboxEventType.CARD_STATUS_CHANGED, card.getId(), new CardStatusChange(
+                card.getId(), card.getUser().getId(), before.status(), card.getStatus(),
+                Boolean.TRUE.equals(card.getRequestedBlock()), false));
+    }
+
+    // Дельта карты для подписчиков /api/v1/cards/events; отправляется после коммита транзакции
+    private CardResponse publishChange(Card card) {
+        CardResponse response = cardMapper.toDto(card);
+        eventPublisher.publishEvent(new CardChangedEvent(card.getUser().getId(), response));
+        return response;
     }
 
     private String generateCardNumber() {
@@ -0,0 +1,185 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.service.CardViewService;
+import com.example.bankcards.service.SchedulerLockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Service
+public class CardViewServiceImpl implements CardViewService {
+
+    // Пустой DO UPDATE вместо DO NOTHING: уже стоящая отметка блокируется до коммита записи и проектор
+    // ее пропускает, пока изменение карты не видно. requested_at не сдвигается - задержка считается
+    // от первого непроецированного изменения
+    private static final String MARK_STALE_SQL =
+            "INSERT INTO card_view_refresh (card_id) VALUES (?) " +
+            "ON CONFLICT (card_id) DO UPDATE SET requested_at = card_view_refresh.requested_at";
+
+    private static final String MARK_USER_STALE_SQL =
+            "INSERT INTO card_view_refresh (card_id) SELECT id FROM cards WHERE user_id = ? " +
+            "ON CONFLICT (card_id) DO UPDATE SET requested_at = card_view_refresh.requested_at";
+
+    static final String LOCK_NAME = "card-view-projector";
+
+    // Одна пачка - одна инструкция: забрать отметки через SKIP LOCKED, перенести живые карты из cards,
+    // убрать из card_view удаленные и надгробия. Отметка, поставленная во время проекции, ждет нашего коммита
+    // и остается в очереди - карта будет спроецирована еще раз.
+    // projected_at строго больше уже записанного максимума: версия списка (MAX(projected_at)) растет при любой
+    // проекции, даже если часы или часовой пояс сессии предыдущего проектора были впереди.
+    // Отставание считается в базе от clock_timestamp(), часы узла не участвуют
+    private static final String PROJECT_BATCH_SQL =
+            "WITH claimed AS (" +
+            "  DELETE FROM card_view_refresh r WHERE r.card_id IN (" +
+            "    SELECT card_id FROM card_view_refresh ORDER BY requested_at LIMIT ? FOR UPDATE SKIP LOCKED" +
+            "  ) RETURNING r.card_id, r.requested_at" +
+            "), stamp AS (" +
+            "  SELECT GREATEST(LOCALTIMESTAMP, MAX(projected_at) + INTERVAL '1 microsecond') AS projected_at " +
+            "  FROM card_view" +
+            "), upserted AS (" +
+            "  INSERT INTO card_view (id, masked_number, owner, expiry_date, status, requested_block, " +
+            "  balance, user_id, created_at, updated_at, projected_at) " +
+            "  SELECT c.id, c.masked_number, c.owner, c.expiry_date, c.status, c.requested_block, " +
+            "  c.balance, c.user_id, c.created_at, c.updated_at, stamp.projected_at " +
+            "  FROM cards c JOIN claimed ON claimed.card_id = c.id CROSS JOIN stamp WHERE c.deleted_at IS NULL " +
+            "  ON CONFLICT (id) DO UPDATE SET masked_number = EXCLUDED.masked_number, owner = EXCLUDED.owner, " +
+            "  expiry_date = EXCLUDED.expiry_date, status = EXCLUDED.status, " +
+            "  requested_block = EXCLUDED.requested_block, balance = EXCLUDED.balance, " +
+            "  user_id = EXCLUDED.user_id, updated_at = EXCLUDED.updated_at, projected_at = EXCLUDED.projected_at " +
+            "  RETURNING id" +
+            "), removed AS (" +
+            "  DELETE FROM card_view v USING claimed WHERE v.id = claimed.card_id AND NOT EXISTS (" +
+            "    SELECT 1 FROM cards c WHERE c.id = claimed.card_id AND c.deleted_at IS NULL" +
+            "  ) RETURNING v.id" +
+            ") " +
+            "SELECT (EXTRACT(EPOCH FROM clock_timestamp() - requested_at) * 1000)::bigint AS staleness_ms FROM claimed";
+
+    private static final String LAG_SQL =
+            "SELECT (EXTRACT(EPOCH FROM clock_timestamp() - MIN(requested_at)) * 1000)::bigint FROM card_view_refresh";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerLockService schedulerLockService;
+    private final Counter projectedCounter;
+    private final Counter staleCounter;
+    private final Timer stalenessTimer;
+    private final AtomicReference<Duration> lag = new AtomicReference<>(Duration.ZERO);
+
+    @Value("${app.cards.view.projector-enabled:true}")
+    private boolean projectorEnabled;
+
+    @Value("${app.cards.view.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.cards.view.max-staleness:2s}")
+    private Duration maxStaleness;
+
+    // Проецирует один узел: параллельные проекторы нарушили бы рост projected_at
+    @Value("${app.cards.view.lock-lease:30s}")
+    private Duration lockLease;
+
+    public CardViewServiceImpl(JdbcTemplate jdbcTemplate,
+                               SchedulerLockService schedulerLockService,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schedulerLockService = schedulerLockService;
+        this.projectedCounter = Counter.builder("cards.view.projected")
+                .description("Card changes applied to the card_view read model")
+                .register(meterRegistry);
+        this.staleCounter = Counter.builder("cards.view.staleness.exceeded")
+                .description("Projector cycles that left a change pending longer than the staleness bound")
+                .register(meterRegistry);
+        this.stalenessTimer = Timer.builder("cards.view.staleness")
+                .description("Time from a card change to its projection into card_view")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("cards.view.lag", this, CardViewServiceImpl::lagSeconds)
+                .description("Age of the oldest card change not yet projected into card_view")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // Отметка фиксируется вместе с изменением карты: read model не пропустит закоммиченную запись
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markStale(Long cardId) {
+        jdbcTemplate.update(MARK_STALE_SQL, cardId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markUserCardsStale(Long userId) {
+        jdbcTemplate.update(MARK_USER_STALE_SQL, userId);
+    }
+
+    // Пачки проецируются, пока они полные; каждая - отдельная инструкция в автокоммите на primary
+    @Override
+    public int projectPending() {
+        if (!schedulerLockService.tryAcquire(LOCK_NAME, lockLease)) {
+            return 0;
+        }
+
+        try {
+            return project();
+        } finally {
+            schedulerLockService.release(LOCK_NAME);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cards.view.poll-interval-ms:250}")
+    public void scheduledProjection() {
+        if (projectorEnabled) {
+            projectPending();
+        }
+    }
+
+    private int project() {
+        int total = 0;
+        int projected;
+        do {
+            List<Long> staleness = jdbcTemplate.query(PROJECT_BATCH_SQL,
+                    (rs, rowNum) -> rs.getLong("staleness_ms"), batchSize);
+            for (Long millis : staleness) {
+                stalenessTimer.record(Duration.ofMillis(millis));
+            }
+            projected = staleness.size();
+            total += projected;
+        } while (projected == batchSize);
+
+        projectedCounter.increment(total);
+        checkStaleness();
+        return total;
+    }
+
+    // Граница устаревания - интервал опроса плюс запас; превышение значит, что проектор не успевает
+    private void checkStaleness() {
+        try {
+            Long millis = jdbcTemplate.queryForObject(LAG_SQL, Long.class);
+            Duration current = millis == null ? Duration.ZERO : Duration.ofMillis(millis);
+            lag.set(current);
+
+            if (current.compareTo(maxStaleness) > 0) {
+                staleCounter.increment();
+                log.warn("card_view is behind cards by {} (bound {})", current, maxStaleness);
+            }
+        } catch (RuntimeException e) {
+            log.debug("Failed to refresh card_view lag: {}", e.getMessage());
+        }
+    }
+
+    private double lagSeconds() {
+        return lag.get().toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.event.OutboxEvent;
+import com.example.bankcards.event.OutboxSink;
+import com.example.bankcards.service.OutboxService;
+import com.example.bankcards.util.OutboxEventType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final String APPEND_SQL =
+            "INSERT INTO outbox_events (card_id, event_type, payload) VALUES (?, ?, ?::jsonb)";
+
+    // Пачка берется по id с SKIP LOCKED. Событие откладывается, если у его карты есть более раннее
+    // неопубликованное событие вне пачки (его держит другой узел) - так порядок по карте сохраняется между узлами.
+    // Отложенные строки остаются заблокированными только до конца транзакции пачки
+    private static final String CLAIM_BATCH_SQL =
+            "WITH candidates AS (" +
+            "  SELECT id FROM outbox_events WHERE published_at IS NULL " +
+            "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") " +
+            "SELECT e.id, e.card_id, e.event_type, e.payload::text AS payload, e.created_at " +
+            "FROM outbox_events e JOIN candidates c ON c.id = e.id " +
+            "WHERE NOT EXISTS (" +
+            "  SELECT 1 FROM outbox_events p " +
+            "  WHERE p.card_id = e.card_id AND p.published_at IS NULL AND p.id < e.id " +
+            "  AND p.id NOT IN (SELECT id FROM candidates)" +
+            ") " +
+            "ORDER BY e.id";
+
+    private static final String MARK_PUBLISHED_SQL =
+            "UPDATE outbox_events SET published_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String OLDEST_PENDING_SQL =
+            "SELECT created_at FROM outbox_events WHERE published_at IS NULL ORDER BY id LIMIT 1";
+
+    private static final String PURGE_PUBLISHED_SQL =
+            "DELETE FROM outbox_events WHERE id IN (" +
+            "  SELECT id FROM outbox_events WHERE published_at < ? LIMIT ?" +
+            ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink outboxSink;
+    private final ObjectMapper objectMapper;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer delayTimer;
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+
+    @Value("${app.outbox.publisher-enabled:true}")
+    private boolean publisherEnabled;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.retention:3d}")
+    private Duration retention;
+
+    @Value("${app.outbox.purge-chunk-size:1000}")
+    private int purgeChunkSize;
+
+    public OutboxServiceImpl(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             OutboxSink outboxSink,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboxSink = outboxSink;
+        this.objectMapper = objectMapper;
+        this.publishedCounter = Counter.builder("outbox.published")
+                .description("Outbox events handed to the sink")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.publish.failed")
+                .description("Outbox batches rolled back because the sink failed")
+                .register(meterRegistry);
+        this.delayTimer = Timer.builder("outbox.publish.delay")
+                .description("Time from the operation commit to the event reaching the sink")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", this, OutboxServiceImpl::lagSeconds)
+                .description("Age of the oldest unpublished outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // Пишется в транзакции вызывающей операции: событие фиксируется тогда и только тогда, когда фиксируется она
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEventType type, Long cardId, Object payload) {
+        jdbcTemplate.update(APPEND_SQL, cardId, type.name(), toJson(payload));
+    }
+
+    // Пачки публикуются, пока они полные. Выбор, отправка в sink и отметка published_at - одна транзакция:
+    // при сбое sink пачка откатывается и уйдет повторно в следующем цикле
+    @Override
+    public int publishPending() {
+        int total = 0;
+        int published;
+        do {
+            try {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.warn("Outbox batch publish failed, will retry: {}", e.getMessage());
+                break;
+            }
+            total += published;
+        } while (published == batchSize);
+
+        refreshOldestPending();
+        return total;
+    }
+
+    @Override
+    public long purgePublished() {
+        Timestamp threshold = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_PUBLISHED_SQL, threshold, purgeChunkSize);
+            total += deleted;
+        } while (deleted == purgeChunkSize);
+
+        if (total > 0) {
+            log.info("Purged {} published outbox events older than {}", total, retention);
+        }
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void scheduledPublish() {
+        if (publisherEnabled) {
+            publishPending();
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 45 * * * *}")
+    public void scheduledPurge() {
+        if (publisherEnabled) {
+            purgePublished();
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> events = jdbcTemplate.query(CLAIM_BATCH_SQL, EVENT_MAPPER, batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        outboxSink.publish(events);
+        jdbcTemplate.batchUpdate(MARK_PUBLISHED_SQL, events.stream()
+                .map(event -> new Object[]{event.id()})
+                .toList());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : events) {
+            delayTimer.record(Duration.between(event.createdAt(), now));
+        }
+        publishedCounter.increment(events.size());
+        return events.size();
+    }
+
+    private void refreshOldestPending() {
+        try {
+            List<LocalDateTime> oldest = jdbcTemplate.query(OLDEST_PENDING_SQL,
+                    (rs, rowNum) -> rs.getTimestamp("created_at").toLocalDateTime());
+            oldestPending.set(oldest.isEmpty() ? null : oldest.get(0));
+        } catch (RuntimeException e) {
+            log.debug("Failed to refresh outbox lag: {}", e.getMessage());
+        }
+    }
+
+    private double lagSeconds() {
+        LocalDateTime oldest = oldestPending.get();
+        return oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static final RowMapper<OutboxEvent> EVENT_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("id"),
+            rs.getLong("card_id"),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+}
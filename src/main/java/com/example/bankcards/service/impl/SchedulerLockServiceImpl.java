@@ -0,0 +1,51 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.service.SchedulerLockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+// Аренда хранится в таблице, а не в advisory lock: пул соединений не гарантирует,
+// что захват и освобождение пройдут через одну сессию Postgres
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchedulerLockServiceImpl implements SchedulerLockService {
+
+    private static final String NODE_ID = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String name, Duration lease) {
+        // Время берется из базы - часы узлов могут расходиться.
+        // Строка создается при первом обращении; дальше аренда переходит только после истечения
+        int updated = jdbcTemplate.update(
+                "INSERT INTO scheduler_locks (name, locked_until, locked_at, locked_by) " +
+                "VALUES (?, CURRENT_TIMESTAMP + make_interval(secs => ?), CURRENT_TIMESTAMP, ?) " +
+                "ON CONFLICT (name) DO UPDATE SET locked_until = EXCLUDED.locked_until, " +
+                "locked_at = EXCLUDED.locked_at, locked_by = EXCLUDED.locked_by " +
+                "WHERE scheduler_locks.locked_until <= CURRENT_TIMESTAMP",
+                name, (double) lease.toSeconds(), NODE_ID);
+
+        if (updated == 0) {
+            log.debug("Scheduler lock {} is held by another node", name);
+        }
+        return updated == 1;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String name) {
+        jdbcTemplate.update(
+                "UPDATE scheduler_locks SET locked_until = CURRENT_TIMESTAMP WHERE name = ? AND locked_by = ?",
+                name, NODE_ID);
+    }
+}
@@ -0,0 +1,435 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.StatementProperties;
+import com.example.bankcards.dto.response.StatementRunResponse;
+import com.example.bankcards.exception.custom.statement.StatementRunInProgressException;
+import com.example.bankcards.service.SchedulerLockService;
+import com.example.bankcards.service.StatementService;
+import com.example.bankcards.util.CsvUtils;
+import com.example.bankcards.util.StatementFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatementServiceImpl implements StatementService {
+
+    static final int BINARY_MAGIC = 0x53544D54; // "STMT"
+    static final byte BINARY_VERSION = 1;
+    static final byte BINARY_RECORD = 1;
+    static final byte BINARY_END = 0;
+    static final String LOCK_NAME = "statement-generator";
+
+    private static final String CSV_HEADER =
+            "transferId,createdAt,direction,counterpartyCardId,counterpartyMasked,amount,description";
+
+    // Обе ветки идут по индексам (from_card_id | to_card_id, created_at, id),
+    // строки приходят уже сгруппированными по карте - выписку можно писать без буферизации
+    private static final String RANGE_QUERY =
+            "SELECT t.from_card_id AS card_id, t.id, t.created_at, 'D' AS direction, " +
+            "t.to_card_id AS counterparty_id, c.masked_number AS counterparty_masked, t.amount, t.description " +
+            "FROM transfers t JOIN cards c ON c.id = t.to_card_id " +
+            "WHERE t.from_card_id BETWEEN ? AND ? AND t.created_at >= ? AND t.created_at < ? " +
+            "UNION ALL " +
+            "SELECT t.to_card_id AS card_id, t.id, t.created_at, 'C' AS direction, " +
+            "t.from_card_id AS counterparty_id, c.masked_number AS counterparty_masked, t.amount, t.description " +
+            "FROM transfers t JOIN cards c ON c.id = t.from_card_id " +
+            "WHERE t.to_card_id BETWEEN ? AND ? AND t.created_at >= ? AND t.created_at < ? " +
+            "ORDER BY card_id, created_at, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final StatementProperties properties;
+    private final ForkJoinPool statementPool;
+    private final Executor statementRunner;
+    private final SchedulerLockService schedulerLockService;
+
+    @Scheduled(cron = "${app.statements.cron:-}")
+    public void generatePreviousMonth() {
+        YearMonth month = YearMonth.now().minusMonths(1);
+        // Запуск по расписанию и ручной запуск администратора делят одну аренду - на кластер один прогон
+        if (!schedulerLockService.tryAcquire(LOCK_NAME, properties.getLockLease())) {
+            log.info("Statements for {} skipped: another run holds the lock", month);
+            return;
+        }
+
+        try {
+            run(month, StatementFormat.CSV);
+        } finally {
+            schedulerLockService.release(LOCK_NAME);
+        }
+    }
+
+    @Override
+    public StatementRunResponse generateMonthlyStatements(YearMonth month, StatementFormat format) {
+        acquireLease();
+        try {
+            return run(month, format);
+        } finally {
+            schedulerLockService.release(LOCK_NAME);
+        }
+    }
+
+    @Override
+    public StatementRunResponse startMonthlyStatements(YearMonth month, StatementFormat format) {
+        // Аренда берется в потоке запроса: параллельный запуск сразу получает 409, а не молча ставится в очередь
+        acquireLease();
+        try {
+            statementRunner.execute(() -> {
+                try {
+                    run(month, format);
+                } catch (RuntimeException e) {
+                    log.error("Statements for {} ({}) failed: {}", month, format, e.getMessage(), e);
+                } finally {
+                    schedulerLockService.release(LOCK_NAME);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            schedulerLockService.release(LOCK_NAME);
+            throw e;
+        }
+
+        return StatementRunResponse.builder()
+                .month(month.toString())
+                .format(format)
+                .outputDir(monthDir(month, format).toAbsolutePath().toString())
+                .completed(false)
+                .build();
+    }
+
+    private void acquireLease() {
+        if (!schedulerLockService.tryAcquire(LOCK_NAME, properties.getLockLease())) {
+            throw new StatementRunInProgressException();
+        }
+    }
+
+    private Path monthDir(YearMonth month, StatementFormat format) {
+        return Paths.get(properties.getOutputDir(), month.toString(), format.getExtension());
+    }
+
+    private StatementRunResponse run(YearMonth month, StatementFormat format) {
+        long started = System.nanoTime();
+        Path monthDir = monthDir(month, format);
+        Path checkpointDir = monthDir.resolve(".checkpoints");
+        try {
+            Files.createDirectories(checkpointDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<long[]> ranges = splitCardIdSpace();
+        List<Callable<RangeResult>> tasks = new ArrayList<>();
+        int skipped = 0;
+        for (long[] range : ranges) {
+            Path marker = checkpointDir.resolve("range-" + range[0] + "-" + range[1] + ".done");
+            // Checkpoint: диапазон, завершенный в прошлом запуске, не пересчитывается
+            if (Files.exists(marker)) {
+                skipped++;
+                continue;
+            }
+            tasks.add(() -> processRange(month, format, monthDir, range[0], range[1], marker));
+        }
+
+        long cards = 0;
+        long transfers = 0;
+        for (Future<RangeResult> future : statementPool.invokeAll(tasks)) {
+            RangeResult result = join(future);
+            cards += result.cards();
+            transfers += result.transfers();
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Statements for {} ({}): {} ranges ({} resumed), {} cards, {} transfers in {} ms",
+                month, format, ranges.size(), skipped, cards, transfers, durationMs);
+
+        return StatementRunResponse.builder()
+                .month(month.toString())
+                .format(format)
+                .outputDir(monthDir.toAbsolutePath().toString())
+                .totalRanges(ranges.size())
+                .skippedRanges(skipped)
+                .cards(cards)
+                .transfers(transfers)
+                .durationMs(durationMs)
+                .completed(true)
+                .build();
+    }
+
+    private List<long[]> splitCardIdSpace() {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM cards");
+        List<long[]> ranges = new ArrayList<>();
+        if (bounds.get("min_id") == null) {
+            return ranges;
+        }
+
+        long min = ((Number) bounds.get("min_id")).longValue();
+        long max = ((Number) bounds.get("max_id")).longValue();
+        long size = properties.getRangeSize();
+        // Границы выровнены по rangeSize, чтобы маркеры совпадали между запусками при росте таблицы
+        for (long start = min - Math.floorMod(min, size); start <= max; start += size) {
+            ranges.add(new long[]{start, start + size - 1});
+        }
+        return ranges;
+    }
+
+    private RangeResult processRange(YearMonth month, StatementFormat format, Path monthDir,
+                                     long startId, long endId, Path marker) throws IOException {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        RangeWriter rangeWriter = new RangeWriter(month, format, monthDir);
+
+        // Postgres отдает строки порциями по fetch size только внутри транзакции (autocommit = false)
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        try {
+            tx.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(RANGE_QUERY,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(properties.getFetchSize());
+                ps.setLong(1, startId);
+                ps.setLong(2, endId);
+                ps.setObject(3, from);
+                ps.setObject(4, to);
+                ps.setLong(5, startId);
+                ps.setLong(6, endId);
+                ps.setObject(7, from);
+                ps.setObject(8, to);
+                return ps;
+            }, rangeWriter));
+            rangeWriter.finishCard();
+        } catch (UncheckedIOException e) {
+            rangeWriter.abort();
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            rangeWriter.abort();
+            throw e;
+        }
+
+        RangeResult result = new RangeResult(rangeWriter.cards, rangeWriter.transfers);
+        Files.writeString(marker, result.cards() + "," + result.transfers());
+        log.debug("Statement range {}-{} done: {} cards, {} transfers", startId, endId, result.cards(), result.transfers());
+        return result;
+    }
+
+    private RangeResult join(Future<RangeResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statement generation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record RangeResult(long cards, long transfers) {
+    }
+
+    // Переключает файл выписки при смене card_id; файл пишется во временный и переименовывается целиком
+    private static final class RangeWriter implements RowCallbackHandler {
+
+        private final YearMonth month;
+        private final StatementFormat format;
+        private final Path monthDir;
+
+        private long currentCardId = -1;
+        private Path tmpFile;
+        private CardStatementWriter writer;
+        private long cards;
+        private long transfers;
+
+        private RangeWriter(YearMonth month, StatementFormat format, Path monthDir) {
+            this.month = month;
+            this.format = format;
+            this.monthDir = monthDir;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long cardId = rs.getLong("card_id");
+            try {
+                if (cardId != currentCardId) {
+                    finishCard();
+                    startCard(cardId);
+                }
+                writer.write(rs.getLong("id"),
+                        rs.getObject("created_at", LocalDateTime.class),
+                        rs.getString("direction").charAt(0),
+                        rs.getLong("counterparty_id"),
+                        rs.getString("counterparty_masked"),
+                        rs.getBigDecimal("amount"),
+                        rs.getString("description"));
+                transfers++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void startCard(long cardId) throws IOException {
+            currentCardId = cardId;
+            tmpFile = monthDir.resolve("card-" + cardId + "." + format.getExtension() + ".tmp");
+            writer = format == StatementFormat.CSV
+                    ? new CsvStatementWriter(tmpFile)
+                    : new BinaryStatementWriter(tmpFile, cardId, month);
+        }
+
+        private void finishCard() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+                Files.move(tmpFile, monthDir.resolve("card-" + currentCardId + "." + format.getExtension()),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            writer = null;
+            cards++;
+        }
+
+        private void abort() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+                Files.deleteIfExists(tmpFile);
+            } catch (IOException e) {
+                log.warn("Failed to clean up {}: {}", tmpFile, e.getMessage());
+            }
+            writer = null;
+        }
+    }
+
+    private interface CardStatementWriter extends Closeable {
+        void write(long transferId, LocalDateTime createdAt, char direction, long counterpartyId,
+                   String counterpartyMasked, BigDecimal amount, String description) throws IOException;
+    }
+
+    private static final class CsvStatementWriter implements CardStatementWriter {
+
+        private final Writer writer;
+
+        private CsvStatementWriter(Path file) throws IOException {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(long transferId, LocalDateTime createdAt, char direction, long counterpartyId,
+                          String counterpartyMasked, BigDecimal amount, String description) throws IOException {
+            writer.write(String.valueOf(transferId));
+            writer.write(',');
+            writer.write(createdAt.toString());
+            writer.write(',');
+            writer.write(direction);
+            writer.write(',');
+            writer.write(String.valueOf(counterpartyId));
+            writer.write(',');
+            writer.write(CsvUtils.escape(counterpartyMasked));
+            writer.write(',');
+            writer.write(amount.toPlainString());
+            writer.write(',');
+            writer.write(CsvUtils.escape(description));
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    // Заголовок: magic, версия, id карты, год, месяц.
+    // Запись: тег 1, id перевода, время (epoch millis UTC), направление, id карты-контрагента,
+    // сумма в копейках, описание (modified UTF-8). Окончание: тег 0, число записей, сумма списаний, сумма зачислений
+    private static final class BinaryStatementWriter implements CardStatementWriter {
+
+        private final DataOutputStream out;
+        private int count;
+        private long debitMinor;
+        private long creditMinor;
+
+        private BinaryStatementWriter(Path file, long cardId, YearMonth month) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+            out.writeInt(BINARY_MAGIC);
+            out.writeByte(BINARY_VERSION);
+            out.writeLong(cardId);
+            out.writeShort(month.getYear());
+            out.writeByte(month.getMonthValue());
+        }
+
+        @Override
+        public void write(long transferId, LocalDateTime createdAt, char direction, long counterpartyId,
+                          String counterpartyMasked, BigDecimal amount, String description) throws IOException {
+            long amountMinor = amount.movePointRight(2).longValueExact();
+            out.writeByte(BINARY_RECORD);
+            out.writeLong(transferId);
+            out.writeLong(createdAt.toInstant(ZoneOffset.UTC).toEpochMilli());
+            out.writeByte(direction);
+            out.writeLong(counterpartyId);
+            out.writeLong(amountMinor);
+            out.writeUTF(description != null ? description : "");
+
+            count++;
+            if (direction == 'D') {
+                debitMinor += amountMinor;
+            } else {
+                creditMinor += amountMinor;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.writeByte(BINARY_END);
+            out.writeInt(count);
+            out.writeLong(debitMinor);
+            out.writeLong(creditMinor);
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserWalletSummary;
+import com.example.bankcards.service.SchedulerLockService;
+import com.example.bankcards.service.TombstonePurgeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TombstonePurgeServiceImpl implements TombstonePurgeService {
+
+    static final String LOCK_NAME = "tombstone-purger";
+
+    // Снимается только собственная история владельца удаленной карты (t.user_id = c.user_id).
+    // Переводы других пользователей, где карта - контрагент, остаются: это их история, карта-надгробие держит ссылку.
+    // По частичному индексу idx_cards_tombstoned и индексам ленты, ключ партиционированной таблицы - (id, created_at)
+    private static final String PURGE_TRANSFERS_SQL =
+            "WITH doomed AS (" +
+            "  (SELECT t.id, t.created_at FROM cards c JOIN transfers t ON t.from_card_id = c.id " +
+            "   WHERE c.deleted_at IS NOT NULL AND t.user_id = c.user_id LIMIT ?) " +
+            "  UNION " +
+            "  (SELECT t.id, t.created_at FROM cards c JOIN transfers t ON t.to_card_id = c.id " +
+            "   WHERE c.deleted_at IS NOT NULL AND t.user_id = c.user_id LIMIT ?)" +
+            ") " +
+            "DELETE FROM transfers t USING doomed d WHERE t.id = d.id AND t.created_at = d.created_at";
+
+    // Архив чистится по тому же правилу и до удаления карт: внешних ключей у него нет, без карты строки не найти
+    private static final String PURGE_ARCHIVE_SQL =
+            "DELETE FROM transfers_archive WHERE id IN (" +
+            "  (SELECT a.id FROM cards c JOIN transfers_archive a ON a.from_card_id = c.id " +
+            "   WHERE c.deleted_at IS NOT NULL AND a.user_id = c.user_id LIMIT ?) " +
+            "  UNION " +
+            "  (SELECT a.id FROM cards c JOIN transfers_archive a ON a.to_card_id = c.id " +
+            "   WHERE c.deleted_at IS NOT NULL AND a.user_id = c.user_id LIMIT ?)" +
+            ")";
+
+    // Карта удаляется, когда на нее не осталось ни переводов (в том числе чужих), ни собственных архивных строк.
+    // Карта-контрагент ждет, пока чужие переводы уйдут в архив; гонку с еще не снятым переводом подберет следующий запуск
+    private static final String PURGE_CARDS_SQL =
+            "DELETE FROM cards WHERE id IN (" +
+            "  SELECT c.id FROM cards c WHERE c.deleted_at IS NOT NULL " +
+            "  AND NOT EXISTS (SELECT 1 FROM transfers t WHERE t.from_card_id = c.id) " +
+            "  AND NOT EXISTS (SELECT 1 FROM transfers t WHERE t.to_card_id = c.id) " +
+            "  AND NOT EXISTS (SELECT 1 FROM transfers_archive a WHERE a.from_card_id = c.id AND a.user_id = c.user_id) " +
+            "  AND NOT EXISTS (SELECT 1 FROM transfers_archive a WHERE a.to_card_id = c.id AND a.user_id = c.user_id) " +
+            "  ORDER BY c.id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") RETURNING id";
+
+    // Пользователь удаляется последним, когда ушли все его карты (в том числе карты-контрагенты чужих переводов);
+    // сводку снимает ON DELETE CASCADE
+    private static final String PURGE_USERS_SQL =
+            "DELETE FROM users WHERE id IN (" +
+            "  SELECT u.id FROM users u WHERE u.deleted_at IS NOT NULL " +
+            "  AND NOT EXISTS (SELECT 1 FROM cards c WHERE c.user_id = u.id) " +
+            "  ORDER BY u.id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService schedulerLockService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Counter transfersCounter;
+    private final Counter archiveCounter;
+    private final Counter cardsCounter;
+    private final Counter usersCounter;
+
+    @Value("${app.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.purge.pause-between-chunks:100ms}")
+    private Duration pauseBetweenChunks;
+
+    @Value("${app.purge.lock-lease:10m}")
+    private Duration lockLease;
+
+    @Value("${app.purge.lock-timeout:2s}")
+    private Duration lockTimeout;
+
+    public TombstonePurgeServiceImpl(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     SchedulerLockService schedulerLockService,
+                                     EntityManagerFactory entityManagerFactory,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.schedulerLockService = schedulerLockService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transfersCounter = purgedCounter(meterRegistry, "transfers");
+        this.archiveCounter = purgedCounter(meterRegistry, "transfers_archive");
+        this.cardsCounter = purgedCounter(meterRegistry, "cards");
+        this.usersCounter = purgedCounter(meterRegistry, "users");
+    }
+
+    @Scheduled(fixedDelayString = "${app.purge.interval-ms:60000}")
+    public void scheduledPurge() {
+        purgeTombstoned();
+    }
+
+    @Override
+    public long purgeTombstoned() {
+        if (!schedulerLockService.tryAcquire(LOCK_NAME, lockLease)) {
+            return 0;
+        }
+
+        try {
+            // Порядок задан внешними ключами: переводы и архив -> карты -> пользователи
+            long transfers = drain("transfers", transfersCounter,
+                    () -> jdbcTemplate.update(PURGE_TRANSFERS_SQL, chunkSize, chunkSize));
+            long archived = drain("transfers_archive", archiveCounter,
+                    () -> jdbcTemplate.update(PURGE_ARCHIVE_SQL, chunkSize, chunkSize));
+            long cards = drain("cards", cardsCounter,
+                    () -> deleteAndEvict(PURGE_CARDS_SQL, id -> entityManagerFactory.getCache().evict(Card.class, id)));
+            long users = drain("users", usersCounter,
+                    () -> deleteAndEvict(PURGE_USERS_SQL, id -> {
+                        entityManagerFactory.getCache().evict(User.class, id);
+                        entityManagerFactory.getCache().evict(UserWalletSummary.class, id);
+                    }));
+
+            long total = transfers + archived + cards + users;
+            if (total > 0) {
+                log.info("Purged tombstoned rows: {} transfers, {} archived transfers, {} cards, {} users",
+                        transfers, archived, cards, users);
+            }
+            return total;
+        } finally {
+            schedulerLockService.release(LOCK_NAME);
+        }
+    }
+
+    // Каждая пачка - отдельная короткая транзакция; шаг исчерпан, когда пачка пришла пустой.
+    // По размеру пачки судить нельзя: UNION в PURGE_TRANSFERS_SQL схлопывает переводы между двумя удаленными картами
+    private long drain(String step, Counter counter, IntSupplier chunk) {
+        long total = 0;
+        int processed;
+        do {
+            try {
+                processed = transactionTemplate.execute(status -> {
+                    jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeout.toMillis() + "ms'");
+                    return chunk.getAsInt();
+                });
+            } catch (PessimisticLockingFailureException e) {
+                log.warn("Purge of tombstoned {} paused after {} rows: {}", step, total, e.getMessage());
+                break;
+            }
+
+            total += processed;
+            counter.increment(processed);
+
+            if (processed > 0 && !pause()) {
+                break;
+            }
+        } while (processed > 0);
+        return total;
+    }
+
+    private int deleteAndEvict(String sql, Consumer<Long> evict) {
+        List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, chunkSize);
+        // Set-based DELETE минует Hibernate - записи удаляются из регионов L2 вручную
+        ids.forEach(evict);
+        return ids.size();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenChunks.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Counter purgedCounter(MeterRegistry meterRegistry, String table) {
+        return Counter.builder("purge.tombstoned.deleted")
+                .description("Rows removed by the tombstone purger")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+}
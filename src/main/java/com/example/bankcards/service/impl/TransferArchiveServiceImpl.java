@@ -0,0 +1,124 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.service.SchedulerLockService;
+import com.example.bankcards.service.TransferArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.transfers.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TransferArchiveServiceImpl implements TransferArchiveService {
+
+    static final String LOCK_NAME = "transfer-archiver";
+
+    // Пачка выбирается по created_at - условие отсекает все партиции кроме закрытых месяцев.
+    // SKIP LOCKED: строки, которые сейчас держит живая транзакция, переносятся следующим запуском
+    private static final String MOVE_CHUNK_SQL =
+            "WITH batch AS (" +
+            "  SELECT id, created_at FROM transfers WHERE created_at < ? " +
+            "  ORDER BY created_at, id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            "), moved AS (" +
+            "  DELETE FROM transfers t USING batch b " +
+            "  WHERE t.id = b.id AND t.created_at = b.created_at AND t.created_at < ? " +
+            "  RETURNING t.id, t.from_card_id, t.to_card_id, t.amount, t.description, t.created_at, t.user_id" +
+            ") " +
+            "INSERT INTO transfers_archive (id, from_card_id, to_card_id, amount, description, created_at, user_id) " +
+            "SELECT id, from_card_id, to_card_id, amount, description, created_at, user_id FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final SchedulerLockService schedulerLockService;
+
+    // Архивируются только целые месяцы старше порога
+    @Value("${app.transfers.archive.age-months:12}")
+    private int ageMonths;
+
+    @Value("${app.transfers.archive.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.transfers.archive.pause-between-chunks:200ms}")
+    private Duration pauseBetweenChunks;
+
+    @Value("${app.transfers.archive.max-run-time:30m}")
+    private Duration maxRunTime;
+
+    // Аренда дольше max-run-time: пока перенос идет, другой узел его не начнет
+    @Value("${app.transfers.archive.lock-lease:45m}")
+    private Duration lockLease;
+
+    @Value("${app.transfers.archive.lock-timeout:2s}")
+    private Duration lockTimeout;
+
+    @Scheduled(cron = "${app.transfers.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        archiveClosedPeriods();
+    }
+
+    @Override
+    public long archiveClosedPeriods() {
+        if (!schedulerLockService.tryAcquire(LOCK_NAME, lockLease)) {
+            return 0;
+        }
+
+        try {
+            return moveClosedPeriods();
+        } finally {
+            schedulerLockService.release(LOCK_NAME);
+        }
+    }
+
+    private long moveClosedPeriods() {
+        LocalDateTime cutoff = YearMonth.now().minusMonths(ageMonths).atDay(1).atStartOfDay();
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long total = 0;
+        int moved;
+        do {
+            try {
+                // Каждая пачка - отдельная короткая транзакция; блокировку дольше lock-timeout не ждем
+                moved = tx.execute(status -> {
+                    jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeout.toMillis() + "ms'");
+                    return jdbcTemplate.update(MOVE_CHUNK_SQL, cutoff, chunkSize, cutoff);
+                });
+            } catch (PessimisticLockingFailureException e) {
+                log.warn("Transfer archive paused on lock timeout after {} rows: {}", total, e.getMessage());
+                break;
+            }
+            total += moved;
+
+            if (moved == chunkSize && !pause()) {
+                break;
+            }
+        } while (moved == chunkSize && System.nanoTime() < deadline);
+
+        if (total > 0) {
+            log.info("Archived {} transfers created before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenChunks.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.request.TransferExportFilter;
+import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.custom.AccessDeniedException;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.TransferExportService;
+import com.example.bankcards.service.UserService;
+import com.example.bankcards.util.CsvUtils;
+import com.example.bankcards.util.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferExportServiceImpl implements TransferExportService {
+
+    private static final int FETCH_SIZE = 500;
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final String CSV_HEADER =
+            "id,fromCardId,fromCardMasked,toCardId,toCardMasked,amount,description,createdAt,userId";
+
+    // Архивные периоды выгружаются вместе с живыми; фильтры планировщик проталкивает в обе ветки UNION ALL
+    private static final String BASE_QUERY =
+            "SELECT t.id, t.from_card_id, fc.masked_number AS from_masked, " +
+            "t.to_card_id, tc.masked_number AS to_masked, t.amount, t.description, t.created_at, t.user_id " +
+            "FROM (" +
+            "SELECT id, from_card_id, to_card_id, amount, description, created_at, user_id FROM transfers " +
+            "UNION ALL " +
+            "SELECT id, from_card_id, to_card_id, amount, description, created_at, user_id FROM transfers_archive" +
+            ") t " +
+            "LEFT JOIN cards fc ON fc.id = t.from_card_id " +
+            "LEFT JOIN cards tc ON tc.id = t.to_card_id " +
+            "WHERE 1 = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final UserService userService;
+    private final CardService cardService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public StreamingResponseBody exportTransfers(TransferExportFilter filter) {
+        // Пользователь и доступ проверяются в потоке запроса - тело ответа пишется асинхронно
+        User user = userService.getCurrentUserEntity();
+        boolean isAdmin = user.getRole().equals(User.Role.ADMIN);
+
+        if (filter.getCardId() != null && !isAdmin &&
+                !cardService.isCardBelongsToUser(filter.getCardId(), user)) {
+            throw new AccessDeniedException();
+        }
+
+        List<Object> params = new ArrayList<>();
+        String sql = buildQuery(filter, isAdmin ? null : user.getId(), params);
+
+        return out -> {
+            GZIPOutputStream gzip = filter.isGzip() ? new GZIPOutputStream(out, 8192) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    gzip != null ? gzip : out, StandardCharsets.UTF_8));
+
+            ExportRowWriter rowWriter = new ExportRowWriter(writer, filter.getFormat());
+            rowWriter.writeHeader();
+
+            // Postgres отдает строки порциями по fetch size только внутри транзакции (autocommit = false)
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            try {
+                tx.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(sql,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(FETCH_SIZE);
+                    for (int i = 0; i < params.size(); i++) {
+                        ps.setObject(i + 1, params.get(i));
+                    }
+                    return ps;
+                }, rowWriter));
+            } catch (UncheckedIOException e) {
+                // Клиент оборвал соединение - дальше писать некуда
+                log.warn("Transfer export aborted after {} rows: {}", rowWriter.count, e.getMessage());
+                throw e.getCause();
+            }
+
+            writer.flush();
+            if (gzip != null) {
+                gzip.finish();
+            }
+            log.info("Transfer export finished: {} rows, user {}", rowWriter.count, user.getId());
+        };
+    }
+
+    private String buildQuery(TransferExportFilter filter, Long userId, List<Object> params) {
+        StringBuilder sql = new StringBuilder(BASE_QUERY);
+
+        if (userId != null) {
+            sql.append(" AND t.user_id = ?");
+            params.add(userId);
+        }
+        if (filter.getCardId() != null) {
+            sql.append(" AND (t.from_card_id = ? OR t.to_card_id = ?)");
+            params.add(filter.getCardId());
+            params.add(filter.getCardId());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND t.created_at >= ?");
+            params.add(filter.getFrom().atStartOfDay());
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND t.created_at < ?");
+            params.add(filter.getTo().plusDays(1).atStartOfDay());
+        }
+        if (filter.getMinAmount() != null) {
+            sql.append(" AND t.amount >= ?");
+            params.add(filter.getMinAmount());
+        }
+        if (filter.getMaxAmount() != null) {
+            sql.append(" AND t.amount <= ?");
+            params.add(filter.getMaxAmount());
+        }
+
+        // Хронологический порядок - (created_at, id), как в индексах ленты и архива. По id сортировать нельзя:
+        // узлы получают id блоками pooled-lo, и порядок id не совпадает с порядком создания
+        return sql.append(" ORDER BY t.created_at, t.id").toString();
+    }
+
+    private final class ExportRowWriter implements RowCallbackHandler {
+
+        private final Writer writer;
+        private final ExportFormat format;
+        private long count;
+
+        private ExportRowWriter(Writer writer, ExportFormat format) {
+            this.writer = writer;
+            this.format = format;
+        }
+
+        private void writeHeader() throws IOException {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            TransferResponse row = TransferResponse.builder()
+                    .id(rs.getLong("id"))
+                    .fromCardId(rs.getLong("from_card_id"))
+                    .fromCardMasked(rs.getString("from_masked"))
+                    .toCardId(rs.getLong("to_card_id"))
+                    .toCardMasked(rs.getString("to_masked"))
+                    .amount(rs.getBigDecimal("amount"))
+                    .description(rs.getString("description"))
+                    .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                    .userId(rs.getLong("user_id"))
+                    .build();
+
+            try {
+                if (format == ExportFormat.CSV) {
+                    writeCsv(row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeCsv(TransferResponse row) throws IOException {
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getFromCardId()));
+            writer.write(',');
+            writer.write(CsvUtils.escape(row.getFromCardMasked()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getToCardId()));
+            writer.write(',');
+            writer.write(CsvUtils.escape(row.getToCardMasked()));
+            writer.write(',');
+            writer.write(row.getAmount().toPlainString());
+            writer.write(',');
+            writer.write(CsvUtils.escape(row.getDescription()));
+            writer.write(',');
+            writer.write(row.getCreatedAt() != null ? row.getCreatedAt().toString() : "");
+            writer.write(',');
+            writer.write(String.valueOf(row.getUserId()));
+            writer.write('\n');
+        }
+    }
+}
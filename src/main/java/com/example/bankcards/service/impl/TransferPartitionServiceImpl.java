@@ -0,0 +1,141 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.service.SchedulerLockService;
+import com.example.bankcards.service.TransferPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.transfers.partitions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TransferPartitionServiceImpl implements TransferPartitionService {
+
+    static final String LOCK_NAME = "transfer-partitions";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String ATTACHED_PARTITIONS_QUERY =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'transfers'::regclass ORDER BY c.relname";
+
+    // Перед отсоединением строки копируются в архив: история остается доступной через transfers_archive
+    private static final String ARCHIVE_PARTITION_SQL =
+            "INSERT INTO transfers_archive (id, from_card_id, to_card_id, amount, description, created_at, user_id) " +
+            "SELECT id, from_card_id, to_card_id, amount, description, created_at, user_id FROM %s " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${app.transfers.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 - партиции не отсоединяются
+    @Value("${app.transfers.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${app.transfers.partitions.lock-lease:10m}")
+    private Duration lockLease;
+
+    // Партиция на текущий месяц нужна до первой вставки, поэтому проверка выполняется и при старте.
+    // Ошибка здесь не должна останавливать запуск: партиции создаются на месяцы вперед, следующий прогон повторит
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainPartitionsOnStartup() {
+        try {
+            maintainPartitions();
+        } catch (RuntimeException e) {
+            log.error("Transfer partition maintenance failed on startup", e);
+        }
+    }
+
+    // Узлы стартуют одновременно: без аренды create_transfers_partition (проверка, затем создание)
+    // гоняется между ними, а отсоединение архивировало бы одну партицию дважды
+    @Scheduled(cron = "${app.transfers.partitions.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        if (!schedulerLockService.tryAcquire(LOCK_NAME, lockLease)) {
+            return;
+        }
+
+        try {
+            createFuturePartitions();
+            detachExpiredPartitions();
+        } finally {
+            schedulerLockService.release(LOCK_NAME);
+        }
+    }
+
+    // Транзакции задаются через TransactionTemplate: maintainPartitions вызывает методы напрямую, мимо прокси
+    @Override
+    public List<String> createFuturePartitions() {
+        List<String> created = new TransactionTemplate(transactionManager).execute(status -> {
+            List<String> names = new ArrayList<>();
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= monthsAhead; i++) {
+                LocalDate month = current.plusMonths(i).atDay(1);
+                Boolean isNew = jdbcTemplate.queryForObject(
+                        "SELECT create_transfers_partition(?)", Boolean.class, month);
+                if (Boolean.TRUE.equals(isNew)) {
+                    names.add(partitionName(current.plusMonths(i)));
+                }
+            }
+            return names;
+        });
+
+        if (!created.isEmpty()) {
+            log.info("Created transfer partitions: {}", created);
+        }
+        return created;
+    }
+
+    @Override
+    public List<String> detachExpiredPartitions() {
+        List<String> detached = new ArrayList<>();
+        if (retentionMonths <= 0) {
+            return detached;
+        }
+
+        // Имена партиций упорядочены так же, как месяцы, поэтому сравнение строк достаточно
+        String cutoff = partitionName(YearMonth.now().minusMonths(retentionMonths));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (String partition : jdbcTemplate.queryForList(ATTACHED_PARTITIONS_QUERY, String.class)) {
+            if (partition.matches("transfers_\\d{4}_\\d{2}") && partition.compareTo(cutoff) < 0) {
+                // Архивирование и отсоединение в одной транзакции на партицию: строки не пропадают из выборок.
+                // Отсоединенная таблица остается в схеме и может быть удалена отдельно
+                Integer archived = tx.execute(status -> {
+                    int rows = jdbcTemplate.update(String.format(ARCHIVE_PARTITION_SQL, partition));
+                    jdbcTemplate.execute("ALTER TABLE transfers DETACH PARTITION " + partition);
+                    return rows;
+                });
+                log.info("Archived {} rows from {} before detaching", archived, partition);
+                detached.add(partition);
+            }
+        }
+
+        if (!detached.isEmpty()) {
+            log.info("Detached transfer partitions older than {}: {}", cutoff, detached);
+        }
+        return detached;
+    }
+
+    private String partitionName(YearMonth month) {
+        return "transfers_" + month.format(PARTITION_SUFFIX);
+    }
+}
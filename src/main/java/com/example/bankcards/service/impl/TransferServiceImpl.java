@@ -1,6 +1,7 @@
 package com.example.bankcards.service.impl;
 
 import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferFeedResponse;
 import com.example.bankcards.dto.response.TransferResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.Transfer;
@@ -10,37 +11,77 @@ import com.example.bankcards.exception.custom.card.CardNotActiveException;
 import com.example.bankcards.exception.custom.card.InsufficientFundsException;
 import com.example.bankcards.exception.custom.card.SameCardTransferException;
 import com.example.bankcards.exception.custom.transfer.TransferNotFoundException;
+import com.example.bankcards.exception.custom.transfer.UnsupportedTransferSortException;
 import com.example.bankcards.mapper.TransferMapper;
+import com.example.bankcards.repository.TransferArchiveRepository;
 import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.service.CardLockService;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.OutboxService;
 import com.example.bankcards.service.TransferService;
 import com.example.bankcards.service.UserService;
+import com.example.bankcards.service.WalletSummaryService;
 import com.example.bankcards.util.ErrorMessages;
+import com.example.bankcards.util.OffsetPageRequest;
+import com.example.bankcards.util.OutboxEventType;
+import com.example.bankcards.util.ResourceVersion;
+import com.example.bankcards.util.UserIdentity;
+import com.example.bankcards.util.SingleFlight;
+import com.example.bankcards.util.TransferCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
 @Service
 @RequiredArgsConstructor
 public class TransferServiceImpl implements TransferService {
 
+    private static final int MAX_FEED_SIZE = 100;
+
+    // Единственный порядок, в котором архив продолжает живую выборку: от новых к старым
+    private static final Sort HISTORY_SORT = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+    // Поля, общие для transfers и transfers_archive: только по ним сортировка применима к обеим таблицам
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "createdAt", "amount", "description");
+
     private final TransferRepository transferRepository;
+    private final TransferArchiveRepository transferArchiveRepository;
     private final CardService cardService;
+    private final CardLockService cardLockService;
+    private final OutboxService outboxService;
     private final UserService userService;
+    private final WalletSummaryService walletSummaryService;
     private final TransferMapper transferMapper;
+    private final SingleFlight singleFlight;
 
     @Override
     @Transactional
     public TransferResponse createTransfer(TransferRequest request) {
-        User user = userService.getCurrentUserEntity();
+        return createTransfer(userService.getCurrentUserEntity(), request);
+    }
 
+    // Перевод от имени заданного пользователя: используется и HTTP-запросом, и воркером асинхронной очереди
+    @Override
+    @Transactional
+    public TransferResponse createTransfer(User user, TransferRequest request) {
         // Проверка на перевод на ту же карту
         if (request.getFromCardId().equals(request.getToCardId())) {
             throw new SameCardTransferException();
         }
 
+        // Обе карты блокируются до первого чтения: проверки и списание видят согласованное состояние на всех узлах
+        cardLockService.lock(request.getFromCardId(), request.getToCardId());
+
         // Проверка принадлежности карт пользователю
         if (!cardService.isCardBelongsToUser(request.getFromCardId(), user)) {
             throw new AccessDeniedException();
@@ -62,12 +103,16 @@ public class TransferServiceImpl implements TransferService {
             throw new InsufficientFundsException();
         }
 
+        Card toCard = cardService.findCardEntityById(request.getToCardId());
+
+        // Сводки обоих владельцев блокируются заранее по возрастанию id, а не в порядке списание -> зачисление:
+        // встречные переводы A -> B и B -> A иначе взаимно блокируются на строках user_wallet_summary
+        walletSummaryService.lockSummaries(fromCard.getUser().getId(), toCard.getUser().getId());
+
         // Выполняем перевод
         cardService.updateBalance(request.getFromCardId(), request.getAmount(), false); // Списание
         cardService.updateBalance(request.getToCardId(), request.getAmount(), true); // Зачисление
 
-        Card toCard = cardService.findCardEntityById(request.getToCardId());
-
         // Создаем запись о переводе
         Transfer transfer = Transfer.builder()
                 .fromCard(fromCard)
@@ -78,20 +123,28 @@ public class TransferServiceImpl implements TransferService {
                 .build();
 
         Transfer savedTransfer = transferRepository.save(transfer);
-        return transferMapper.toDto(savedTransfer);
+        TransferResponse response = transferMapper.toDto(savedTransfer);
+
+        // Ключ упорядочивания - карта списания; событие фиксируется вместе с переводом
+        outboxService.append(OutboxEventType.TRANSFER_COMPLETED, fromCard.getId(), response);
+        return response;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<TransferResponse> getUserTransfers(Pageable pageable) {
+    public Page<TransferResponse> getUserTransfers(Pageable requested) {
+        Pageable pageable = historyPage(requested);
         User user = userService.getCurrentUserEntity();
-        return transferRepository.findByUserId(user.getId(), pageable)
-                .map(transferMapper::toDto);
+        return withArchive(pageable,
+                transferRepository.findByUserId(user.getId(), pageable),
+                transferArchiveRepository.countByUserId(user.getId()),
+                archivePage -> transferArchiveRepository.findByUserId(user.getId(), archivePage));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<TransferResponse> getCardTransfers(Long cardId, Pageable pageable) {
+    public Page<TransferResponse> getCardTransfers(Long cardId, Pageable requested) {
+        Pageable pageable = historyPage(requested);
         User user = userService.getCurrentUserEntity();
 
         // Проверяем доступ к карте
@@ -100,8 +153,63 @@ public class TransferServiceImpl implements TransferService {
             throw new AccessDeniedException();
         }
 
-        return transferRepository.findByUserIdAndCardId(user.getId(), cardId, pageable)
-                .map(transferMapper::toDto);
+        return withArchive(pageable,
+                transferRepository.findByUserIdAndCardId(user.getId(), cardId, pageable),
+                transferArchiveRepository.countByUserIdAndCardId(user.getId(), cardId),
+                archivePage -> transferArchiveRepository.findByUserIdAndCardId(user.getId(), cardId, archivePage));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransferFeedResponse getCardTransferFeed(Long cardId, String cursor, int size) {
+        User user = userService.getCurrentUserEntity();
+
+        // Проверяем доступ к карте
+        if (!cardService.isCardBelongsToUser(cardId, user) &&
+                !user.getRole().equals(User.Role.ADMIN)) {
+            throw new AccessDeniedException();
+        }
+
+        int limit = Math.max(1, Math.min(size, MAX_FEED_SIZE));
+        TransferCursor position = TransferCursor.decode(cursor);
+
+        // Берем на одну строку больше, чтобы понять, есть ли следующая страница
+        List<Long> ids = transferRepository.findCardFeedIds(
+                user.getId(), cardId, position.createdAt(), position.id(), limit + 1);
+
+        boolean hasNext = ids.size() > limit;
+        List<TransferResponse> page = ids.isEmpty()
+                ? List.of()
+                : transferRepository.findResponsesByIdIn(hasNext ? ids.subList(0, limit) : ids);
+
+        // Живая таблица исчерпана - лента продолжается из архива с той же позиции
+        if (!hasNext) {
+            TransferCursor archiveFrom = page.isEmpty()
+                    ? position
+                    : new TransferCursor(page.get(page.size() - 1).getCreatedAt(), page.get(page.size() - 1).getId());
+            List<TransferResponse> archived = transferArchiveRepository.findCardFeed(
+                    user.getId(), cardId, archiveFrom.createdAt(), archiveFrom.id(),
+                    PageRequest.of(0, limit + 1 - page.size()));
+
+            if (!archived.isEmpty()) {
+                List<TransferResponse> merged = new ArrayList<>(page);
+                merged.addAll(archived);
+                hasNext = merged.size() > limit;
+                page = hasNext ? merged.subList(0, limit) : merged;
+            }
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            TransferResponse last = page.get(page.size() - 1);
+            nextCursor = new TransferCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return TransferFeedResponse.builder()
+                .content(page)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
     }
 
     @Override
@@ -109,15 +217,71 @@ public class TransferServiceImpl implements TransferService {
     public TransferResponse getTransferById(Long transferId) {
         User user = userService.getCurrentUserEntity();
 
-        Transfer transfer = transferRepository.findById(transferId)
-                .orElseThrow(TransferNotFoundException::new);
+        TransferResponse transfer = singleFlight.execute("transfer", transferId, () ->
+                transferRepository.findById(transferId)
+                        .map(transferMapper::toDto)
+                        .or(() -> transferArchiveRepository.findResponseById(transferId))
+                        .orElseThrow(TransferNotFoundException::new));
 
         // Проверяем доступ
-        if (!transfer.getUser().getId().equals(user.getId()) &&
+        if (!transfer.getUserId().equals(user.getId()) &&
                 !user.getRole().equals(User.Role.ADMIN)) {
             throw new AccessDeniedException();
         }
 
-        return transferMapper.toDto(transfer);
+        return transfer;
+    }
+
+    // Версия для If-None-Match без загрузки перевода; без доступа запрос идет в getTransferById.
+    // Перевод неизменяем: createdAt из этого запроса всегда совпадает с телом, которое вернет getTransferById
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ResourceVersion> getTransferVersion(Long transferId) {
+        UserIdentity user = userService.getCurrentUserIdentity();
+        return transferRepository.findVersionById(transferId)
+                .or(() -> transferArchiveRepository.findVersionById(transferId))
+                .filter(version -> version.ownerId().equals(user.id()) || user.isAdmin())
+                .map(version -> ResourceVersion.of("transfer", version));
+    }
+
+    // Без сортировки и при createdAt DESC порядок дополняется id DESC, и архив продолжает живую выборку по дате.
+    // Другая сортировка применяется к обеим таблицам: архивные переводы идут после живых в том же порядке,
+    // пока архив пуст - это ровно сортировка живой таблицы
+    private Pageable historyPage(Pageable pageable) {
+        Sort requested = pageable.getSort();
+        Sort sort = HISTORY_SORT;
+        if (requested.isSorted() && !requested.equals(HISTORY_SORT) &&
+                !requested.equals(Sort.by(Sort.Direction.DESC, "createdAt"))) {
+            if (requested.stream().anyMatch(order -> !SORTABLE_PROPERTIES.contains(order.getProperty()))) {
+                throw new UnsupportedTransferSortException();
+            }
+            // id делает порядок однозначным, иначе строки с равным ключом переезжают между страницами
+            sort = requested.getOrderFor("id") == null
+                    ? requested.and(Sort.by(Sort.Direction.DESC, "id"))
+                    : requested;
+        }
+        return pageable.isUnpaged()
+                ? Pageable.unpaged(sort)
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    // Архив содержит более старые переводы, поэтому он продолжает живую выборку:
+    // страница дочитывается из архива только когда живые строки на ней закончились
+    private Page<TransferResponse> withArchive(Pageable pageable,
+                                               Page<TransferResponse> live,
+                                               long archiveTotal,
+                                               Function<Pageable, List<TransferResponse>> archiveQuery) {
+        long total = live.getTotalElements() + archiveTotal;
+        if (archiveTotal == 0 || pageable.isUnpaged() ||
+                live.getNumberOfElements() >= pageable.getPageSize()) {
+            return new PageImpl<>(live.getContent(), pageable, total);
+        }
+
+        long archiveOffset = Math.max(0, pageable.getOffset() - live.getTotalElements());
+        int remaining = pageable.getPageSize() - live.getNumberOfElements();
+        List<TransferResponse> content = new ArrayList<>(live.getContent());
+        content.addAll(archiveQuery.apply(new OffsetPageRequest(archiveOffset, remaining, pageable.getSort())));
+
+        return new PageImpl<>(content, pageable, total);
     }
 }
\ No newline at end of file
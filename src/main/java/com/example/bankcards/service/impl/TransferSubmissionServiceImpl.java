@@ -0,0 +1,368 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.dto.response.TransferSubmissionResponse;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.CustomException;
+import com.example.bankcards.exception.custom.AccessDeniedException;
+import com.example.bankcards.exception.custom.card.CardLockTimeoutException;
+import com.example.bankcards.exception.custom.card.SameCardTransferException;
+import com.example.bankcards.exception.custom.transfer.TransferQueueFullException;
+import com.example.bankcards.exception.custom.transfer.TransferSubmissionNotFoundException;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.TransferService;
+import com.example.bankcards.service.TransferSubmissionService;
+import com.example.bankcards.service.UserService;
+import com.example.bankcards.util.TransferSubmissionStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+@Slf4j
+@Service
+public class TransferSubmissionServiceImpl implements TransferSubmissionService {
+
+    // Проверка емкости и вставка одной инструкцией; подсчет ограничен LIMIT и идет по частичному индексу очереди.
+    // Параллельные вставки могут превысить емкость на число одновременных запросов - граница мягкая
+    private static final String ENQUEUE_SQL =
+            "INSERT INTO transfer_submissions (user_id, from_card_id, to_card_id, amount, description, status) " +
+            "SELECT ?, ?, ?, ?, ?, 'PENDING' " +
+            "WHERE (SELECT COUNT(*) FROM (" +
+            "  SELECT 1 FROM transfer_submissions WHERE status IN ('PENDING', 'PROCESSING') LIMIT ?" +
+            ") queued) < ? " +
+            "RETURNING id, created_at";
+
+    // Захват пачки: заявки других воркеров пропускаются, зависшие в PROCESSING дольше processing-timeout
+    // (узел упал между захватом и фиксацией) забираются повторно
+    private static final String CLAIM_BATCH_SQL =
+            "UPDATE transfer_submissions s SET status = 'PROCESSING', attempts = s.attempts + 1, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "FROM (" +
+            "  SELECT id FROM transfer_submissions " +
+            "  WHERE status = 'PENDING' OR (status = 'PROCESSING' AND updated_at < ?) " +
+            "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") batch WHERE s.id = batch.id " +
+            "RETURNING s.id, s.user_id, s.from_card_id, s.to_card_id, s.amount, s.description, s.attempts, s.created_at";
+
+    // Ограждение захвата: заявка проводится, только если она все еще в PROCESSING с тем же числом попыток,
+    // что вернул захват. Повторный захват другим узлом увеличивает attempts, и старый владелец ее пропускает.
+    // Блокировка строки держится до конца транзакции перевода - SKIP LOCKED в захвате ее не заберет
+    private static final String FENCE_SQL =
+            "SELECT id FROM transfer_submissions WHERE id = ? AND status = 'PROCESSING' AND attempts = ? FOR UPDATE";
+
+    // Все переходы из PROCESSING ограждены тем же условием: устаревший владелец не перезапишет чужой результат
+    private static final String COMPLETE_SQL =
+            "UPDATE transfer_submissions SET status = 'COMPLETED', transfer_id = ?, error_message = NULL, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND status = 'PROCESSING' AND attempts = ?";
+
+    private static final String FAIL_SQL =
+            "UPDATE transfer_submissions SET status = 'FAILED', error_message = ?, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND status = 'PROCESSING' AND attempts = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE transfer_submissions SET status = 'PENDING', error_message = ?, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND status = 'PROCESSING' AND attempts = ?";
+
+    // Заявка, до которой пачка не дошла за отведенное время, возвращается в очередь без расхода попытки
+    private static final String RELEASE_SQL =
+            "UPDATE transfer_submissions SET status = 'PENDING', attempts = attempts - 1, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND status = 'PROCESSING' AND attempts = ?";
+
+    private static final String FIND_SQL =
+            "SELECT id, user_id, status, from_card_id, to_card_id, amount, transfer_id, error_message, " +
+            "created_at, updated_at FROM transfer_submissions WHERE id = ?";
+
+    private static final String PURGE_FINISHED_SQL =
+            "DELETE FROM transfer_submissions WHERE id IN (" +
+            "  SELECT id FROM transfer_submissions " +
+            "  WHERE status IN ('COMPLETED', 'FAILED') AND updated_at < ? LIMIT ?" +
+            ")";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferService transferService;
+    private final UserService userService;
+    private final CardService cardService;
+    private final MeterRegistry meterRegistry;
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Timer queueTimer;
+
+    @Value("${app.transfers.async.worker-enabled:true}")
+    private boolean workerEnabled;
+
+    @Value("${app.transfers.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // Пачка должна успевать с запасом до processing-timeout: каждая блокировка карты может ждать до lock-timeout
+    @Value("${app.transfers.async.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.transfers.async.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.transfers.async.processing-timeout:5m}")
+    private Duration processingTimeout;
+
+    @Value("${app.transfers.async.retry-after:1s}")
+    private Duration retryAfter;
+
+    @Value("${app.transfers.async.retention:7d}")
+    private Duration retention;
+
+    @Value("${app.transfers.async.purge-chunk-size:1000}")
+    private int purgeChunkSize;
+
+    public TransferSubmissionServiceImpl(JdbcTemplate jdbcTemplate,
+                                         PlatformTransactionManager transactionManager,
+                                         TransferService transferService,
+                                         UserService userService,
+                                         CardService cardService,
+                                         MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transferService = transferService;
+        this.userService = userService;
+        this.cardService = cardService;
+        this.meterRegistry = meterRegistry;
+        this.acceptedCounter = Counter.builder("transfers.async.submitted")
+                .description("Transfer submissions accepted into the queue")
+                .tag("outcome", "accepted")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("transfers.async.submitted")
+                .description("Transfer submissions rejected because the queue is full")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.queueTimer = Timer.builder("transfers.async.latency")
+                .description("Time from submission to completed transfer")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public TransferSubmissionResponse submitTransfer(TransferRequest request) {
+        User user = userService.getCurrentUserEntity();
+
+        // Только дешевые проверки; активность карт и баланс проверяет воркер при проведении перевода
+        if (request.getFromCardId().equals(request.getToCardId())) {
+            throw new SameCardTransferException();
+        }
+        if (!cardService.isCardBelongsToUser(request.getFromCardId(), user)) {
+            throw new AccessDeniedException();
+        }
+
+        List<TransferSubmissionResponse> inserted = jdbcTemplate.query(ENQUEUE_SQL,
+                (rs, rowNum) -> TransferSubmissionResponse.builder()
+                        .id(rs.getLong("id"))
+                        .status(TransferSubmissionStatus.PENDING)
+                        .fromCardId(request.getFromCardId())
+                        .toCardId(request.getToCardId())
+                        .amount(request.getAmount())
+                        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                        .updatedAt(rs.getTimestamp("created_at").toLocalDateTime())
+                        .build(),
+                user.getId(), request.getFromCardId(), request.getToCardId(), request.getAmount(),
+                request.getDescription(), queueCapacity, queueCapacity);
+
+        if (inserted.isEmpty()) {
+            rejectedCounter.increment();
+            throw new TransferQueueFullException(retryAfter);
+        }
+        acceptedCounter.increment();
+        return inserted.get(0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransferSubmissionResponse getSubmission(Long submissionId) {
+        User user = userService.getCurrentUserEntity();
+
+        List<StoredSubmission> rows = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new StoredSubmission(rs.getLong("user_id"), TransferSubmissionResponse.builder()
+                        .id(rs.getLong("id"))
+                        .status(TransferSubmissionStatus.valueOf(rs.getString("status")))
+                        .fromCardId(rs.getLong("from_card_id"))
+                        .toCardId(rs.getLong("to_card_id"))
+                        .amount(rs.getBigDecimal("amount"))
+                        .transferId(rs.getObject("transfer_id", Long.class))
+                        .errorMessage(rs.getString("error_message"))
+                        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                        .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                        .build()),
+                submissionId);
+
+        StoredSubmission stored = rows.stream()
+                .findFirst()
+                .orElseThrow(TransferSubmissionNotFoundException::new);
+
+        // Проверяем доступ
+        if (!stored.userId().equals(user.getId()) && !user.getRole().equals(User.Role.ADMIN)) {
+            throw new AccessDeniedException();
+        }
+        return stored.response();
+    }
+
+    @Scheduled(fixedDelayString = "${app.transfers.async.poll-interval-ms:200}")
+    public void scheduledDrain() {
+        if (workerEnabled) {
+            processPending();
+        }
+    }
+
+    @Scheduled(cron = "${app.transfers.async.purge-cron:0 15 * * * *}")
+    public void scheduledPurge() {
+        if (workerEnabled) {
+            purgeFinished();
+        }
+    }
+
+    // Очередь разбирается пачками, пока пачки полные; каждая заявка проводится в своей транзакции
+    // вместе с отметкой COMPLETED, поэтому перевод и статус фиксируются атомарно
+    @Override
+    public int processPending() {
+        int total = 0;
+        List<Submission> batch;
+        do {
+            batch = claimBatch();
+            // Захват считается устаревшим через processing-timeout; остаток пачки отпускается заранее,
+            // чтобы другой узел не забрал заявки, которые этот еще собирается провести
+            long deadline = System.nanoTime() + processingTimeout.toNanos() / 2;
+            for (Submission submission : batch) {
+                if (System.nanoTime() < deadline) {
+                    process(submission);
+                } else {
+                    jdbcTemplate.update(RELEASE_SQL, submission.id(), submission.attempts());
+                }
+            }
+            total += batch.size();
+        } while (batch.size() == batchSize);
+        return total;
+    }
+
+    @Override
+    public long purgeFinished() {
+        Timestamp threshold = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_FINISHED_SQL, threshold, purgeChunkSize);
+            total += deleted;
+        } while (deleted == purgeChunkSize);
+
+        if (total > 0) {
+            log.info("Purged {} finished transfer submissions older than {}", total, retention);
+        }
+        return total;
+    }
+
+    private List<Submission> claimBatch() {
+        Timestamp staleBefore = Timestamp.valueOf(LocalDateTime.now().minus(processingTimeout));
+        List<Submission> claimed = transactionTemplate.execute(status ->
+                jdbcTemplate.query(CLAIM_BATCH_SQL, SUBMISSION_MAPPER, staleBefore, batchSize));
+        // RETURNING не гарантирует порядок - переводы одного клиента проводятся в порядке подачи
+        return claimed.stream()
+                .sorted(Comparator.comparing(Submission::id))
+                .toList();
+    }
+
+    private void process(Submission submission) {
+        try {
+            Long transferId = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.queryForList(FENCE_SQL, Long.class, submission.id(), submission.attempts()).isEmpty()) {
+                    return null;
+                }
+                User user = userService.getUserEntityById(submission.userId());
+                TransferResponse transfer = transferService.createTransfer(user, submission.toRequest());
+                if (jdbcTemplate.update(COMPLETE_SQL, transfer.getId(), submission.id(), submission.attempts()) == 0) {
+                    throw new IllegalStateException("Transfer submission " + submission.id() + " lost its claim");
+                }
+                return transfer.getId();
+            });
+            if (transferId == null) {
+                // Заявку уже забрал другой воркер после истечения processing-timeout - перевод не повторяется
+                meterRegistry.counter("transfers.async.superseded").increment();
+                log.warn("Transfer submission {} attempt {} was reclaimed elsewhere, skipping",
+                        submission.id(), submission.attempts());
+                return;
+            }
+            queueTimer.record(Duration.between(submission.createdAt(), LocalDateTime.now()));
+            countProcessed(TransferSubmissionStatus.COMPLETED);
+            log.debug("Transfer submission {} completed as transfer {}", submission.id(), transferId);
+        } catch (CardLockTimeoutException e) {
+            // Карта занята другой операцией - это не отказ, заявка повторится
+            retryOrFail(submission, e);
+        } catch (CustomException e) {
+            // Бизнес-отказ (нет средств, карта заблокирована и т.п.) окончательный
+            jdbcTemplate.update(FAIL_SQL, truncate(e.getMessage()), submission.id(), submission.attempts());
+            countProcessed(TransferSubmissionStatus.FAILED);
+        } catch (RuntimeException e) {
+            // Инфраструктурная ошибка - заявка возвращается в очередь, пока не исчерпаны попытки
+            retryOrFail(submission, e);
+        }
+    }
+
+    private void retryOrFail(Submission submission, RuntimeException e) {
+        boolean exhausted = submission.attempts() >= maxAttempts;
+        jdbcTemplate.update(exhausted ? FAIL_SQL : RETRY_SQL, truncate(e.getMessage()), submission.id(),
+                submission.attempts());
+        countProcessed(exhausted ? TransferSubmissionStatus.FAILED : TransferSubmissionStatus.PENDING);
+        log.warn("Transfer submission {} attempt {} failed: {}", submission.id(), submission.attempts(), e.getMessage());
+    }
+
+    private void countProcessed(TransferSubmissionStatus status) {
+        meterRegistry.counter("transfers.async.processed", "status", status.getDescription()).increment();
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static final RowMapper<Submission> SUBMISSION_MAPPER = (rs, rowNum) -> new Submission(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            rs.getLong("from_card_id"),
+            rs.getLong("to_card_id"),
+            rs.getBigDecimal("amount"),
+            rs.getString("description"),
+            rs.getInt("attempts"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private record StoredSubmission(Long userId, TransferSubmissionResponse response) {
+    }
+
+    private record Submission(Long id, Long userId, Long fromCardId, Long toCardId,
+                              BigDecimal amount, String description, int attempts, LocalDateTime createdAt) {
+
+        TransferRequest toRequest() {
+            return TransferRequest.builder()
+                    .fromCardId(fromCardId)
+                    .toCardId(toCardId)
+                    .amount(amount)
+                    .description(description)
+                    .build();
+        }
+    }
+}
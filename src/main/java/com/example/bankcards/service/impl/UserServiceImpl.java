@@ -2,13 +2,24 @@ package com.example.bankcards.service.impl;
 
 import com.example.bankcards.dto.request.UserRequest;
 import com.example.bankcards.dto.response.UserResponse;
+import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.event.CardStatusChange;
 import com.example.bankcards.exception.custom.user.UserAlreadyExistsException;
 import com.example.bankcards.exception.custom.user.UserNotFoundException;
 import com.example.bankcards.mapper.UserMapper;
+import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.CardViewService;
+import com.example.bankcards.service.OutboxService;
 import com.example.bankcards.service.UserService;
 import com.example.bankcards.util.CurrentUserProvider;
+import com.example.bankcards.util.OutboxEventType;
+import com.example.bankcards.util.ResourceVersion;
+import com.example.bankcards.util.SingleFlight;
+import com.example.bankcards.util.UserIdentity;
+import com.example.bankcards.util.UserProfile;
+import com.example.bankcards.util.VersionedResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,6 +27,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Service
@@ -23,9 +35,13 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final CardRepository cardRepository;
+    private final CardViewService cardViewService;
+    private final OutboxService outboxService;
     private final PasswordEncoder passwordEncoder;
 
     private final UserMapper userMapper;
+    private final SingleFlight singleFlight;
 
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
@@ -34,16 +50,13 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public User getUserEntityById(Long id) {
-        return userRepository.findById(id)
-                .orElseThrow(UserNotFoundException::new);
+        return findLiveUser(id);
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserResponse getUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(UserNotFoundException::new);
-        return userMapper.toDto(user);
+        return singleFlight.execute("user", id, () -> userMapper.toDto(findLiveUser(id)));
     }
 
     @Override
@@ -75,8 +88,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserResponse updateUser(Long id, UserRequest request) {
-        User user = userRepository.findById(id)
-                .orElseThrow(UserNotFoundException::new);
+        User user = findLiveUser(id);
 
         if (!user.getEmail().equals(request.getEmail()) &&
                 userRepository.existsByEmail(request.getEmail())) {
@@ -98,10 +110,19 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException();
+        User user = findLiveUser(id);
+
+        // Только надгробия: карты и переводы снимает TombstonePurgeService короткими транзакциями
+        LocalDateTime deletedAt = LocalDateTime.now();
+        user.setDeletedAt(deletedAt);
+        // Внешние системы узнают о снятии каждой живой карты пользователя, как при удалении одной карты
+        for (Card card : cardRepository.findByUserId(id)) {
+            outboxService.append(OutboxEventType.CARD_STATUS_CHANGED, card.getId(), new CardStatusChange(
+                    card.getId(), id, card.getStatus(), card.getStatus(),
+                    Boolean.TRUE.equals(card.getRequestedBlock()), true));
         }
-        userRepository.deleteById(id);
+        cardRepository.tombstoneByUserId(id, deletedAt);
+        cardViewService.markUserCardsStale(id);
     }
 
     @Override
@@ -118,6 +139,13 @@ public class UserServiceImpl implements UserService {
         return getUserByEmail(email);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public UserIdentity getCurrentUserIdentity() {
+        return userRepository.findIdentityByEmail(CurrentUserProvider.getCurrentEmail())
+                .orElseThrow(UserNotFoundException::new);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public UserResponse getCurrentUser() {
@@ -125,4 +153,20 @@ public class UserServiceImpl implements UserService {
         User user = getUserByEmail(email);
         return userMapper.toDto(user);
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedResponse<UserResponse> getVersionedCurrentUser() {
+        // Проекция читает строку из базы, а не из natural-id кэша: тело и updated_at - из одной строки
+        UserProfile profile = userRepository.findProfileByEmail(CurrentUserProvider.getCurrentEmail())
+                .orElseThrow(UserNotFoundException::new);
+        return new VersionedResponse<>(userMapper.toDto(profile), ResourceVersion.of("user", profile.version()));
+    }
+
+    // findById может вернуть надгробие из L2-кэша
+    private User findLiveUser(Long id) {
+        return userRepository.findById(id)
+                .filter(user -> !user.isDeleted())
+                .orElseThrow(UserNotFoundException::new);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.response.WalletSummaryResponse;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserWalletSummary;
+import com.example.bankcards.repository.UserWalletSummaryRepository;
+import com.example.bankcards.service.UserService;
+import com.example.bankcards.service.WalletSummaryService;
+import com.example.bankcards.util.CardStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+public class WalletSummaryServiceImpl implements WalletSummaryService {
+
+    private final UserWalletSummaryRepository summaryRepository;
+    private final UserService userService;
+
+    @Override
+    @Transactional(readOnly = true)
+    public WalletSummaryResponse getCurrentUserSummary() {
+        User user = userService.getCurrentUserEntity();
+
+        // Чтение по первичному ключу, в штатном режиме обслуживается из региона wallet-summary
+        UserWalletSummary summary = summaryRepository.findById(user.getId())
+                .orElseGet(() -> emptySummary(user.getId()));
+
+        Map<CardStatus, Integer> cardsByStatus = new EnumMap<>(CardStatus.class);
+        cardsByStatus.put(CardStatus.ACTIVE, summary.getActiveCards());
+        cardsByStatus.put(CardStatus.BLOCKED, summary.getBlockedCards());
+        cardsByStatus.put(CardStatus.EXPIRED, summary.getExpiredCards());
+
+        return WalletSummaryResponse.builder()
+                .userId(summary.getUserId())
+                .totalBalance(summary.getTotalBalance())
+                .totalCards(summary.getActiveCards() + summary.getBlockedCards() + summary.getExpiredCards())
+                .cardsByStatus(cardsByStatus)
+                .pendingBlockRequests(summary.getPendingBlockRequests())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public void recordCardChange(Long userId, CardState before, CardState after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+
+        // Строка блокируется до конца транзакции изменения карты, параллельные переводы не теряют инкременты
+        UserWalletSummary summary = summaryRepository.findForUpdate(userId)
+                .orElseGet(() -> summaryRepository.save(emptySummary(userId)));
+
+        if (before != null) {
+            apply(summary, before, -1);
+        }
+        if (after != null) {
+            apply(summary, after, 1);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockSummaries(Long... userIds) {
+        // Единый порядок захвата для всех транзакций: по возрастанию user_id, каждая строка один раз.
+        // Последующий recordCardChange берет уже удерживаемую блокировку и не ждет
+        Arrays.stream(userIds)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .forEach(userId -> summaryRepository.findForUpdate(userId)
+                        .orElseGet(() -> summaryRepository.save(emptySummary(userId))));
+    }
+
+    private void apply(UserWalletSummary summary, CardState state, int sign) {
+        summary.setTotalBalance(summary.getTotalBalance().add(
+                sign > 0 ? state.balance() : state.balance().negate()));
+
+        switch (state.status()) {
+            case ACTIVE -> summary.setActiveCards(summary.getActiveCards() + sign);
+            case BLOCKED -> summary.setBlockedCards(summary.getBlockedCards() + sign);
+            case EXPIRED -> summary.setExpiredCards(summary.getExpiredCards() + sign);
+        }
+
+        if (state.pendingBlock()) {
+            summary.setPendingBlockRequests(summary.getPendingBlockRequests() + sign);
+        }
+    }
+
+    private UserWalletSummary emptySummary(Long userId) {
+        return UserWalletSummary.builder()
+                .userId(userId)
+                .totalBalance(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -1,7 +1,7 @@
 package com.example.bankcards.util;
 
 import org.jasypt.encryption.StringEncryptor;
-import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.jasypt.encryption.pbe.PooledPBEStringEncryptor;
 import org.jasypt.iv.RandomIvGenerator;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -13,12 +13,20 @@ public class CardNumberEncryptor {
     @Value("${encryption.secret}")
     private String secret;
 
+    // StandardPBEStringEncryptor сериализует все вызовы на synchronized; на виртуальных потоках ожидание монитора
+    // занимает carrier-поток. Пул шифраторов по числу ядер снимает конкуренцию за один монитор
+    @Value("${encryption.pool-size:0}")
+    private int poolSize;
+
     @Bean(name = "cardEncryptor")
     public StringEncryptor stringEncryptor() {
-        StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+        PooledPBEStringEncryptor encryptor = new PooledPBEStringEncryptor();
+        encryptor.setPoolSize(poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors());
         encryptor.setPassword(secret);
         encryptor.setIvGenerator(new RandomIvGenerator());
         encryptor.setAlgorithm("PBEWithHMACSHA512AndAES_256");
+        // Вывод ключа - при старте, а не под монитором на первом запросе
+        encryptor.initialize();
         return encryptor;
     }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.bankcards.util;
+
+// Экранирование поля по RFC 4180: кавычки только когда значение содержит разделитель, кавычку или перевод строки
+public final class CsvUtils {
+
+    private CsvUtils() {
+    }
+
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 &&
+                value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
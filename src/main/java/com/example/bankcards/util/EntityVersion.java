@@ -0,0 +1,7 @@
+package com.example.bankcards.util;
+
+import java.time.LocalDateTime;
+
+// Версия строки без загрузки сущности: владелец для проверки доступа и момент последнего изменения
+public record EntityVersion(Long id, Long ownerId, LocalDateTime updatedAt) {
+}
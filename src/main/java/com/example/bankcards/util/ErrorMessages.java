@@ -13,4 +13,10 @@ public class ErrorMessages {
     public static final String SENDER_CARD_NOT_ACTIVE = "The sender's card is not active";
     public static final String RECIPIENT_CARD_NOT_ACTIVE = "Recipient's card is not active";
     public static final String TRANSFER_NOT_FOUND = "Transfer not found";
+    public static final String INVALID_CURSOR = "Invalid pagination cursor";
+    public static final String UNSUPPORTED_TRANSFER_SORT = "Transfer history can only be sorted by id, createdAt, amount or description";
+    public static final String TRANSFER_SUBMISSION_NOT_FOUND = "Transfer submission not found";
+    public static final String TRANSFER_QUEUE_FULL = "Transfer queue is full, retry later";
+    public static final String CARD_LOCK_TIMEOUT = "The card is being changed by another operation, retry later";
+    public static final String STATEMENT_RUN_IN_PROGRESS = "Statement generation is already running, retry later";
 }
\ No newline at end of file
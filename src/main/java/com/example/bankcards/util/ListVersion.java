@@ -0,0 +1,7 @@
+package com.example.bankcards.util;
+
+import java.time.LocalDateTime;
+
+// Версия выборки: удаление меняет число строк, вставка и изменение - последнее время изменения
+public record ListVersion(Long count, LocalDateTime lastModified) {
+}
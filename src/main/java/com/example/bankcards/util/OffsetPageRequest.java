@@ -0,0 +1,69 @@
+package com.example.bankcards.util;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+// Pageable с произвольным смещением, не кратным размеру страницы - для дочитывания архива после живой таблицы
+public class OffsetPageRequest implements Pageable {
+
+    private final long offset;
+    private final int limit;
+    private final Sort sort;
+
+    public OffsetPageRequest(long offset, int limit, Sort sort) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        this.offset = offset;
+        this.limit = limit;
+        this.sort = sort != null ? sort : Sort.unsorted();
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / limit);
+    }
+
+    @Override
+    public int getPageSize() {
+        return limit;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return sort;
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + limit, limit, sort);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(0, offset - limit), limit, sort) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, limit, sort);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * limit, limit, sort);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.bankcards.util;
+
+public enum OutboxEventType {
+    TRANSFER_COMPLETED,
+    CARD_STATUS_CHANGED
+}
@@ -0,0 +1,47 @@
+package com.example.bankcards.util;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+// Версия ответа для условного GET: сильный ETag и, для отдельных ресурсов, Last-Modified
+public record ResourceVersion(String eTag, LocalDateTime lastModified) {
+
+    // Ответы персональные: прокси их не хранят, клиент хранит и перепроверяет по ETag
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    // ETag - хэш вида ресурса, id и updatedAt: одинаков на всех узлах и не раскрывает внутренние значения
+    public static ResourceVersion of(String resource, EntityVersion version) {
+        return new ResourceVersion(hash(resource, version.id(), version.updatedAt()), version.updatedAt());
+    }
+
+    // ETag страницы: параметры выборки плюс число строк и последнее изменение среди них
+    public static ResourceVersion ofPage(String resource, Object scope, Pageable pageable, ListVersion version) {
+        return new ResourceVersion(hash(resource, scope, pageable, version.count(), version.lastModified()), null);
+    }
+
+    // true - у клиента эта версия, ответ 304 уже выставлен; иначе к ответу добавлены ETag и Last-Modified
+    public boolean checkNotModified(WebRequest request) {
+        // Заголовок по умолчанию от Spring Security (no-store) запретил бы клиенту хранить ответ для перепроверки
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        if (lastModified == null) {
+            return request.checkNotModified(eTag);
+        }
+        return request.checkNotModified(eTag, lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static String hash(Object... parts) {
+        String source = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining(":"));
+        return '"' + DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.config.ReadConsistencyContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class SingleFlight {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    // Одновременные одинаковые чтения ждут один запрос к БД; результат общий,
+    // поэтому loader не должен зависеть от вызывающего - проверки доступа делаются после
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, Object id, Supplier<T> loader) {
+        // Внутри пишущей транзакции чтение должно видеть её же незакоммиченные изменения
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+
+        // Запросы, требующие чтения с primary, не присоединяются к чтению с реплики
+        Key key = new Key(name, id, ReadConsistencyContext.isPrimaryRequired());
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            counter(name, "coalesced").increment();
+            return (T) await(existing);
+        }
+
+        counter(name, "executed").increment();
+        try {
+            T value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // Ожидающие получают то же исключение, что и ведущий запрос (например, NotFound)
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private Counter counter(String name, String outcome) {
+        return counters.computeIfAbsent(name + ':' + outcome, k -> Counter.builder("singleflight.requests")
+                .description("Lookups executed against the database vs. joined to an in-flight one")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private record Key(String name, Object id, boolean primaryRequired) {
+    }
+}
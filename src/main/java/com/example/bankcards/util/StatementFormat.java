@@ -0,0 +1,16 @@
+package com.example.bankcards.util;
+
+public enum StatementFormat {
+    CSV("csv"),
+    BINARY("stmt");
+
+    private final String extension;
+
+    StatementFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.custom.transfer.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Позиция в ленте переводов: (created_at, id) последней отданной строки, для клиента - непрозрачная base64-строка
+public record TransferCursor(LocalDateTime createdAt, Long id) {
+
+    // Верхняя граница для первой страницы (timestamp в Postgres не принимает LocalDateTime.MAX)
+    public static final TransferCursor START = new TransferCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransferCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            if (idx < 0) {
+                throw new InvalidCursorException();
+            }
+            return new TransferCursor(
+                    LocalDateTime.parse(raw.substring(0, idx)),
+                    Long.parseLong(raw.substring(idx + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
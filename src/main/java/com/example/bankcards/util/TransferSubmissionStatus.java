@@ -0,0 +1,18 @@
+package com.example.bankcards.util;
+
+public enum TransferSubmissionStatus {
+    PENDING("pending"),
+    PROCESSING("processing"),
+    COMPLETED("completed"),
+    FAILED("failed");
+
+    private final String description;
+
+    TransferSubmissionStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.entity.User;
+
+// Id и роль текущего пользователя для проверок доступа: без загрузки сущности и мимо L2
+public record UserIdentity(Long id, User.Role role) {
+
+    public boolean isAdmin() {
+        return role == User.Role.ADMIN;
+    }
+}
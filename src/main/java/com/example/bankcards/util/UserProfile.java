@@ -0,0 +1,19 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.entity.User;
+
+import java.time.LocalDateTime;
+
+// Профиль для /users/me одной строкой запроса: поля ответа и updated_at для ETag, без загрузки сущности
+public record UserProfile(Long id,
+                          String email,
+                          String firstName,
+                          String lastName,
+                          User.Role role,
+                          LocalDateTime createdAt,
+                          LocalDateTime updatedAt) {
+
+    public EntityVersion version() {
+        return new EntityVersion(id, id, updatedAt);
+    }
+}
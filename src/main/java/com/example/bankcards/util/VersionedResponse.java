@@ -0,0 +1,5 @@
+package com.example.bankcards.util;
+
+// Тело ответа и его версия из одного чтения: ETag всегда описывает именно то тело, которое получит клиент
+public record VersionedResponse<T>(T body, ResourceVersion version) {
+}
@@ -0,0 +1,95 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofMillis(50).toNanos();
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        AdaptiveLimitProperties.Limiter settings = new AdaptiveLimitProperties.Limiter();
+        settings.setInitialLimit(20);
+        settings.setMinLimit(4);
+        settings.setMaxLimit(100);
+        settings.setLongWindow(100);
+
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter("transfers", settings, meterRegistry);
+    }
+
+    @Test
+    void tryAcquire_ShouldRejectRequestsAboveLimit() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire()).isPositive();
+        }
+
+        // Act
+        int rejected = limiter.tryAcquire();
+
+        // Assert
+        assertThat(rejected).isNegative();
+        assertThat(limiter.getInflight()).isEqualTo(20);
+        assertThat(meterRegistry.counter("concurrency.rejected", "limiter", "transfers").count()).isEqualTo(1);
+    }
+
+    @Test
+    void limit_ShouldGrow_WhileLatencyStaysAtBaselineUnderLoad() {
+        // Act
+        sample(FAST, 200, 20);
+
+        // Assert
+        assertThat(limiter.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    void limit_ShouldShrink_WhenLatencyRisesAboveBaseline() {
+        // Arrange
+        sample(FAST, 50, 20);
+        int before = limiter.getLimit();
+
+        // Act - деградация БД: задержка выросла в 10 раз
+        sample(SLOW, 30, before);
+
+        // Assert
+        assertThat(limiter.getLimit()).isLessThan(before);
+    }
+
+    @Test
+    void limit_ShouldNotGrow_WhenUnderutilized() {
+        // Act - в работе один запрос при лимите 20
+        sample(FAST, 200, 1);
+
+        // Assert
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void limit_ShouldBackOff_OnServerErrors() {
+        // Act
+        limiter.tryAcquire();
+        limiter.release(FAST, 1, true);
+
+        // Assert
+        assertThat(limiter.getLimit()).isEqualTo(18);
+        assertThat(limiter.getInflight()).isZero();
+    }
+
+    private void sample(long rttNanos, int count, int inflight) {
+        for (int i = 0; i < count; i++) {
+            limiter.tryAcquire();
+            limiter.release(rttNanos, inflight, false);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkheadDataSourceTest {
+
+    private DataSource target;
+    private Bulkhead bulkhead;
+    private BulkheadDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        BulkheadProperties.Group group = new BulkheadProperties.Group();
+        group.setMaxConnections(1);
+        group.setConnectionTimeout(Duration.ofMillis(10));
+
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        bulkhead = new Bulkhead("admin", group, new SimpleMeterRegistry());
+        dataSource = new BulkheadDataSource(target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Bulkhead.unbind();
+    }
+
+    @Test
+    void getConnection_ShouldFail_WhenGroupShareExhausted() throws SQLException {
+        // Arrange
+        bulkhead.bind();
+        dataSource.getConnection();
+
+        // Act & Assert
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    @Test
+    void close_ShouldReturnShareToGroup() throws SQLException {
+        // Arrange
+        bulkhead.bind();
+        Connection first = dataSource.getConnection();
+
+        // Act
+        first.close();
+        first.close();
+        Connection second = dataSource.getConnection();
+
+        // Assert
+        assertThat(second).isNotNull();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnection_ShouldNotLimit_OutsideBulkhead() throws SQLException {
+        // Act
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // Assert
+        verify(target, times(2)).getConnection();
+    }
+}
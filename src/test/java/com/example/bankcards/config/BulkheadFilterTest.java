@@ -0,0 +1,112 @@
+package com.example.bankcards.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BulkheadRegistry registry;
+    private BulkheadFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties.Group admin = new BulkheadProperties.Group();
+        admin.setPaths(List.of("GET /api/v1/cards/admin/**", "/api/v1/statements/**"));
+        admin.setMaxConcurrent(1);
+        admin.setMaxConnections(1);
+
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        properties.getGroups().put("admin", admin);
+
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new BulkheadRegistry(properties, meterRegistry);
+        filter = new BulkheadFilter(registry, properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void request_ShouldRunInsideItsGroup_AndReleaseAfterwards() throws Exception {
+        // Arrange
+        AtomicReference<Bulkhead> seen = new AtomicReference<>();
+        FilterChain chain = (request, response) -> seen.set(Bulkhead.current());
+
+        // Act
+        filter.doFilter(get("/api/v1/cards/admin/all"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertThat(seen.get().getName()).isEqualTo("admin");
+        assertThat(Bulkhead.current()).isNull();
+        assertThat(activeRequests()).isZero();
+    }
+
+    @Test
+    void request_ShouldBeRejectedWith503_WhenGroupSaturated() throws Exception {
+        // Arrange - первый запрос держит единственное место в группе
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        FilterChain occupying = (request, response) ->
+                filter.doFilter(get("/api/v1/cards/admin/all"), rejected, new MockFilterChain());
+
+        // Act
+        filter.doFilter(get("/api/v1/cards/admin/all"), new MockHttpServletResponse(), occupying);
+
+        // Assert
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(rejected.getContentAsString()).contains("SERVICE_UNAVAILABLE");
+        assertThat(meterRegistry.counter("bulkhead.rejected", "group", "admin").count()).isEqualTo(1);
+    }
+
+    @Test
+    void request_ShouldPassThrough_WhenRouteIsOutsideAnyGroup() throws Exception {
+        // Arrange
+        AtomicReference<Bulkhead> seen = new AtomicReference<>();
+        FilterChain chain = (request, response) -> seen.set(Bulkhead.current());
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/v1/cards/admin/all");
+
+        // Act
+        filter.doFilter(post, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertThat(seen.get()).isNull();
+    }
+
+    @Test
+    void asyncRequest_ShouldHoldSlotUntilAsyncCompletes() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = get("/api/v1/statements/2025-01");
+        request.setAsyncSupported(true);
+        FilterChain chain = (req, res) -> req.startAsync();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        double activeWhileStreaming = activeRequests();
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        // Assert
+        assertThat(activeWhileStreaming).isEqualTo(1);
+        assertThat(activeRequests()).isZero();
+    }
+
+    private double activeRequests() {
+        return meterRegistry.get("bulkhead.requests.active").tag("group", "admin").gauge().value();
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
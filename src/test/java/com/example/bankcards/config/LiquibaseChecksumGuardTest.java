@@ -0,0 +1,104 @@
+package com.example.bankcards.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LiquibaseChecksumGuardTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SpringLiquibase liquibase;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        liquibase = mock(SpringLiquibase.class);
+        when(liquibase.getDataSource()).thenReturn(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void firstRun_ShouldLetLiquibaseRun_WhenChecksumTableMissing() {
+        // Arrange
+        LiquibaseChecksumGuard guard = new LiquibaseChecksumGuard(true);
+
+        // Act
+        guard.postProcessBeforeInitialization(liquibase, "liquibase");
+        guard.postProcessAfterInitialization(liquibase, "liquibase");
+
+        // Assert
+        verify(liquibase, never()).setShouldRun(false);
+    }
+
+    @Test
+    void successfulRun_ShouldStoreChecksum() {
+        // Arrange
+        createChecksumTable();
+        LiquibaseChecksumGuard guard = new LiquibaseChecksumGuard(true);
+
+        // Act
+        guard.postProcessBeforeInitialization(liquibase, "liquibase");
+        guard.postProcessAfterInitialization(liquibase, "liquibase");
+
+        // Assert
+        assertThat(jdbcTemplate.queryForObject("SELECT checksum FROM schema_changelog_checksum", String.class))
+                .isEqualTo(guard.computeChecksum());
+    }
+
+    @Test
+    void unchangedChangelog_ShouldSkipLiquibase() {
+        // Arrange
+        createChecksumTable();
+        LiquibaseChecksumGuard guard = new LiquibaseChecksumGuard(true);
+        jdbcTemplate.update("INSERT INTO schema_changelog_checksum VALUES (1, ?, CURRENT_TIMESTAMP)",
+                guard.computeChecksum());
+
+        // Act
+        guard.postProcessBeforeInitialization(liquibase, "liquibase");
+
+        // Assert
+        verify(liquibase).setShouldRun(false);
+    }
+
+    @Test
+    void changedChangelog_ShouldLetLiquibaseRun() {
+        // Arrange
+        createChecksumTable();
+        jdbcTemplate.update("INSERT INTO schema_changelog_checksum VALUES (1, 'stale', CURRENT_TIMESTAMP)");
+        LiquibaseChecksumGuard guard = new LiquibaseChecksumGuard(true);
+
+        // Act
+        guard.postProcessBeforeInitialization(liquibase, "liquibase");
+        guard.postProcessAfterInitialization(liquibase, "liquibase");
+
+        // Assert
+        verify(liquibase, never()).setShouldRun(false);
+        assertThat(jdbcTemplate.queryForObject("SELECT checksum FROM schema_changelog_checksum", String.class))
+                .isEqualTo(guard.computeChecksum());
+    }
+
+    private void createChecksumTable() {
+        jdbcTemplate.execute("CREATE TABLE schema_changelog_checksum (" +
+                "id INT PRIMARY KEY, checksum VARCHAR(64) NOT NULL, updated_at TIMESTAMP NOT NULL)");
+    }
+}
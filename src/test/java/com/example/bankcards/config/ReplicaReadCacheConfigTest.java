@@ -0,0 +1,117 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// L2 наполняется при коммите, поэтому каждая загрузка - отдельная транзакция
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.datasource.replicas.enabled=true"
+})
+@Import(ReplicaReadCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaReadCacheConfigTest {
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long cardId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .email("replica@example.com")
+                .password("password")
+                .firstName("Test")
+                .lastName("User")
+                .role(User.Role.USER)
+                .build());
+
+        cardId = cardRepository.save(Card.builder()
+                .cardNumber("encrypted_replica_1")
+                .maskedNumber("**** **** **** 0001")
+                .owner("TEST USER")
+                .expiryDate(LocalDate.now().plusYears(2))
+                .status(CardStatus.ACTIVE)
+                .requestedBlock(false)
+                .balance(BigDecimal.valueOf(1000))
+                .user(user)
+                .build()).getId();
+
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        entityManagerFactory.getCache().evictAll();
+        ReadConsistencyContext.clear();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldNotPutLoadedCardIntoCache() {
+        // Act
+        transaction(true).executeWithoutResult(status -> cardRepository.findById(cardId).orElseThrow());
+
+        // Assert
+        assertThat(entityManagerFactory.getCache().contains(Card.class, cardId)).isFalse();
+    }
+
+    @Test
+    void readWriteTransaction_ShouldPutLoadedCardIntoCache() {
+        // Act
+        transaction(false).executeWithoutResult(status -> cardRepository.findById(cardId).orElseThrow());
+
+        // Assert
+        assertThat(entityManagerFactory.getCache().contains(Card.class, cardId)).isTrue();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldPutLoadedCard_WhenPrimaryRequired() {
+        // Arrange - X-Read-Consistency: strong читает с primary
+        ReadConsistencyContext.requirePrimary();
+
+        // Act
+        transaction(true).executeWithoutResult(status -> cardRepository.findById(cardId).orElseThrow());
+
+        // Assert
+        assertThat(entityManagerFactory.getCache().contains(Card.class, cardId)).isTrue();
+    }
+
+    private TransactionTemplate transaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bankcards.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    private DataSource replicaA;
+    private DataSource replicaB;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        replicaA = mock(DataSource.class);
+        replicaB = mock(DataSource.class);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replicaA);
+        replicas.put("replica-1", replicaB);
+
+        routingDataSource = new ReplicaRoutingDataSource(mock(DataSource.class), replicas);
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadConsistencyContext.clear();
+    }
+
+    @Test
+    void readWriteTransaction_ShouldRouteToPrimary() throws SQLException {
+        // Arrange
+        stubLag(replicaA, 0);
+        stubLag(replicaB, 0);
+        routingDataSource.refreshReplicaHealth(MAX_LAG);
+
+        // Act & Assert
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldAlternateBetweenHealthyReplicas() throws SQLException {
+        // Arrange
+        stubLag(replicaA, 0);
+        stubLag(replicaB, 0);
+        routingDataSource.refreshReplicaHealth(MAX_LAG);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Object first = routingDataSource.determineCurrentLookupKey();
+        Object second = routingDataSource.determineCurrentLookupKey();
+
+        // Assert
+        assertThat(List.of(first, second)).containsExactlyInAnyOrder("replica-0", "replica-1");
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldSkipReplicaBeyondLagTolerance() throws SQLException {
+        // Arrange
+        stubLag(replicaA, 30);
+        stubLag(replicaB, 1);
+        routingDataSource.refreshReplicaHealth(MAX_LAG);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo("replica-1");
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo("replica-1");
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldFallBackToPrimary_WhenReplicasUnreachable() throws SQLException {
+        // Arrange
+        when(replicaA.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(replicaB.getConnection()).thenThrow(new SQLException("connection refused"));
+        routingDataSource.refreshReplicaHealth(MAX_LAG);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldRouteToPrimary_WhenStrongConsistencyRequested() throws SQLException {
+        // Arrange
+        stubLag(replicaA, 0);
+        stubLag(replicaB, 0);
+        routingDataSource.refreshReplicaHealth(MAX_LAG);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadConsistencyContext.requirePrimary();
+
+        // Act & Assert
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    private void stubLag(DataSource dataSource, double lagSeconds) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(lagSeconds);
+    }
+}
@@ -2,10 +2,17 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.config.JwtAuthenticationFilter;
 import com.example.bankcards.config.SecurityTestConfig;
+import com.example.bankcards.dto.request.TransferExportFilter;
 import com.example.bankcards.dto.request.TransferRequest;
 import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.dto.response.TransferSubmissionResponse;
 import com.example.bankcards.exception.custom.card.SameCardTransferException;
+import com.example.bankcards.exception.custom.transfer.TransferQueueFullException;
+import com.example.bankcards.service.TransferExportService;
 import com.example.bankcards.service.TransferService;
+import com.example.bankcards.service.TransferSubmissionService;
+import com.example.bankcards.util.ResourceVersion;
+import com.example.bankcards.util.TransferSubmissionStatus;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,21 +24,33 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(
@@ -53,6 +72,12 @@ class TransferControllerTest {
     @MockBean
     private TransferService transferService;
 
+    @MockBean
+    private TransferExportService transferExportService;
+
+    @MockBean
+    private TransferSubmissionService transferSubmissionService;
+
     private TransferResponse createTransferResponse() {
         return TransferResponse.builder()
                 .id(1L)
@@ -110,6 +135,80 @@ class TransferControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void submitTransfer_ShouldReturn202WithStatusLocation() throws Exception {
+        // Arrange
+        TransferRequest request = TransferRequest.builder()
+                .fromCardId(1L)
+                .toCardId(2L)
+                .amount(BigDecimal.valueOf(100.00))
+                .build();
+
+        TransferSubmissionResponse submission = TransferSubmissionResponse.builder()
+                .id(42L)
+                .status(TransferSubmissionStatus.PENDING)
+                .fromCardId(1L)
+                .toCardId(2L)
+                .amount(BigDecimal.valueOf(100.00))
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        when(transferSubmissionService.submitTransfer(any(TransferRequest.class))).thenReturn(submission);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/transfers/async")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/api/v1/transfers/42/status"))
+                .andExpect(jsonPath("$.id").value(42))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void submitTransfer_ShouldReturn429WithRetryAfter_WhenQueueFull() throws Exception {
+        // Arrange
+        TransferRequest request = TransferRequest.builder()
+                .fromCardId(1L)
+                .toCardId(2L)
+                .amount(BigDecimal.valueOf(100.00))
+                .build();
+
+        when(transferSubmissionService.submitTransfer(any(TransferRequest.class)))
+                .thenThrow(new TransferQueueFullException(Duration.ofSeconds(2)));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/transfers/async")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.code").value("TOO_MANY_REQUESTS"));
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void getSubmissionStatus_ShouldReturnCompletedSubmission() throws Exception {
+        // Arrange
+        TransferSubmissionResponse submission = TransferSubmissionResponse.builder()
+                .id(42L)
+                .status(TransferSubmissionStatus.COMPLETED)
+                .transferId(7L)
+                .build();
+
+        when(transferSubmissionService.getSubmission(42L)).thenReturn(submission);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/transfers/42/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.transferId").value(7));
+    }
+
     @Test
     @WithMockUser(username = "user@example.com")
     void getMyTransfers_ShouldReturnUserTransfers() throws Exception {
@@ -183,6 +282,19 @@ class TransferControllerTest {
                 .andExpect(jsonPath("$.toCardId").value(2));
     }
 
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void getTransfer_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        // Arrange
+        ResourceVersion version = new ResourceVersion("\"t1\"", LocalDateTime.of(2024, 1, 15, 10, 30));
+        when(transferService.getTransferVersion(1L)).thenReturn(Optional.of(version));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/transfers/1").header(HttpHeaders.IF_NONE_MATCH, "\"t1\""))
+                .andExpect(status().isNotModified());
+        verify(transferService, never()).getTransferById(1L);
+    }
+
     @Test
     @WithMockUser(username = "user@example.com")
     void createTransfer_ShouldValidateSameCardTransfer() throws Exception {
@@ -205,4 +317,26 @@ class TransferControllerTest {
                 .andExpect(jsonPath("$.code").value("CONFLICT"))
                 .andExpect(jsonPath("$.message").value("Cannot be transferred to the same card"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void exportTransfers_ShouldStreamCsvAttachment() throws Exception {
+        // Arrange
+        StreamingResponseBody body = out -> out.write("id\n1\n".getBytes(StandardCharsets.UTF_8));
+        when(transferExportService.exportTransfers(any(TransferExportFilter.class))).thenReturn(body);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/transfers/export")
+                        .param("cardId", "1")
+                        .param("from", "2025-01-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transfers.csv\""))
+                .andExpect(content().string("id\n1\n"));
+    }
+}
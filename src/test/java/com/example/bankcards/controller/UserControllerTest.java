@@ -7,6 +7,8 @@ import com.example.bankcards.dto.response.UserResponse;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.security.UserSecurity;
 import com.example.bankcards.service.UserService;
+import com.example.bankcards.util.ResourceVersion;
+import com.example.bankcards.util.VersionedResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +20,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -28,6 +31,8 @@ import java.util.List;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -144,7 +149,8 @@ class UserControllerTest {
     void getCurrentUser_ShouldReturnCurrentUser() throws Exception {
         // Arrange
         UserResponse response = createUserResponse();
-        when(userService.getCurrentUser()).thenReturn(response);
+        when(userService.getVersionedCurrentUser()).thenReturn(new VersionedResponse<>(response,
+                new ResourceVersion("\"v1\"", LocalDateTime.of(2024, 1, 15, 10, 30))));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/users/me"))
@@ -153,6 +159,34 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("user@example.com"));
     }
 
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void getCurrentUser_ShouldReturnETagAndLastModified() throws Exception {
+        // Arrange
+        ResourceVersion version = new ResourceVersion("\"v1\"", LocalDateTime.of(2024, 1, 15, 10, 30));
+        when(userService.getVersionedCurrentUser()).thenReturn(new VersionedResponse<>(createUserResponse(), version));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/users/me"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"));
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void getCurrentUser_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        // Arrange
+        ResourceVersion version = new ResourceVersion("\"v1\"", LocalDateTime.of(2024, 1, 15, 10, 30));
+        when(userService.getVersionedCurrentUser()).thenReturn(new VersionedResponse<>(createUserResponse(), version));
+
+        // Act & Assert - ETag совпал с версией тела, тело не отправляется
+        mockMvc.perform(get("/api/v1/users/me").header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     @WithMockUser(username = "user@example.com")
     void updateUser_ShouldUpdate_WhenCurrentUser() throws Exception {
@@ -0,0 +1,71 @@
+package com.example.bankcards.event;
+
+import com.example.bankcards.dto.response.CardResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardEventRelayTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CardEventRelay.CardEventConsumer consumer;
+
+    private CardEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        relay = new CardEventRelay(jdbcTemplate, objectMapper, new DataSourceProperties());
+    }
+
+    @Test
+    void publish_ShouldNotifyChannelWithOwnerAndCard() {
+        // Arrange
+        CardResponse card = CardResponse.builder().id(10L).balance(BigDecimal.TEN).build();
+
+        // Act
+        relay.publish(new CardChangedEvent(1L, card));
+
+        // Assert
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(RowCallbackHandler.class),
+                eq(CardEventRelay.CHANNEL),
+                argThat((String payload) -> payload.contains("\"userId\":1") && payload.contains("\"id\":10")));
+    }
+
+    @Test
+    void dispatch_ShouldPassOwnerCardIdAndRawCardJson() {
+        // Act
+        relay.dispatch("{\"userId\":1,\"card\":{\"id\":10,\"expiryDate\":\"12/27\"}}", consumer);
+
+        // Assert - карта уходит в SSE исходным JSON, без обратной десериализации
+        verify(consumer).accept(1L, 10L, "{\"id\":10,\"expiryDate\":\"12/27\"}");
+    }
+
+    @Test
+    void dispatch_ShouldSkipMalformedPayload() {
+        // Act
+        relay.dispatch("not json", consumer);
+
+        // Assert
+        verify(consumer, never()).accept(any(), any(), anyString());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.util.CardStatus;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Slf4j
+class InsertBatchingTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persistAndFlush(User.builder()
+                .email("batch@example.com")
+                .password("password")
+                .firstName("Test")
+                .lastName("User")
+                .role(User.Role.USER)
+                .build());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void cardInserts_ShouldBeSentInJdbcBatches() {
+        // Act
+        insertCards(100, 0);
+        entityManager.flush();
+
+        // Assert
+        // 100 строк: 2 вызова последовательности (блоки по 50) и 5 пачек по 20 вместо 100 отдельных insert
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(100);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void interleavedInserts_ShouldStayBatched_WhenOrderedByEntity() {
+        // Arrange
+        Card source = insertCards(1, 0).get(0);
+        entityManager.flush();
+        statistics.clear();
+
+        // Act
+        // Карта и перевод на нее чередуются - без order_inserts каждая смена таблицы закрывает пачку
+        for (int i = 0; i < 50; i++) {
+            Card card = insertCards(1, 1000 + i).get(0);
+            entityManager.persist(transfer(source, card));
+        }
+        entityManager.flush();
+
+        // Assert
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(100);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(12);
+    }
+
+    // mvn test -Dtest=InsertBatchingTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_ShouldReportInsertThroughput() {
+        int rows = 20_000;
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+
+        // Размер пачки 1 повторяет поведение IDENTITY: каждая строка - отдельный insert
+        for (int batchSize : new int[]{1, 20, 50}) {
+            session.setJdbcBatchSize(batchSize);
+
+            statistics.clear();
+            long started = System.nanoTime();
+            List<Card> cards = insertCards(rows, batchSize * 1_000_000);
+            entityManager.flush();
+            entityManager.clear();
+            long cardNanos = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            Card from = entityManager.find(Card.class, cards.get(0).getId());
+            Card to = entityManager.find(Card.class, cards.get(1).getId());
+            for (int i = 0; i < rows; i++) {
+                entityManager.persist(transfer(from, to));
+                if (i % 1000 == 999) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    from = entityManager.find(Card.class, from.getId());
+                    to = entityManager.find(Card.class, to.getId());
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            long transferNanos = System.nanoTime() - started;
+
+            assertThat(statistics.getEntityInsertCount()).isEqualTo(2L * rows);
+            log.info("batch_size={} cards/s={} transfers/s={}", batchSize,
+                    Math.round(rows * 1e9 / cardNanos), Math.round(rows * 1e9 / transferNanos));
+        }
+    }
+
+    private List<Card> insertCards(int count, int numberOffset) {
+        User owner = entityManager.find(User.class, user.getId());
+        List<Card> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Card card = Card.builder()
+                    .cardNumber("encrypted_" + (numberOffset + i))
+                    .maskedNumber("**** **** **** 0000")
+                    .owner("TEST USER")
+                    .expiryDate(LocalDate.now().plusYears(2))
+                    .status(CardStatus.ACTIVE)
+                    .requestedBlock(false)
+                    .balance(BigDecimal.valueOf(1000))
+                    .user(owner)
+                    .build();
+            entityManager.persist(card);
+            cards.add(card);
+            if (i % 1000 == 999) {
+                entityManager.flush();
+            }
+        }
+        return cards;
+    }
+
+    private Transfer transfer(Card from, Card to) {
+        return Transfer.builder()
+                .fromCard(from)
+                .toCard(to)
+                .amount(BigDecimal.TEN)
+                .description("batch")
+                .user(from.getUser())
+                .build();
+    }
+}
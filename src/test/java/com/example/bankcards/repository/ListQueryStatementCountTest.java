@@ -0,0 +1,131 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.response.CardResponse;
+import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.util.CardStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ListQueryStatementCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .email("user@example.com")
+                .password("password")
+                .firstName("Test")
+                .lastName("User")
+                .role(User.Role.USER)
+                .build());
+
+        Card[] cards = new Card[4];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = entityManager.persist(Card.builder()
+                    .cardNumber("encrypted_" + i)
+                    .maskedNumber("**** **** **** 000" + i)
+                    .owner("TEST USER")
+                    .expiryDate(LocalDate.now().plusYears(2))
+                    .status(CardStatus.ACTIVE)
+                    .requestedBlock(false)
+                    .balance(BigDecimal.valueOf(1000))
+                    .user(user)
+                    .build());
+        }
+
+        for (int i = 0; i < 30; i++) {
+            entityManager.persist(Transfer.builder()
+                    .fromCard(cards[i % cards.length])
+                    .toCard(cards[(i + 1) % cards.length])
+                    .amount(BigDecimal.TEN)
+                    .description("Transfer " + i)
+                    .user(user)
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void transferPage_ShouldUseContentAndCountStatementsOnly() {
+        // Act
+        Page<TransferResponse> page = transferRepository.findByUserId(user.getId(), PageRequest.of(0, 20));
+
+        // Assert
+        assertThat(page.getContent()).hasSize(20).allSatisfy(transfer -> {
+            assertThat(transfer.getFromCardMasked()).isNotNull();
+            assertThat(transfer.getToCardMasked()).isNotNull();
+            assertThat(transfer.getUserId()).isEqualTo(user.getId());
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void cardTransferPage_ShouldUseContentAndCountStatementsOnly() {
+        // Arrange
+        Long cardId = cardRepository.findByUserId(user.getId()).get(0).getId();
+        statistics.clear();
+
+        // Act
+        Page<TransferResponse> page = transferRepository.findByUserIdAndCardId(
+                user.getId(), cardId, PageRequest.of(0, 5));
+
+        // Assert
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void cardPage_ShouldUseContentAndCountStatementsOnly() {
+        // Act
+        Page<CardResponse> page = cardRepository.findByUserId(user.getId(), PageRequest.of(0, 2));
+
+        // Assert
+        assertThat(page.getContent()).hasSize(2).allSatisfy(card ->
+                assertThat(card.getUserId()).isEqualTo(user.getId()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.bankcards.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Планы запросов репозиториев на схеме из Liquibase и синтетическом объеме данных.
+// Запуск: mvn test -Pplan-regression (нужен Docker). EXPLAIN (GENERIC_PLAN) строит план
+// без значений параметров, как для подготовленного JDBC-запроса, поэтому нужен Postgres 16+
+@Tag("plan-regression")
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.example.bankcards.repository.SqlCaptureInspector"
+})
+@Sql(scripts = "/sql/plan-regression-seed.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+class QueryPlanRegressionTest {
+
+    private static final double DEFAULT_COST_BUDGET = 5_000;
+
+    // Таблицы, полный просмотр которых недопустим; партиции transfers_YYYY_MM покрываются префиксом
+    private static final Set<String> LARGE_TABLES = Set.of("users", "cards", "transfers", "card_view");
+
+    private static final Pattern JDBC_PARAMETER = Pattern.compile("\\?");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private CardViewRepository cardViewRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Long userId;
+    private Long cardId;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject(
+                "SELECT user_id FROM cards ORDER BY id LIMIT 1", Long.class);
+        cardId = jdbcTemplate.queryForObject(
+                "SELECT id FROM cards WHERE user_id = ? ORDER BY id LIMIT 1", Long.class, userId);
+        email = jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = ?", String.class, userId);
+    }
+
+    // CardRepository
+
+    @Test
+    void cardFindById_ShouldUsePrimaryKey() {
+        assertPlans(() -> cardRepository.findById(cardId));
+    }
+
+    @Test
+    void cardFindByUserIdPage_ShouldUseUserIndex() {
+        assertPlans(() -> cardRepository.findByUserId(userId, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void cardFindByUserIdList_ShouldUseUserIndex() {
+        assertPlans(() -> cardRepository.findByUserId(userId));
+    }
+
+    @Test
+    void cardFindByIdAndUserId_ShouldUsePrimaryKey() {
+        assertPlans(() -> cardRepository.findByIdAndUserId(cardId, userId));
+    }
+
+    @Test
+    void cardSearchByUser_ShouldFilterWithinUserIndexRange() {
+        // LIKE с ведущим % не индексируется, но фильтр применяется только к картам пользователя
+        assertPlans(() -> cardRepository.searchByUser(userId, "owner", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void cardCountByUserId_ShouldUseUserIndex() {
+        assertPlans(() -> cardRepository.countByUserId(userId));
+    }
+
+    @Test
+    void cardFindResponseById_ShouldUsePrimaryKey() {
+        assertPlans(() -> cardRepository.findResponseById(cardId));
+    }
+
+    @Test
+    void cardUpdateBalance_ShouldUsePrimaryKey() {
+        assertPlans(() -> cardRepository.updateBalance(cardId, BigDecimal.ONE));
+    }
+
+    @Test
+    void cardFindAllResponses_ShouldStayWithinBudget() {
+        // Административный список всех карт: полный просмотр ожидаем, ограничен LIMIT / count
+        assertPlans(() -> cardRepository.findAllResponses(PageRequest.of(0, 20, Sort.by("id"))),
+                Set.of("cards"), 20_000);
+    }
+
+    // CardViewRepository
+
+    @Test
+    void cardViewFindByUserIdPage_ShouldUseUserIndex() {
+        assertPlans(() -> cardViewRepository.findByUserId(userId, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void cardViewFindByUserIdByCreatedAt_ShouldUseUserCreatedIndex() {
+        assertPlans(() -> cardViewRepository.findByUserId(userId,
+                PageRequest.of(0, 10, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")))));
+    }
+
+    @Test
+    void cardViewFindListVersionByUserId_ShouldUseUserIndex() {
+        assertPlans(() -> cardViewRepository.findListVersionByUserId(userId));
+    }
+
+    @Test
+    void cardViewFindAllResponses_ShouldStayWithinBudget() {
+        // Административный список: как и по cards, полный просмотр ограничен LIMIT / count
+        assertPlans(() -> cardViewRepository.findAllResponses(PageRequest.of(0, 20, Sort.by("id"))),
+                Set.of("card_view"), 20_000);
+    }
+
+    // TransferRepository
+
+    @Test
+    void transferFindById_ShouldUsePrimaryKey() {
+        assertPlans(() -> transferRepository.findById(1L));
+    }
+
+    @Test
+    void transferFindByUserId_ShouldUseUserIndex() {
+        assertPlans(() -> transferRepository.findByUserId(userId, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void transferFindByUserIdAndCardId_ShouldNotSeqScanOnOrPredicate() {
+        assertPlans(() -> transferRepository.findByUserIdAndCardId(userId, cardId, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void transferFindCardFeedIds_ShouldUseFeedIndexes() {
+        assertPlans(() -> transferRepository.findCardFeedIds(
+                userId, cardId, LocalDateTime.now(), Long.MAX_VALUE, 21));
+    }
+
+    @Test
+    void transferFindResponsesByIdIn_ShouldUsePrimaryKey() {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM transfers WHERE user_id = ? LIMIT 20", Long.class, userId);
+        assertPlans(() -> transferRepository.findResponsesByIdIn(ids));
+    }
+
+    @Test
+    void transferGetTotalTransferredAmount_ShouldUseFeedIndex() {
+        LocalDateTime monthStart = LocalDateTime.now().withDayOfMonth(1).toLocalDate().atStartOfDay();
+        assertPlans(() -> transferRepository.getTotalTransferredAmount(
+                cardId, monthStart.minusMonths(1), monthStart));
+    }
+
+    // UserRepository
+
+    @Test
+    void userFindById_ShouldUsePrimaryKey() {
+        assertPlans(() -> userRepository.findById(userId));
+    }
+
+    @Test
+    void userFindByEmail_ShouldUseEmailIndex() {
+        assertPlans(() -> userRepository.findByEmail(email));
+    }
+
+    @Test
+    void userExistsByEmail_ShouldUseEmailIndex() {
+        assertPlans(() -> userRepository.existsByEmail(email));
+    }
+
+    @Test
+    void userFindIdentityByEmail_ShouldUseEmailIndex() {
+        assertPlans(() -> userRepository.findIdentityByEmail(email));
+    }
+
+    private void assertPlans(Runnable repositoryCall) {
+        assertPlans(repositoryCall, Set.of(), DEFAULT_COST_BUDGET);
+    }
+
+    private void assertPlans(Runnable repositoryCall, Set<String> allowedSeqScans, double costBudget) {
+        // Запросы не должны обслуживаться из L2-кэша или контекста персистентности
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        SqlCaptureInspector.clear();
+
+        repositoryCall.run();
+        entityManager.flush();
+
+        List<String> statements = SqlCaptureInspector.captured();
+        assertThat(statements).as("repository call should reach the database").isNotEmpty();
+
+        for (String sql : statements) {
+            JsonNode plan = explain(sql);
+            List<String> seqScans = new ArrayList<>();
+            collectSeqScans(plan, seqScans);
+
+            assertThat(seqScans)
+                    .as("sequential scans in plan of %s%n%s", sql, plan.toPrettyString())
+                    .allSatisfy(relation -> assertThat(allowedSeqScans).contains(baseTable(relation)));
+            assertThat(plan.path("Total Cost").asDouble())
+                    .as("cost of %s%n%s", sql, plan.toPrettyString())
+                    .isLessThanOrEqualTo(costBudget);
+        }
+    }
+
+    private JsonNode explain(String sql) {
+        // Параметры JDBC (?) заменяются на $1..$n - так их понимает EXPLAIN (GENERIC_PLAN)
+        Matcher matcher = JDBC_PARAMETER.matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        int index = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(numbered, "\\$" + (++index));
+        }
+        matcher.appendTail(numbered);
+
+        String json = jdbcTemplate.queryForObject(
+                "EXPLAIN (GENERIC_PLAN, FORMAT JSON) " + numbered, String.class);
+        try {
+            return objectMapper.readTree(json).get(0).get("Plan");
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot parse plan for " + sql, e);
+        }
+    }
+
+    private void collectSeqScans(JsonNode node, List<String> seqScans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            String relation = node.path("Relation Name").asText();
+            if (isLargeTable(relation)) {
+                seqScans.add(relation);
+            }
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, seqScans);
+        }
+    }
+
+    private boolean isLargeTable(String relation) {
+        return LARGE_TABLES.contains(baseTable(relation));
+    }
+
+    private String baseTable(String relation) {
+        return relation.matches("transfers_\\d{4}_\\d{2}") ? "transfers" : relation;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.util.CardStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запись в L2 обновляется при коммите, поэтому каждый шаг - отдельная транзакция с коммитом
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheCommitTest {
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private Long cardId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        User user = userRepository.save(User.builder()
+                .email("committed@example.com")
+                .password("password")
+                .firstName("Test")
+                .lastName("User")
+                .role(User.Role.USER)
+                .build());
+
+        cardId = cardRepository.save(Card.builder()
+                .cardNumber("encrypted_commit_1")
+                .maskedNumber("**** **** **** 0001")
+                .owner("TEST USER")
+                .expiryDate(LocalDate.now().plusYears(2))
+                .status(CardStatus.ACTIVE)
+                .requestedBlock(false)
+                .balance(BigDecimal.valueOf(1000))
+                .user(user)
+                .build()).getId();
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void balanceUpdate_ShouldNotBeReadStaleFromCache_AfterCommit() {
+        // Arrange - карта попадает в L2 в первой транзакции
+        transactionTemplate.executeWithoutResult(status -> cardRepository.findById(cardId).orElseThrow());
+        assertThat(entityManagerFactory.getCache().contains(Card.class, cardId)).isTrue();
+
+        // Act - новый баланс фиксируется во второй транзакции
+        transactionTemplate.executeWithoutResult(status ->
+                cardRepository.findById(cardId).orElseThrow().setBalance(BigDecimal.valueOf(250)));
+
+        // Assert - третья транзакция читает карту из L2 (без SQL) и видит зафиксированный баланс
+        statistics.clear();
+        Card reloaded = transactionTemplate.execute(status -> cardRepository.findById(cardId).orElseThrow());
+
+        assertThat(reloaded.getBalance()).isEqualByComparingTo("250");
+        assertThat(statistics.getDomainDataRegionStatistics("card").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findById_ShouldBeServedFromCache_OnRepeatedLookup() {
+        // Act
+        transactionTemplate.executeWithoutResult(status -> cardRepository.findById(cardId).orElseThrow());
+        transactionTemplate.executeWithoutResult(status -> cardRepository.findById(cardId).orElseThrow());
+
+        // Assert
+        assertThat(statistics.getDomainDataRegionStatistics("card").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByEmail_ShouldResolveThroughNaturalIdCache() {
+        // Act
+        transactionTemplate.executeWithoutResult(status -> userRepository.findByEmail("committed@example.com"));
+        User found = transactionTemplate.execute(status ->
+                userRepository.findByEmail("committed@example.com").orElseThrow());
+
+        // Assert
+        assertThat(found.getEmail()).isEqualTo("committed@example.com");
+        assertThat(statistics.getNaturalIdCacheHitCount()).isGreaterThan(0);
+    }
+}
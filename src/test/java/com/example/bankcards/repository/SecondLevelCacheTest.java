@@ -0,0 +1,76 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.util.CardStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SecondLevelCacheTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .email("cached@example.com")
+                .password("password")
+                .firstName("Test")
+                .lastName("User")
+                .role(User.Role.USER)
+                .build());
+
+        card = entityManager.persist(Card.builder()
+                .cardNumber("encrypted_1")
+                .maskedNumber("**** **** **** 0001")
+                .owner("TEST USER")
+                .expiryDate(LocalDate.now().plusYears(2))
+                .status(CardStatus.ACTIVE)
+                .requestedBlock(false)
+                .balance(BigDecimal.valueOf(1000))
+                .user(user)
+                .build());
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findLiveByEmail_ShouldRejectUser_TombstonedOnAnotherNode() {
+        // Arrange
+        userRepository.findByEmail("cached@example.com");
+        entityManager.clear();
+        // Надгробие ставит другой узел: строка меняется в базе мимо Hibernate, L2 этого узла о нем не знает
+        jdbcTemplate.update("UPDATE users SET deleted_at = CURRENT_TIMESTAMP WHERE id = ?", user.getId());
+
+        // Act
+        boolean authenticated = userRepository.findLiveByEmail("cached@example.com").isPresent();
+
+        // Assert
+        assertThat(authenticated).isFalse();
+    }
+}
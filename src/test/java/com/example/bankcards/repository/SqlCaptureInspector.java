@@ -0,0 +1,26 @@
+package com.example.bankcards.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Запоминает SQL, который Hibernate отправляет в базу, чтобы получить для него план
+public class SqlCaptureInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        CAPTURED.get().add(sql);
+        return sql;
+    }
+
+    public static void clear() {
+        CAPTURED.get().clear();
+    }
+
+    public static List<String> captured() {
+        return List.copyOf(CAPTURED.get());
+    }
+}
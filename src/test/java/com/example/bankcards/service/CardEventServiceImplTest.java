@@ -0,0 +1,187 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.response.CardResponse;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.CardEventRelay;
+import com.example.bankcards.service.impl.CardEventServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardEventServiceImplTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private CardEventRelay relay;
+
+    private SimpleMeterRegistry meterRegistry;
+    private Deque<SseEmitter> emitters;
+    private ExecutorService sender;
+    private CardEventServiceImpl cardEventService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        emitters = new ArrayDeque<>();
+        sender = Executors.newCachedThreadPool();
+        cardEventService = new CardEventServiceImpl(userService, relay, meterRegistry, sender) {
+            @Override
+            protected SseEmitter createEmitter(Duration timeout) {
+                return emitters.pop();
+            }
+        };
+        ReflectionTestUtils.setField(cardEventService, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cardEventService, "bufferSize", 2);
+        ReflectionTestUtils.setField(cardEventService, "maxConnectionsPerUser", 2);
+        ReflectionTestUtils.setField(cardEventService, "reconnectDelay", Duration.ofSeconds(3));
+        ReflectionTestUtils.setField(cardEventService, "sendTimeout", Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardEventService.shutdown();
+    }
+
+    @Test
+    void onCardChanged_ShouldPublishThroughRelay() {
+        // Arrange
+        CardChangedEvent event = new CardChangedEvent(1L, card(10L));
+
+        // Act
+        cardEventService.onCardChanged(event);
+
+        // Assert - локальные подписчики получают дельту тем же путем, что и остальные узлы
+        verify(relay).publish(event);
+    }
+
+    @Test
+    void deliver_ShouldDeliverOnlyToOwnerConnections() throws IOException {
+        // Arrange
+        SseEmitter owner = subscribe(1L);
+        SseEmitter stranger = subscribe(2L);
+
+        // Act
+        cardEventService.deliver(1L, 10L, "{\"id\":10}");
+
+        // Assert - приветственный heartbeat и дельта карты
+        verify(owner, timeout(1000).times(2)).send(any(SseEventBuilder.class));
+        verify(stranger, after(200).times(1)).send(any(SseEventBuilder.class));
+        assertThat(meterRegistry.counter("cards.events.delivered").count()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_ShouldEvictOldestConnection_WhenPerUserLimitReached() {
+        // Arrange
+        SseEmitter first = subscribe(1L);
+        subscribe(1L);
+
+        // Act
+        subscribe(1L);
+
+        // Assert
+        verify(first, timeout(1000)).complete();
+        assertThat(meterRegistry.get("cards.events.connections").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void deliver_ShouldCloseConnection_WhenClientDoesNotKeepUp() throws Exception {
+        // Arrange - запись в сокет висит, пока тест не отпустит latch
+        CountDownLatch socketBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter slow = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            socketBlocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(slow).send(any(SseEventBuilder.class));
+        emitters.push(slow);
+        when(userService.getCurrentUserEntity()).thenReturn(User.builder().id(1L).build());
+        cardEventService.subscribe();
+        assertThat(socketBlocked.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // Act - обновления одной карты схлопываются, третья разная карта переполняет буфер из двух
+        cardEventService.deliver(1L, 10L, "{\"id\":10}");
+        cardEventService.deliver(1L, 10L, "{\"id\":10}");
+        cardEventService.deliver(1L, 11L, "{\"id\":11}");
+        cardEventService.deliver(1L, 12L, "{\"id\":12}");
+        release.countDown();
+        sender.shutdown();
+
+        // Assert - соединение закрывает поток записи, когда зависший send вернулся
+        assertThat(sender.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        verify(slow).complete();
+        assertThat(meterRegistry.counter("cards.events.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void heartbeat_ShouldDropConnection_WhenSendExceedsTimeout() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(cardEventService, "sendTimeout", Duration.ofMillis(1));
+        CountDownLatch socketBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter stuck = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            socketBlocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(stuck).send(any(SseEventBuilder.class));
+        emitters.push(stuck);
+        when(userService.getCurrentUserEntity()).thenReturn(User.builder().id(1L).build());
+        cardEventService.subscribe();
+        assertThat(socketBlocked.await(1, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(20);
+
+        // Act - планировщик не ждет зависшую запись
+        cardEventService.heartbeat();
+
+        // Assert
+        assertThat(meterRegistry.counter("cards.events.dropped").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cards.events.connections").gauge().value()).isZero();
+        verify(stuck, never()).complete();
+
+        release.countDown();
+        sender.shutdown();
+        assertThat(sender.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        verify(stuck).complete();
+    }
+
+    private SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = mock(SseEmitter.class);
+        emitters.push(emitter);
+        when(userService.getCurrentUserEntity()).thenReturn(User.builder().id(userId).build());
+        cardEventService.subscribe();
+        return emitter;
+    }
+
+    private static CardResponse card(Long id) {
+        return CardResponse.builder()
+                .id(id)
+                .balance(BigDecimal.TEN)
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.UserWalletSummary;
+import com.example.bankcards.service.impl.CardExpiryServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardExpiryServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardExpiryServiceImpl cardExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cardExpiryService = new CardExpiryServiceImpl(
+                jdbcTemplate, transactionManager, schedulerLockService, entityManagerFactory, meterRegistry);
+        ReflectionTestUtils.setField(cardExpiryService, "chunkSize", 2);
+        ReflectionTestUtils.setField(cardExpiryService, "pauseBetweenChunks", Duration.ZERO);
+        ReflectionTestUtils.setField(cardExpiryService, "lockLease", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(cardExpiryService, "lockTimeout", Duration.ofSeconds(2));
+    }
+
+    @Test
+    void expireOverdueCards_ShouldSkipRun_WhenAnotherNodeHoldsLock() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("card-expiry-sweeper", Duration.ofMinutes(10))).thenReturn(false);
+
+        // Act
+        long result = cardExpiryService.expireOverdueCards();
+
+        // Assert
+        assertThat(result).isZero();
+        assertThat(meterRegistry.counter("cards.expiry.skipped").count()).isEqualTo(1);
+        verifyNoInteractions(jdbcTemplate);
+        verify(schedulerLockService, never()).release(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void expireOverdueCards_ShouldProcessChunksUntilEmptyChunk() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("card-expiry-sweeper", Duration.ofMinutes(10))).thenReturn(true);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(LocalDate.now()), eq(2)))
+                .thenReturn(List.of(new long[]{10L, 1L}, new long[]{11L, 1L}))
+                .thenReturn(List.of(new long[]{12L, 2L}))
+                .thenReturn(List.of());
+
+        // Act
+        long result = cardExpiryService.expireOverdueCards();
+
+        // Assert
+        assertThat(result).isEqualTo(3);
+        assertThat(meterRegistry.counter("cards.expiry.processed").count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("cards.expiry.chunks").count()).isEqualTo(3);
+        verify(cache).evict(Card.class, 10L);
+        verify(cache).evict(Card.class, 12L);
+        verify(cache).evict(UserWalletSummary.class, 1L);
+        verify(cache).evict(UserWalletSummary.class, 2L);
+        verify(schedulerLockService).release("card-expiry-sweeper");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void expireOverdueCards_ShouldSkipCardsHeldByCardLock() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("card-expiry-sweeper", Duration.ofMinutes(10))).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(LocalDate.now()), eq(2)))
+                .thenReturn(List.of());
+
+        // Act
+        cardExpiryService.expireOverdueCards();
+
+        // Assert
+        verify(jdbcTemplate).query(argThat((String sql) -> sql.contains("pg_try_advisory_xact_lock(id)")),
+                any(RowMapper.class), eq(LocalDate.now()), eq(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void expireOverdueCards_ShouldStopAndReleaseLock_WhenRowLockTimesOut() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("card-expiry-sweeper", Duration.ofMinutes(10))).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(LocalDate.now()), eq(2)))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        // Act
+        long result = cardExpiryService.expireOverdueCards();
+
+        // Assert
+        assertThat(result).isZero();
+        verify(schedulerLockService).release("card-expiry-sweeper");
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.custom.card.CardLockTimeoutException;
+import com.example.bankcards.service.impl.CardLockServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CardLockServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardLockServiceImpl cardLockService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cardLockService = new CardLockServiceImpl(jdbcTemplate, entityManagerFactory, meterRegistry);
+        ReflectionTestUtils.setField(cardLockService, "lockTimeout", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void lock_ShouldAcquireInAscendingOrder_AndSkipDuplicates() {
+        // Arrange
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+
+        // Act
+        cardLockService.lock(7L, 3L, 7L);
+
+        // Assert
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("SET LOCAL lock_timeout = '5000ms'");
+        order.verify(jdbcTemplate).query(eq("SELECT pg_advisory_xact_lock(?)"), any(ResultSetExtractor.class), eq(3L));
+        order.verify(jdbcTemplate).query(eq("SELECT pg_advisory_xact_lock(?)"), any(ResultSetExtractor.class), eq(7L));
+        order.verifyNoMoreInteractions();
+        assertThat(meterRegistry.get("cards.lock.wait").tag("outcome", "acquired").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void lock_ShouldEvictLockedCardsFromSecondLevelCache() {
+        // Arrange
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+
+        // Act
+        cardLockService.lock(1L, 2L);
+
+        // Assert
+        verify(cache).evict(Card.class, 1L);
+        verify(cache).evict(Card.class, 2L);
+    }
+
+    @Test
+    void lock_ShouldThrowConflict_WhenLockTimeoutExpires() {
+        // Arrange
+        when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), eq(1L)))
+                .thenThrow(new CannotAcquireLockException("canceling statement due to lock timeout"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> cardLockService.lock(1L, 2L))
+                .isInstanceOf(CardLockTimeoutException.class);
+        verify(jdbcTemplate, never()).query(anyString(), any(ResultSetExtractor.class), eq(2L));
+        verifyNoInteractions(entityManagerFactory);
+        assertThat(meterRegistry.get("cards.lock.wait").tag("outcome", "timeout").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void lock_ShouldDoNothing_WhenNoCardsGiven() {
+        // Act
+        cardLockService.lock();
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate, entityManagerFactory);
+    }
+}
@@ -4,21 +4,33 @@ import com.example.bankcards.dto.request.CardRequest;
 import com.example.bankcards.dto.response.CardResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.CardStatusChange;
 import com.example.bankcards.exception.custom.AccessDeniedException;
 import com.example.bankcards.exception.custom.card.CardNotFoundException;
 import com.example.bankcards.exception.custom.card.InsufficientFundsException;
 import com.example.bankcards.mapper.CardMapper;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardViewRepository;
 import com.example.bankcards.service.impl.CardServiceImpl;
 import com.example.bankcards.util.CardNumberMasker;
 import com.example.bankcards.util.CardStatus;
+import com.example.bankcards.util.ListVersion;
+import com.example.bankcards.util.OutboxEventType;
+import com.example.bankcards.util.SingleFlight;
+import com.example.bankcards.util.UserIdentity;
+import com.example.bankcards.util.VersionedResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.jasypt.encryption.StringEncryptor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -53,6 +65,27 @@ class CardServiceImplTest {
     @Mock
     private CardMapper cardMapper;
 
+    @Mock
+    private WalletSummaryService walletSummaryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CardLockService cardLockService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private CardViewService cardViewService;
+
+    @Mock
+    private CardViewRepository cardViewRepository;
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
     @InjectMocks
     private CardServiceImpl cardService;
 
@@ -103,6 +136,7 @@ class CardServiceImplTest {
 
         cardResponse = CardResponse.builder()
                 .id(1L)
+                .userId(1L)
                 .maskedNumber("**** **** **** 1234")
                 .owner("JOHN DOE")
                 .expiryDate(LocalDate.now().plusYears(2))
@@ -210,6 +244,7 @@ class CardServiceImplTest {
                 .owner("JOHN SMITH")
                 .expiryDate(newExpiryDate)
                 .status(CardStatus.ACTIVE)
+                .user(testUser)
                 .build();
 
         CardResponse updatedResponse = CardResponse.builder()
@@ -230,6 +265,8 @@ class CardServiceImplTest {
         assertThat(result.getOwner()).isEqualTo("JOHN SMITH");
         assertThat(result.getExpiryDate()).isEqualTo(newExpiryDate);
         verify(cardRepository).save(any(Card.class));
+        // Дельта адресуется владельцу сохраненной карты, поэтому фикстура карты несет пользователя
+        verify(eventPublisher).publishEvent(new CardChangedEvent(testUser.getId(), updatedResponse));
     }
 
     @Test
@@ -243,6 +280,7 @@ class CardServiceImplTest {
                 .owner("JOHN DOE")
                 .expiryDate(LocalDate.now().minusDays(1))
                 .status(CardStatus.EXPIRED)
+                .user(testUser)
                 .build();
 
         when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
@@ -300,6 +338,49 @@ class CardServiceImplTest {
                 card.getStatus() == CardStatus.BLOCKED));
     }
 
+    @Test
+    void blockCard_ShouldPublishCardChangeForOwner() {
+        // Arrange
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        when(cardRepository.save(any(Card.class))).thenReturn(testCard);
+        when(cardMapper.toDto(testCard)).thenReturn(cardResponse);
+
+        // Act
+        cardService.blockCard(1L);
+
+        // Assert
+        verify(eventPublisher).publishEvent(new CardChangedEvent(testUser.getId(), cardResponse));
+    }
+
+    @Test
+    void blockCard_ShouldAppendStatusChangeToOutbox() {
+        // Arrange
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        when(cardRepository.save(any(Card.class))).thenReturn(testCard);
+        when(cardMapper.toDto(testCard)).thenReturn(cardResponse);
+
+        // Act
+        cardService.blockCard(1L);
+
+        // Assert
+        verify(outboxService).append(OutboxEventType.CARD_STATUS_CHANGED, 1L,
+                new CardStatusChange(1L, 1L, CardStatus.ACTIVE, CardStatus.BLOCKED, false, false));
+    }
+
+    @Test
+    void updateCard_ShouldNotAppendToOutbox_WhenStatusUnchanged() {
+        // Arrange
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        when(cardRepository.save(any(Card.class))).thenReturn(testCard);
+        when(cardMapper.toDto(testCard)).thenReturn(cardResponse);
+
+        // Act
+        cardService.updateCard(1L, cardRequest);
+
+        // Assert
+        verifyNoInteractions(outboxService);
+    }
+
     @Test
     void activateCard_ShouldSetStatusToActive_WhenCardNotExpired() {
         // Arrange
@@ -334,21 +415,26 @@ class CardServiceImplTest {
     }
 
     @Test
-    void deleteCard_ShouldDeleteCard_WhenCardExists() {
+    void deleteCard_ShouldTombstoneCard_WhenCardExists() {
         // Arrange
-        when(cardRepository.existsById(1L)).thenReturn(true);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
 
         // Act
         cardService.deleteCard(1L);
 
         // Assert
-        verify(cardRepository).deleteById(1L);
+        assertThat(testCard.getDeletedAt()).isNotNull();
+        verify(cardRepository, never()).delete(any(Card.class));
+        verify(walletSummaryService).recordCardChange(eq(1L), any(WalletSummaryService.CardState.class), isNull());
+        verify(cardViewService).markStale(1L);
+        verify(outboxService).append(OutboxEventType.CARD_STATUS_CHANGED, 1L,
+                new CardStatusChange(1L, 1L, testCard.getStatus(), testCard.getStatus(), false, true));
     }
 
     @Test
     void deleteCard_ShouldThrowException_WhenCardNotExists() {
         // Arrange
-        when(cardRepository.existsById(1L)).thenReturn(false);
+        when(cardRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> cardService.deleteCard(1L))
@@ -390,46 +476,118 @@ class CardServiceImplTest {
         User anotherUser = User.builder().id(999L).role(User.Role.USER).build();
         when(userService.getCurrentUserEntity()).thenReturn(anotherUser);
         when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        when(cardMapper.toDto(testCard)).thenReturn(cardResponse);
 
         // Act & Assert
         assertThatThrownBy(() -> cardService.getCardById(1L))
                 .isInstanceOf(AccessDeniedException.class);
     }
 
+    @Test
+    void getVersionedCard_ShouldVersionTheReturnedBody_WhenUserIsOwner() {
+        // Arrange
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 15, 10, 30);
+        CardResponse card = CardResponse.builder().id(1L).userId(1L).updatedAt(updatedAt).build();
+        when(userService.getCurrentUserIdentity()).thenReturn(new UserIdentity(1L, User.Role.USER));
+        when(cardRepository.findResponseById(1L)).thenReturn(Optional.of(card));
+
+        // Act
+        VersionedResponse<CardResponse> result = cardService.getVersionedCard(1L);
+
+        // Assert - тело и ETag из одной выборки мимо L2
+        assertThat(result.body()).isSameAs(card);
+        assertThat(result.version().eTag()).startsWith("\"").endsWith("\"");
+        assertThat(result.version().lastModified()).isEqualTo(updatedAt);
+        verify(cardRepository, never()).findById(any());
+        verify(userService, never()).getCurrentUserEntity();
+        verifyNoInteractions(cardMapper);
+    }
+
+    @Test
+    void getVersionedCard_ShouldChangeETag_WhenCardIsUpdated() {
+        // Arrange
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 15, 10, 30);
+        when(userService.getCurrentUserIdentity()).thenReturn(new UserIdentity(1L, User.Role.USER));
+        when(cardRepository.findResponseById(1L)).thenReturn(
+                Optional.of(CardResponse.builder().id(1L).userId(1L).updatedAt(updatedAt).build()),
+                Optional.of(CardResponse.builder().id(1L).userId(1L).updatedAt(updatedAt.plusSeconds(1)).build()));
+
+        // Act
+        String before = cardService.getVersionedCard(1L).version().eTag();
+        String after = cardService.getVersionedCard(1L).version().eTag();
+
+        // Assert
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    void getVersionedCard_ShouldThrowAccessDenied_WhenUserNotOwnerAndNotAdmin() {
+        // Arrange
+        when(userService.getCurrentUserIdentity()).thenReturn(new UserIdentity(999L, User.Role.USER));
+        when(cardRepository.findResponseById(1L)).thenReturn(
+                Optional.of(CardResponse.builder().id(1L).userId(1L).updatedAt(LocalDateTime.now()).build()));
+
+        // Act & Assert
+        assertThatThrownBy(() -> cardService.getVersionedCard(1L))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void getVersionedUserCards_ShouldReadVersionBeforePage() {
+        // Arrange
+        LocalDateTime projectedAt = LocalDateTime.of(2024, 1, 15, 10, 30);
+        Page<CardResponse> page = new PageImpl<>(List.of(cardResponse));
+        when(userService.getCurrentUserIdentity()).thenReturn(new UserIdentity(1L, User.Role.USER));
+        when(cardViewRepository.findListVersionByUserId(1L)).thenReturn(new ListVersion(3L, projectedAt));
+        when(cardViewRepository.findByUserId(eq(1L), any(Pageable.class))).thenReturn(page);
+
+        // Act
+        VersionedResponse<Page<CardResponse>> firstPage = cardService.getVersionedUserCards(PageRequest.of(0, 10));
+        VersionedResponse<Page<CardResponse>> secondPage = cardService.getVersionedUserCards(PageRequest.of(1, 10));
+
+        // Assert - версия читается первой: проекция между запросами делает тело новее ETag, а не наоборот
+        InOrder inOrder = inOrder(cardViewRepository);
+        inOrder.verify(cardViewRepository).findListVersionByUserId(1L);
+        inOrder.verify(cardViewRepository).findByUserId(1L, PageRequest.of(0, 10));
+        assertThat(firstPage.body()).isSameAs(page);
+        assertThat(firstPage.version().eTag()).isNotEqualTo(secondPage.version().eTag());
+        verifyNoInteractions(cardRepository);
+    }
+
     @Test
     void getUserCards_ShouldReturnAllCards_WhenUserIsAdmin() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Card> cardPage = new PageImpl<>(List.of(testCard));
+        Page<CardResponse> cardPage = new PageImpl<>(List.of(cardResponse));
 
         when(userService.getCurrentUserEntity()).thenReturn(adminUser);
-        when(cardRepository.findAll(pageable)).thenReturn(cardPage);
-        when(cardMapper.toDto(testCard)).thenReturn(cardResponse);
+        when(cardViewRepository.findAllResponses(pageable)).thenReturn(cardPage);
 
         // Act
         Page<CardResponse> result = cardService.getUserCards(pageable);
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        verify(cardRepository).findAll(pageable);
+        verify(cardViewRepository).findAllResponses(pageable);
+        verifyNoInteractions(cardRepository);
     }
 
     @Test
     void getUserCards_ShouldReturnUserCards_WhenUserIsRegular() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Card> cardPage = new PageImpl<>(List.of(testCard));
+        Page<CardResponse> cardPage = new PageImpl<>(List.of(cardResponse));
 
         when(userService.getCurrentUserEntity()).thenReturn(testUser);
-        when(cardRepository.findByUserId(1L, pageable)).thenReturn(cardPage);
-        when(cardMapper.toDto(testCard)).thenReturn(cardResponse);
+        when(cardViewRepository.findByUserId(1L, pageable)).thenReturn(cardPage);
 
         // Act
         Page<CardResponse> result = cardService.getUserCards(pageable);
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        verify(cardRepository).findByUserId(1L, pageable);
+        verify(cardViewRepository).findByUserId(1L, pageable);
+        verifyNoInteractions(cardRepository);
     }
 
     @Test
@@ -444,6 +602,10 @@ class CardServiceImplTest {
         // Assert
         verify(cardRepository).save(argThat(card ->
                 card.getBalance().equals(BigDecimal.valueOf(1500.00))));
+        verify(walletSummaryService).recordCardChange(1L,
+                new WalletSummaryService.CardState(BigDecimal.valueOf(1000.00), CardStatus.ACTIVE, false),
+                new WalletSummaryService.CardState(BigDecimal.valueOf(1500.00), CardStatus.ACTIVE, false));
+        verify(cardViewService).markStale(1L);
     }
 
     @Test
@@ -474,8 +636,7 @@ class CardServiceImplTest {
     @Test
     void isCardActive_ShouldReturnTrue_WhenCardIsActive() {
         // Arrange
-        testCard.setStatus(CardStatus.ACTIVE);
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        when(cardRepository.findStatusById(1L)).thenReturn(Optional.of(CardStatus.ACTIVE));
 
         // Act
         boolean result = cardService.isCardActive(1L);
@@ -487,8 +648,7 @@ class CardServiceImplTest {
     @Test
     void isCardActive_ShouldReturnFalse_WhenCardIsBlocked() {
         // Arrange
-        testCard.setStatus(CardStatus.BLOCKED);
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        when(cardRepository.findStatusById(1L)).thenReturn(Optional.of(CardStatus.BLOCKED));
 
         // Act
         boolean result = cardService.isCardActive(1L);
@@ -497,6 +657,18 @@ class CardServiceImplTest {
         assertThat(result).isFalse();
     }
 
+    @Test
+    void isCardActive_ShouldThrowException_WhenCardTombstoned() {
+        // Arrange
+        // SQLRestriction отсекает надгробие в самом запросе, даже если L2 узла еще держит карту
+        when(cardRepository.findStatusById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThatThrownBy(() -> cardService.isCardActive(1L))
+                .isInstanceOf(CardNotFoundException.class);
+        verify(cardRepository, never()).findById(1L);
+    }
+
     @Test
     void findCardEntityById_ShouldThrowException_WhenCardNotFound() {
         // Arrange
@@ -0,0 +1,137 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.service.impl.CardViewServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardViewServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardViewServiceImpl cardViewService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cardViewService = new CardViewServiceImpl(jdbcTemplate, schedulerLockService, meterRegistry);
+        ReflectionTestUtils.setField(cardViewService, "batchSize", 2);
+        ReflectionTestUtils.setField(cardViewService, "maxStaleness", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(cardViewService, "lockLease", Duration.ofSeconds(30));
+    }
+
+    @Test
+    void markStale_ShouldQueueCardForProjection() {
+        // Act
+        cardViewService.markStale(5L);
+
+        // Assert
+        verify(jdbcTemplate).update(contains("INSERT INTO card_view_refresh"), eq(5L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void projectPending_ShouldProjectWhileBatchesAreFull() {
+        // Arrange - отставание каждой спроецированной отметки приходит из базы
+        when(schedulerLockService.tryAcquire(eq("card-view-projector"), any())).thenReturn(true);
+        when(jdbcTemplate.query(contains("INSERT INTO card_view"), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of(1000L, 1000L), List.of(1000L));
+
+        // Act
+        int projected = cardViewService.projectPending();
+
+        // Assert
+        assertThat(projected).isEqualTo(3);
+        verify(jdbcTemplate, times(2)).query(contains("FOR UPDATE SKIP LOCKED"), any(RowMapper.class), eq(2));
+        assertThat(meterRegistry.get("cards.view.projected").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("cards.view.staleness").timer().count()).isEqualTo(3);
+        verify(schedulerLockService).release("card-view-projector");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void projectPending_ShouldReportChangesPendingBeyondStalenessBound() {
+        // Arrange
+        when(schedulerLockService.tryAcquire(eq("card-view-projector"), any())).thenReturn(true);
+        when(jdbcTemplate.query(contains("INSERT INTO card_view"), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(contains("clock_timestamp() - MIN(requested_at)"), eq(Long.class)))
+                .thenReturn(30_000L);
+
+        // Act
+        cardViewService.projectPending();
+
+        // Assert
+        assertThat(meterRegistry.get("cards.view.lag").gauge().value()).isGreaterThanOrEqualTo(30);
+        assertThat(meterRegistry.get("cards.view.staleness.exceeded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void projectPending_ShouldNotReportStaleness_WhenQueueIsEmpty() {
+        // Arrange
+        when(schedulerLockService.tryAcquire(eq("card-view-projector"), any())).thenReturn(true);
+        when(jdbcTemplate.query(contains("INSERT INTO card_view"), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(contains("clock_timestamp() - MIN(requested_at)"), eq(Long.class)))
+                .thenReturn(null);
+
+        // Act
+        cardViewService.projectPending();
+
+        // Assert
+        assertThat(meterRegistry.get("cards.view.lag").gauge().value()).isZero();
+        assertThat(meterRegistry.get("cards.view.staleness.exceeded").counter().count()).isZero();
+    }
+
+    @Test
+    void projectPending_ShouldSkip_WhenAnotherNodeHoldsTheLease() {
+        // Arrange
+        when(schedulerLockService.tryAcquire(eq("card-view-projector"), any())).thenReturn(false);
+
+        // Act
+        int projected = cardViewService.projectPending();
+
+        // Assert
+        assertThat(projected).isZero();
+        verifyNoInteractions(jdbcTemplate);
+        verify(schedulerLockService, never()).release(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void projectPending_ShouldStampProjectionAboveCurrentMaximum() {
+        // Arrange
+        when(schedulerLockService.tryAcquire(eq("card-view-projector"), any())).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(2))).thenReturn(List.of());
+
+        // Act
+        cardViewService.projectPending();
+
+        // Assert - версия списка растет, даже если часы прошлого проектора были впереди
+        verify(jdbcTemplate).query(contains("GREATEST(LOCALTIMESTAMP, MAX(projected_at) + INTERVAL '1 microsecond')"),
+                any(RowMapper.class), eq(2));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.event.CardStatusChange;
+import com.example.bankcards.event.InMemoryOutboxSink;
+import com.example.bankcards.event.OutboxEvent;
+import com.example.bankcards.event.OutboxSink;
+import com.example.bankcards.service.impl.OutboxServiceImpl;
+import com.example.bankcards.util.CardStatus;
+import com.example.bankcards.util.OutboxEventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryOutboxSink sink;
+    private OutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void setUp() {
+        sink = new InMemoryOutboxSink();
+        outboxService = newService(sink);
+    }
+
+    @Test
+    void append_ShouldStoreSerializedPayloadKeyedByCard() {
+        // Arrange
+        CardStatusChange change = new CardStatusChange(5L, 1L, CardStatus.ACTIVE, CardStatus.BLOCKED, false, false);
+
+        // Act
+        outboxService.append(OutboxEventType.CARD_STATUS_CHANGED, 5L, change);
+
+        // Assert
+        verify(jdbcTemplate).update(contains("INSERT INTO outbox_events"), eq(5L), eq("CARD_STATUS_CHANGED"),
+                contains("\"previousStatus\":\"ACTIVE\",\"status\":\"BLOCKED\""));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishPending_ShouldPublishBatchAndMarkItPublished() {
+        // Arrange
+        List<OutboxEvent> batch = List.of(event(1L, 5L), event(2L, 5L));
+        when(jdbcTemplate.query(contains("FOR UPDATE SKIP LOCKED"), any(RowMapper.class), eq(2)))
+                .thenReturn(batch, List.of());
+
+        // Act
+        int published = outboxService.publishPending();
+
+        // Assert
+        assertThat(published).isEqualTo(2);
+        assertThat(sink.getPublished()).extracting(OutboxEvent::id).containsExactly(1L, 2L);
+        verify(jdbcTemplate).batchUpdate(contains("SET published_at"), anyList());
+        assertThat(meterRegistry.get("outbox.published").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishPending_ShouldLeaveBatchUnpublished_WhenSinkFails() {
+        // Arrange
+        OutboxSink failingSink = mock(OutboxSink.class);
+        outboxService = newService(failingSink);
+        when(jdbcTemplate.query(contains("FOR UPDATE SKIP LOCKED"), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of(event(1L, 5L)));
+        doThrow(new IllegalStateException("sink unavailable")).when(failingSink).publish(anyList());
+
+        // Act
+        int published = outboxService.publishPending();
+
+        // Assert
+        assertThat(published).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(transactionManager).rollback(any());
+        assertThat(meterRegistry.get("outbox.publish.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishPending_ShouldReportLagOfOldestPendingEvent() {
+        // Arrange
+        when(jdbcTemplate.query(contains("FOR UPDATE SKIP LOCKED"), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.query(contains("ORDER BY id LIMIT 1"), any(RowMapper.class)))
+                .thenReturn(List.of(LocalDateTime.now().minusSeconds(30)));
+
+        // Act
+        outboxService.publishPending();
+
+        // Assert
+        assertThat(meterRegistry.get("outbox.lag").gauge().value()).isGreaterThanOrEqualTo(30);
+    }
+
+    private OutboxServiceImpl newService(OutboxSink outboxSink) {
+        meterRegistry = new SimpleMeterRegistry();
+        OutboxServiceImpl service = new OutboxServiceImpl(
+                jdbcTemplate, transactionManager, outboxSink, new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        return service;
+    }
+
+    private static OutboxEvent event(Long id, Long cardId) {
+        return new OutboxEvent(id, cardId, "TRANSFER_COMPLETED", "{}", LocalDateTime.now().minusSeconds(1));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.SqlStatementContext;
+import com.example.bankcards.config.SqlStatementStats;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Проверки бюджета SQL для тестов сервисов: SqlBudget.of("createTransfer", () -> ...).hasStatementsAtMost(4)
+public final class SqlBudget {
+
+    private final SqlStatementStats stats;
+
+    private SqlBudget(SqlStatementStats stats) {
+        this.stats = stats;
+    }
+
+    public static SqlBudget of(String name, Runnable action) {
+        return new SqlBudget(SqlStatementContext.measure(name, action));
+    }
+
+    public SqlBudget hasStatementsAtMost(int max) {
+        assertThat(stats.getStatements()).as("statements of %s", stats).isLessThanOrEqualTo(max);
+        return this;
+    }
+
+    public SqlBudget hasRowsAtMost(long max) {
+        assertThat(stats.getRows()).as("rows of %s", stats).isLessThanOrEqualTo(max);
+        return this;
+    }
+
+    public SqlBudget hasJdbcTimeAtMost(Duration max) {
+        assertThat(stats.getJdbcTime()).as("JDBC time of %s", stats).isLessThanOrEqualTo(max);
+        return this;
+    }
+
+    public SqlStatementStats stats() {
+        return stats;
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.StatementProperties;
+import com.example.bankcards.dto.response.StatementRunResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.custom.statement.StatementRunInProgressException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.impl.StatementServiceImpl;
+import com.example.bankcards.util.CardStatus;
+import com.example.bankcards.util.StatementFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Сканирование идет параллельно в собственных транзакциях, поэтому тестовая транзакция отключена
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Slf4j
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StatementServiceImplTest {
+
+    private static final int CARDS = 40;
+    private static final int TRANSFERS = 400;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @TempDir
+    Path outputDir;
+
+    private final SchedulerLockService schedulerLockService = mock(SchedulerLockService.class);
+    private final List<ForkJoinPool> pools = new ArrayList<>();
+
+    private List<Card> cards;
+
+    @BeforeEach
+    void setUp() {
+        when(schedulerLockService.tryAcquire(eq("statement-generator"), any())).thenReturn(true);
+        cards = seed(CARDS, TRANSFERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(ForkJoinPool::shutdownNow);
+        pools.clear();
+        transferRepository.deleteAllInBatch();
+        cardRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void generateMonthlyStatements_ShouldWriteOneFilePerActiveCard() throws IOException {
+        // Act
+        StatementRunResponse result = service(4, 10).generateMonthlyStatements(YearMonth.now(), StatementFormat.CSV);
+
+        // Assert
+        Path dir = outputDir.resolve(YearMonth.now().toString()).resolve("csv");
+        assertThat(result.getCards()).isEqualTo(CARDS);
+        // Каждый перевод попадает в выписку отправителя и получателя
+        assertThat(result.getTransfers()).isEqualTo(TRANSFERS * 2L);
+        try (var files = Files.list(dir)) {
+            assertThat(files.filter(f -> f.toString().endsWith(".csv")).count()).isEqualTo(CARDS);
+        }
+        assertThat(Files.readAllLines(dir.resolve("card-" + cards.get(0).getId() + ".csv")))
+                .first().asString().startsWith("transferId,");
+    }
+
+    @Test
+    void generateMonthlyStatements_ShouldSkipCheckpointedRanges_OnRerun() {
+        // Arrange
+        StatementService service = service(2, 10);
+        StatementRunResponse first = service.generateMonthlyStatements(YearMonth.now(), StatementFormat.CSV);
+
+        // Act
+        StatementRunResponse second = service.generateMonthlyStatements(YearMonth.now(), StatementFormat.CSV);
+
+        // Assert
+        assertThat(first.getSkippedRanges()).isZero();
+        assertThat(second.getSkippedRanges()).isEqualTo(second.getTotalRanges());
+        assertThat(second.getTransfers()).isZero();
+    }
+
+    @Test
+    void generateMonthlyStatements_ShouldWriteReadableBinaryFormat() throws IOException {
+        // Act
+        service(2, 10).generateMonthlyStatements(YearMonth.now(), StatementFormat.BINARY);
+
+        // Assert
+        Long cardId = cards.get(0).getId();
+        Path file = outputDir.resolve(YearMonth.now().toString()).resolve("stmt").resolve("card-" + cardId + ".stmt");
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            assertThat(in.readInt()).isEqualTo(0x53544D54);
+            assertThat(in.readByte()).isEqualTo((byte) 1);
+            assertThat(in.readLong()).isEqualTo(cardId);
+
+            in.readShort();
+            in.readByte();
+            int records = 0;
+            while (in.readByte() == 1) {
+                in.readLong();
+                in.readLong();
+                in.readByte();
+                in.readLong();
+                in.readLong();
+                in.readUTF();
+                records++;
+            }
+            assertThat(in.readInt()).isEqualTo(records).isPositive();
+        }
+    }
+
+    @Test
+    void generateMonthlyStatements_ShouldRejectRun_WhenLeaseHeldElsewhere() {
+        // Arrange
+        when(schedulerLockService.tryAcquire(eq("statement-generator"), any())).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> service(2, 10).generateMonthlyStatements(YearMonth.now(), StatementFormat.CSV))
+                .isInstanceOf(StatementRunInProgressException.class);
+        verify(schedulerLockService, never()).release(any());
+    }
+
+    @Test
+    void startMonthlyStatements_ShouldRunOnRunnerAndReleaseLease() {
+        // Arrange
+        List<Runnable> submitted = new ArrayList<>();
+        StatementService service = new StatementServiceImpl(jdbcTemplate, transactionManager,
+                properties(outputDir, 2, 10), pool(2), submitted::add, schedulerLockService);
+
+        // Act
+        StatementRunResponse accepted = service.startMonthlyStatements(YearMonth.now(), StatementFormat.CSV);
+
+        // Assert
+        // Запрос возвращается до сканирования, аренда удерживается до конца фонового прогона
+        assertThat(accepted.isCompleted()).isFalse();
+        assertThat(submitted).hasSize(1);
+        verify(schedulerLockService, never()).release(any());
+
+        submitted.get(0).run();
+        assertThat(outputDir.resolve(YearMonth.now().toString()).resolve("csv")
+                .resolve("card-" + cards.get(0).getId() + ".csv")).exists();
+        verify(schedulerLockService).release("statement-generator");
+    }
+
+    // mvn test -Dtest=StatementServiceImplTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_ShouldReportThroughputPerCore() {
+        tearDown();
+        seed(2000, 100_000);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            Path dir = outputDir.resolve("p" + parallelism);
+            StatementProperties properties = properties(dir, parallelism, 100);
+            StatementRunResponse result = new StatementServiceImpl(jdbcTemplate, transactionManager, properties,
+                    pool(parallelism), Runnable::run, schedulerLockService)
+                    .generateMonthlyStatements(YearMonth.now(), StatementFormat.BINARY);
+
+            assertThat(result.getTransfers()).isEqualTo(200_000L);
+            double rowsPerSecond = result.getTransfers() * 1000.0 / Math.max(1, result.getDurationMs());
+            log.info("parallelism={} rows={} time={}ms rows/s={} rows/s/core={}",
+                    parallelism, result.getTransfers(), result.getDurationMs(),
+                    Math.round(rowsPerSecond), Math.round(rowsPerSecond / parallelism));
+        }
+    }
+
+    private StatementService service(int parallelism, long rangeSize) {
+        return new StatementServiceImpl(jdbcTemplate, transactionManager,
+                properties(outputDir, parallelism, rangeSize), pool(parallelism), Runnable::run, schedulerLockService);
+    }
+
+    // Пулы закрываются в tearDown, иначе потоки переживают тест
+    private ForkJoinPool pool(int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        pools.add(pool);
+        return pool;
+    }
+
+    private StatementProperties properties(Path dir, int parallelism, long rangeSize) {
+        StatementProperties properties = new StatementProperties();
+        properties.setOutputDir(dir.toString());
+        properties.setParallelism(parallelism);
+        properties.setRangeSize(rangeSize);
+        return properties;
+    }
+
+    private List<Card> seed(int cardCount, int transferCount) {
+        User user = userRepository.save(User.builder()
+                .email("statements@example.com")
+                .password("password")
+                .firstName("Test")
+                .lastName("User")
+                .role(User.Role.USER)
+                .build());
+
+        List<Card> newCards = new ArrayList<>();
+        for (int i = 0; i < cardCount; i++) {
+            newCards.add(Card.builder()
+                    .cardNumber("encrypted_" + i)
+                    .maskedNumber("**** **** **** " + String.format("%04d", i))
+                    .owner("TEST USER")
+                    .expiryDate(LocalDate.now().plusYears(2))
+                    .status(CardStatus.ACTIVE)
+                    .requestedBlock(false)
+                    .balance(BigDecimal.valueOf(1000))
+                    .user(user)
+                    .build());
+        }
+        List<Card> saved = cardRepository.saveAll(newCards);
+
+        List<Transfer> transfers = new ArrayList<>();
+        for (int i = 0; i < transferCount; i++) {
+            transfers.add(Transfer.builder()
+                    .fromCard(saved.get(i % cardCount))
+                    .toCard(saved.get((i + 1) % cardCount))
+                    .amount(BigDecimal.valueOf(10.50))
+                    .description("Transfer " + i)
+                    .user(user)
+                    .build());
+        }
+        transferRepository.saveAll(transfers);
+        return saved;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserWalletSummary;
+import com.example.bankcards.service.impl.TombstonePurgeServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TombstonePurgeServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TombstonePurgeServiceImpl purgeService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        purgeService = new TombstonePurgeServiceImpl(
+                jdbcTemplate, transactionManager, schedulerLockService, entityManagerFactory, meterRegistry);
+        ReflectionTestUtils.setField(purgeService, "chunkSize", 2);
+        ReflectionTestUtils.setField(purgeService, "pauseBetweenChunks", Duration.ZERO);
+        ReflectionTestUtils.setField(purgeService, "lockLease", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(purgeService, "lockTimeout", Duration.ofSeconds(2));
+    }
+
+    @Test
+    void purgeTombstoned_ShouldSkipRun_WhenAnotherNodeHoldsLock() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("tombstone-purger", Duration.ofMinutes(10))).thenReturn(false);
+
+        // Act
+        long result = purgeService.purgeTombstoned();
+
+        // Assert
+        assertThat(result).isZero();
+        verifyNoInteractions(jdbcTemplate);
+        verify(schedulerLockService, never()).release(anyString());
+    }
+
+    @Test
+    void purgeTombstoned_ShouldDrainTransfersArchiveThenCardsThenUsers() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("tombstone-purger", Duration.ofMinutes(10))).thenReturn(true);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(jdbcTemplate.update(contains("DELETE FROM transfers"), eq(2), eq(2)))
+                .thenReturn(3)
+                .thenReturn(1)
+                .thenReturn(0);
+        when(jdbcTemplate.update(contains("DELETE FROM transfers_archive"), eq(2), eq(2)))
+                .thenReturn(2)
+                .thenReturn(0);
+        when(jdbcTemplate.queryForList(contains("DELETE FROM cards"), eq(Long.class), eq(2)))
+                .thenReturn(List.of(10L, 11L))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(contains("DELETE FROM users"), eq(Long.class), eq(2)))
+                .thenReturn(List.of(1L))
+                .thenReturn(List.of());
+
+        // Act
+        long result = purgeService.purgeTombstoned();
+
+        // Assert
+        assertThat(result).isEqualTo(9);
+        assertThat(meterRegistry.counter("purge.tombstoned.deleted", "table", "transfers").count()).isEqualTo(4);
+        assertThat(meterRegistry.counter("purge.tombstoned.deleted", "table", "transfers_archive").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("purge.tombstoned.deleted", "table", "cards").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("purge.tombstoned.deleted", "table", "users").count()).isEqualTo(1);
+        verify(cache).evict(Card.class, 10L);
+        verify(cache).evict(Card.class, 11L);
+        verify(cache).evict(User.class, 1L);
+        verify(cache).evict(UserWalletSummary.class, 1L);
+        verify(schedulerLockService).release("tombstone-purger");
+    }
+
+    @Test
+    void purgeTombstoned_ShouldMoveOnAndReleaseLock_WhenRowLockTimesOut() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("tombstone-purger", Duration.ofMinutes(10))).thenReturn(true);
+        when(jdbcTemplate.update(contains("DELETE FROM transfers"), eq(2), eq(2)))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of());
+
+        // Act
+        long result = purgeService.purgeTombstoned();
+
+        // Assert
+        assertThat(result).isZero();
+        verify(schedulerLockService).release("tombstone-purger");
+    }
+
+    @Test
+    void purgeTombstoned_ShouldKeepCounterpartyHistory() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("tombstone-purger", Duration.ofMinutes(10))).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), eq(2), eq(2))).thenReturn(0);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of());
+
+        // Act
+        purgeService.purgeTombstoned();
+
+        // Assert
+        // Снимаются только переводы владельца удаленной карты; карта с чужими переводами не удаляется
+        verify(jdbcTemplate).update(
+                argThat((String sql) -> sql.startsWith("WITH doomed") && sql.contains("t.user_id = c.user_id")), eq(2), eq(2));
+        verify(jdbcTemplate).update(
+                argThat((String sql) -> sql.startsWith("DELETE FROM transfers_archive") && sql.contains("a.user_id = c.user_id")),
+                eq(2), eq(2));
+        verify(jdbcTemplate).queryForList(contains("NOT EXISTS (SELECT 1 FROM transfers t WHERE t.to_card_id = c.id)"),
+                eq(Long.class), eq(2));
+    }
+}
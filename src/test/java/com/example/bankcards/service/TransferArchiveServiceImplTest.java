@@ -0,0 +1,120 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.service.impl.TransferArchiveServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferArchiveServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @InjectMocks
+    private TransferArchiveServiceImpl archiveService;
+
+    private LocalDateTime cutoff;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(archiveService, "ageMonths", 12);
+        ReflectionTestUtils.setField(archiveService, "chunkSize", 2);
+        ReflectionTestUtils.setField(archiveService, "pauseBetweenChunks", Duration.ZERO);
+        ReflectionTestUtils.setField(archiveService, "maxRunTime", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(archiveService, "lockLease", Duration.ofMinutes(45));
+        ReflectionTestUtils.setField(archiveService, "lockTimeout", Duration.ofSeconds(2));
+        cutoff = YearMonth.now().minusMonths(12).atDay(1).atStartOfDay();
+    }
+
+    @Test
+    void archiveClosedPeriods_ShouldSkipRun_WhenAnotherNodeHoldsLock() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("transfer-archiver", Duration.ofMinutes(45))).thenReturn(false);
+
+        // Act
+        long moved = archiveService.archiveClosedPeriods();
+
+        // Assert
+        assertThat(moved).isZero();
+        verifyNoInteractions(jdbcTemplate);
+        verify(schedulerLockService, never()).release(anyString());
+    }
+
+    @Test
+    void archiveClosedPeriods_ShouldMoveChunksUntilShortChunk() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("transfer-archiver", Duration.ofMinutes(45))).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), eq(cutoff), eq(2), eq(cutoff))).thenReturn(2, 2, 1);
+
+        // Act
+        long moved = archiveService.archiveClosedPeriods();
+
+        // Assert
+        // Каждая пачка - отдельная транзакция со своим lock_timeout
+        assertThat(moved).isEqualTo(5);
+        verify(jdbcTemplate, times(3)).execute("SET LOCAL lock_timeout = '2000ms'");
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void archiveClosedPeriods_ShouldMoveOnlyWholeMonthsOlderThanAge() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("transfer-archiver", Duration.ofMinutes(45))).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), any(), any(), any())).thenReturn(0);
+
+        // Act
+        archiveService.archiveClosedPeriods();
+
+        // Assert
+        verify(jdbcTemplate).update(archiveMoveSql(), eq(cutoff), eq(2), eq(cutoff));
+    }
+
+    @Test
+    void archiveClosedPeriods_ShouldStopAndKeepProgress_WhenLockTimesOut() {
+        // Arrange
+        when(schedulerLockService.tryAcquire("transfer-archiver", Duration.ofMinutes(45))).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), eq(cutoff), eq(2), eq(cutoff)))
+                .thenReturn(2)
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        // Act
+        long moved = archiveService.archiveClosedPeriods();
+
+        // Assert
+        // Первая пачка уже зафиксирована, вторая откатывается целиком
+        assertThat(moved).isEqualTo(2);
+        verify(transactionManager).commit(any());
+        verify(transactionManager).rollback(any());
+        verify(schedulerLockService).release("transfer-archiver");
+    }
+
+    private String archiveMoveSql() {
+        return argThat(sql -> sql.contains("DELETE FROM transfers") &&
+                sql.contains("INSERT INTO transfers_archive") &&
+                sql.contains("FOR UPDATE SKIP LOCKED"));
+    }
+}
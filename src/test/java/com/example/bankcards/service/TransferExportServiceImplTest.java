@@ -0,0 +1,181 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.request.TransferExportFilter;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.custom.AccessDeniedException;
+import com.example.bankcards.service.impl.TransferExportServiceImpl;
+import com.example.bankcards.util.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferExportServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private CardService cardService;
+
+    private TransferExportServiceImpl exportService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new TransferExportServiceImpl(jdbcTemplate, transactionManager, userService, cardService,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        user = User.builder().id(7L).role(User.Role.USER).build();
+        when(userService.getCurrentUserEntity()).thenReturn(user);
+    }
+
+    @Test
+    void exportTransfers_ShouldStreamCsvWithEscapedValues() throws Exception {
+        // Arrange
+        stubRows(List.of(
+                row(1L, "Rent", "**** 1111"),
+                row(2L, "Dinner, \"Friday\"", null)));
+
+        // Act
+        String csv = new String(write(exportService.exportTransfers(new TransferExportFilter())), StandardCharsets.UTF_8);
+
+        // Assert
+        assertThat(csv.split("\n")).containsExactly(
+                "id,fromCardId,fromCardMasked,toCardId,toCardMasked,amount,description,createdAt,userId",
+                "1,10,**** 1111,20,**** 2222,100.50,Rent,2025-01-15T10:30,7",
+                "2,10,,20,**** 2222,100.50,\"Dinner, \"\"Friday\"\"\",2025-01-15T10:30,7");
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void exportTransfers_ShouldStreamNdjsonLines() throws Exception {
+        // Arrange
+        stubRows(List.of(row(1L, "Rent", "**** 1111"), row(2L, "Dinner", "**** 1111")));
+        TransferExportFilter filter = TransferExportFilter.builder().format(ExportFormat.NDJSON).build();
+
+        // Act
+        String ndjson = new String(write(exportService.exportTransfers(filter)), StandardCharsets.UTF_8);
+
+        // Assert
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").contains("\"id\":1", "\"description\":\"Rent\"");
+        assertThat(lines[1]).contains("\"id\":2");
+    }
+
+    @Test
+    void exportTransfers_ShouldCompressOutput_WhenGzipRequested() throws Exception {
+        // Arrange
+        stubRows(List.of(row(1L, "Rent", "**** 1111")));
+        TransferExportFilter filter = TransferExportFilter.builder().gzip(true).build();
+
+        // Act
+        byte[] compressed = write(exportService.exportTransfers(filter));
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(csv).startsWith("id,fromCardId").contains("1,10,**** 1111");
+        }
+    }
+
+    @Test
+    void exportTransfers_ShouldUseCursorFetchAndScopeToCurrentUser() throws Exception {
+        // Arrange
+        stubRows(List.of());
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+
+        // Act
+        write(exportService.exportTransfers(new TransferExportFilter()));
+
+        // Assert
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creator.capture(), any(RowCallbackHandler.class));
+        creator.getValue().createPreparedStatement(connection);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture(),
+                eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY));
+        assertThat(sql.getValue()).contains("t.user_id = ?").endsWith("ORDER BY t.created_at, t.id");
+        verify(statement).setFetchSize(500);
+        verify(statement).setObject(1, 7L);
+    }
+
+    @Test
+    void exportTransfers_ShouldThrowAccessDenied_WhenCardBelongsToAnotherUser() {
+        // Arrange
+        when(cardService.isCardBelongsToUser(5L, user)).thenReturn(false);
+        TransferExportFilter filter = TransferExportFilter.builder().cardId(5L).build();
+
+        // Act & Assert
+        assertThatThrownBy(() -> exportService.exportTransfers(filter))
+                .isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void stubRows(List<ResultSet> rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : rows) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private static byte[] write(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static ResultSet row(Long id, String description, String fromMasked) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getLong("from_card_id")).thenReturn(10L);
+        when(rs.getString("from_masked")).thenReturn(fromMasked);
+        when(rs.getLong("to_card_id")).thenReturn(20L);
+        when(rs.getString("to_masked")).thenReturn("**** 2222");
+        when(rs.getBigDecimal("amount")).thenReturn(new BigDecimal("100.50"));
+        when(rs.getString("description")).thenReturn(description);
+        when(rs.getObject("created_at", LocalDateTime.class)).thenReturn(LocalDateTime.of(2025, 1, 15, 10, 30));
+        when(rs.getLong("user_id")).thenReturn(7L);
+        return rs;
+    }
+}
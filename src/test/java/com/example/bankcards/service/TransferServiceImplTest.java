@@ -1,6 +1,7 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferFeedResponse;
 import com.example.bankcards.dto.response.TransferResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.Transfer;
@@ -10,39 +11,55 @@ import com.example.bankcards.exception.custom.card.CardNotActiveException;
 import com.example.bankcards.exception.custom.card.InsufficientFundsException;
 import com.example.bankcards.exception.custom.card.SameCardTransferException;
 import com.example.bankcards.exception.custom.transfer.TransferNotFoundException;
+import com.example.bankcards.exception.custom.transfer.UnsupportedTransferSortException;
 import com.example.bankcards.mapper.TransferMapper;
+import com.example.bankcards.repository.TransferArchiveRepository;
 import com.example.bankcards.repository.TransferRepository;
 import com.example.bankcards.service.impl.TransferServiceImpl;
 import com.example.bankcards.util.CardStatus;
+import com.example.bankcards.util.OutboxEventType;
+import com.example.bankcards.util.SingleFlight;
+import com.example.bankcards.util.TransferCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TransferServiceImplTest {
 
+    private static final Sort HISTORY_SORT = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
     @Mock
     private TransferRepository transferRepository;
 
+    @Mock
+    private TransferArchiveRepository transferArchiveRepository;
+
     @Mock
     private CardService cardService;
 
@@ -52,6 +69,18 @@ class TransferServiceImplTest {
     @Mock
     private TransferMapper transferMapper;
 
+    @Mock
+    private CardLockService cardLockService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private WalletSummaryService walletSummaryService;
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
     @InjectMocks
     private TransferServiceImpl transferService;
 
@@ -84,9 +113,16 @@ class TransferServiceImplTest {
                 .status(CardStatus.ACTIVE)
                 .build();
 
+        User recipient = User.builder()
+                .id(3L)
+                .email("recipient@example.com")
+                .role(User.Role.USER)
+                .build();
+
         toCard = Card.builder()
                 .id(2L)
                 .balance(BigDecimal.valueOf(500.00))
+                .user(recipient)
                 .status(CardStatus.ACTIVE)
                 .build();
 
@@ -114,6 +150,7 @@ class TransferServiceImplTest {
                 .amount(BigDecimal.valueOf(100.00))
                 .description("Test transfer")
                 .createdAt(LocalDateTime.now())
+                .userId(1L)
                 .build();
     }
 
@@ -136,9 +173,12 @@ class TransferServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getAmount()).isEqualTo(BigDecimal.valueOf(100.00));
 
+        verify(cardLockService).lock(1L, 2L);
+        verify(walletSummaryService).lockSummaries(1L, 3L);
         verify(cardService).updateBalance(1L, BigDecimal.valueOf(100.00), false);
         verify(cardService).updateBalance(2L, BigDecimal.valueOf(100.00), true);
         verify(transferRepository).save(any(Transfer.class));
+        verify(outboxService).append(OutboxEventType.TRANSFER_COMPLETED, 1L, transferResponse);
     }
 
     @Test
@@ -225,12 +265,12 @@ class TransferServiceImplTest {
     @Test
     void getUserTransfers_ShouldReturnUserTransfers() {
         // Arrange
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Transfer> transferPage = new PageImpl<>(List.of(transfer));
+        Pageable pageable = PageRequest.of(0, 10, HISTORY_SORT);
+        Page<TransferResponse> transferPage = new PageImpl<>(List.of(transferResponse));
 
         when(userService.getCurrentUserEntity()).thenReturn(testUser);
         when(transferRepository.findByUserId(1L, pageable)).thenReturn(transferPage);
-        when(transferMapper.toDto(transfer)).thenReturn(transferResponse);
+        when(transferArchiveRepository.countByUserId(1L)).thenReturn(0L);
 
         // Act
         Page<TransferResponse> result = transferService.getUserTransfers(pageable);
@@ -240,16 +280,65 @@ class TransferServiceImplTest {
         verify(transferRepository).findByUserId(1L, pageable);
     }
 
+    @Test
+    void getUserTransfers_ShouldApplyHistorySort_WhenRequestUnsorted() {
+        // Arrange
+        when(userService.getCurrentUserEntity()).thenReturn(testUser);
+        when(transferRepository.findByUserId(1L, PageRequest.of(0, 10, HISTORY_SORT)))
+                .thenReturn(new PageImpl<>(List.of(transferResponse)));
+        when(transferArchiveRepository.countByUserId(1L)).thenReturn(0L);
+
+        // Act
+        Page<TransferResponse> result = transferService.getUserTransfers(PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(transferResponse);
+    }
+
+    @Test
+    void getUserTransfers_ShouldApplyRequestedSortToBothTables_WhenSortedByAmount() {
+        // Arrange
+        Pageable requested = PageRequest.of(0, 10, Sort.by("amount"));
+        Sort byAmount = Sort.by("amount").and(Sort.by(Sort.Direction.DESC, "id"));
+        Pageable pageable = PageRequest.of(0, 10, byAmount);
+        TransferResponse archived = TransferResponse.builder().id(100L).userId(1L).build();
+
+        when(userService.getCurrentUserEntity()).thenReturn(testUser);
+        when(transferRepository.findByUserId(1L, pageable))
+                .thenReturn(new PageImpl<>(List.of(transferResponse), pageable, 1));
+        when(transferArchiveRepository.countByUserId(1L)).thenReturn(1L);
+        when(transferArchiveRepository.findByUserId(eq(1L), argThat(archivePage ->
+                archivePage.getOffset() == 0 && archivePage.getSort().equals(byAmount))))
+                .thenReturn(List.of(archived));
+
+        // Act
+        Page<TransferResponse> result = transferService.getUserTransfers(requested);
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(transferResponse, archived);
+    }
+
+    @Test
+    void getUserTransfers_ShouldRejectSort_WhenPropertyMissingInArchive() {
+        // Arrange
+        Pageable byOwner = PageRequest.of(0, 10, Sort.by("user"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> transferService.getUserTransfers(byOwner))
+                .isInstanceOf(UnsupportedTransferSortException.class);
+        verifyNoInteractions(transferRepository, transferArchiveRepository);
+    }
+
     @Test
     void getCardTransfers_ShouldReturnTransfers_WhenUserOwnsCard() {
         // Arrange
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Transfer> transferPage = new PageImpl<>(List.of(transfer));
+        Pageable pageable = PageRequest.of(0, 10, HISTORY_SORT);
+        Page<TransferResponse> transferPage = new PageImpl<>(List.of(transferResponse));
 
         when(userService.getCurrentUserEntity()).thenReturn(testUser);
         when(cardService.isCardBelongsToUser(1L, testUser)).thenReturn(true);
         when(transferRepository.findByUserIdAndCardId(1L, 1L, pageable)).thenReturn(transferPage);
-        when(transferMapper.toDto(transfer)).thenReturn(transferResponse);
+        when(transferArchiveRepository.countByUserIdAndCardId(1L, 1L)).thenReturn(0L);
 
         // Act
         Page<TransferResponse> result = transferService.getCardTransfers(1L, pageable);
@@ -261,12 +350,12 @@ class TransferServiceImplTest {
     @Test
     void getCardTransfers_ShouldReturnTransfers_WhenUserIsAdmin() {
         // Arrange
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Transfer> transferPage = new PageImpl<>(List.of(transfer));
+        Pageable pageable = PageRequest.of(0, 10, HISTORY_SORT);
+        Page<TransferResponse> transferPage = new PageImpl<>(List.of(transferResponse));
 
         when(userService.getCurrentUserEntity()).thenReturn(adminUser);
         when(transferRepository.findByUserIdAndCardId(2L, 1L, pageable)).thenReturn(transferPage);
-        when(transferMapper.toDto(transfer)).thenReturn(transferResponse);
+        when(transferArchiveRepository.countByUserIdAndCardId(2L, 1L)).thenReturn(0L);
 
         // Act
         Page<TransferResponse> result = transferService.getCardTransfers(1L, pageable);
@@ -324,6 +413,7 @@ class TransferServiceImplTest {
         User anotherUser = User.builder().id(999L).role(User.Role.USER).build();
         when(userService.getCurrentUserEntity()).thenReturn(anotherUser);
         when(transferRepository.findById(1L)).thenReturn(Optional.of(transfer));
+        when(transferMapper.toDto(transfer)).thenReturn(transferResponse);
 
         // Act & Assert
         assertThatThrownBy(() -> transferService.getTransferById(1L))
@@ -335,12 +425,53 @@ class TransferServiceImplTest {
         // Arrange
         when(userService.getCurrentUserEntity()).thenReturn(testUser);
         when(transferRepository.findById(1L)).thenReturn(Optional.empty());
+        when(transferArchiveRepository.findResponseById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> transferService.getTransferById(1L))
                 .isInstanceOf(TransferNotFoundException.class);
     }
 
+    @Test
+    void getTransferById_ShouldFallBackToArchive_WhenNotInLiveTable() {
+        // Arrange
+        when(userService.getCurrentUserEntity()).thenReturn(testUser);
+        when(transferRepository.findById(1L)).thenReturn(Optional.empty());
+        when(transferArchiveRepository.findResponseById(1L)).thenReturn(Optional.of(transferResponse));
+
+        // Act
+        TransferResponse result = transferService.getTransferById(1L);
+
+        // Assert
+        assertThat(result).isSameAs(transferResponse);
+        verifyNoInteractions(transferMapper);
+    }
+
+    @Test
+    void getUserTransfers_ShouldContinueIntoArchive_WhenLiveRowsRunOut() {
+        // Arrange
+        Pageable pageable = PageRequest.of(1, 10, HISTORY_SORT);
+        List<TransferResponse> archived = LongStream.rangeClosed(100, 104)
+                .mapToObj(id -> TransferResponse.builder().id(id).userId(1L).build())
+                .toList();
+        Page<TransferResponse> livePage = new PageImpl<>(List.of(transferResponse), pageable, 11);
+
+        when(userService.getCurrentUserEntity()).thenReturn(testUser);
+        when(transferRepository.findByUserId(1L, pageable)).thenReturn(livePage);
+        when(transferArchiveRepository.countByUserId(1L)).thenReturn(5L);
+        when(transferArchiveRepository.findByUserId(eq(1L), argThat(archivePage ->
+                archivePage.getOffset() == 0 && archivePage.getPageSize() == 9)))
+                .thenReturn(archived);
+
+        // Act
+        Page<TransferResponse> result = transferService.getUserTransfers(pageable);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(6).startsWith(transferResponse);
+        assertThat(result.getContent().subList(1, 6)).containsExactlyElementsOf(archived);
+        assertThat(result.getTotalElements()).isEqualTo(16);
+    }
+
     @Test
     void createTransfer_ShouldHandleZeroAmount() {
         // Arrange
@@ -350,6 +481,7 @@ class TransferServiceImplTest {
         when(cardService.isCardActive(1L)).thenReturn(true);
         when(cardService.isCardActive(2L)).thenReturn(true);
         when(cardService.findCardEntityById(1L)).thenReturn(fromCard);
+        when(cardService.findCardEntityById(2L)).thenReturn(toCard);
         when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
         when(transferMapper.toDto(transfer)).thenReturn(transferResponse);
 
@@ -373,4 +505,87 @@ class TransferServiceImplTest {
         assertThatThrownBy(() -> transferService.createTransfer(transferRequest))
                 .isInstanceOf(com.example.bankcards.exception.custom.AccessDeniedException.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCardTransferFeed_ShouldReturnNextCursor_WhenMoreRowsAvailable() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 10, 12, 0);
+        TransferResponse first = TransferResponse.builder().id(3L).createdAt(createdAt.plusMinutes(1)).build();
+        TransferResponse second = TransferResponse.builder().id(2L).createdAt(createdAt).build();
+
+        when(userService.getCurrentUserEntity()).thenReturn(testUser);
+        when(cardService.isCardBelongsToUser(1L, testUser)).thenReturn(true);
+        when(transferRepository.findCardFeedIds(eq(1L), eq(1L), any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(3)))
+                .thenReturn(List.of(3L, 2L, 1L));
+        when(transferRepository.findResponsesByIdIn(List.of(3L, 2L))).thenReturn(List.of(first, second));
+
+        // Act
+        TransferFeedResponse result = transferService.getCardTransferFeed(1L, null, 2);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(TransferCursor.decode(result.getNextCursor()))
+                .isEqualTo(new TransferCursor(createdAt, 2L));
+    }
+
+    @Test
+    void getCardTransferFeed_ShouldContinueFromCursor() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 10, 12, 0);
+        String cursor = new TransferCursor(createdAt, 2L).encode();
+
+        when(userService.getCurrentUserEntity()).thenReturn(testUser);
+        when(cardService.isCardBelongsToUser(1L, testUser)).thenReturn(true);
+        when(transferRepository.findCardFeedIds(1L, 1L, createdAt, 2L, 11)).thenReturn(List.of(1L));
+        when(transferRepository.findResponsesByIdIn(List.of(1L))).thenReturn(List.of(transferResponse));
+        when(transferArchiveRepository.findCardFeed(eq(1L), eq(1L), any(LocalDateTime.class), eq(1L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // Act
+        TransferFeedResponse result = transferService.getCardTransferFeed(1L, cursor, 10);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getCardTransferFeed_ShouldContinueIntoArchive_WhenLiveFeedExhausted() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2023, 1, 10, 12, 0);
+        TransferResponse archivedFirst = TransferResponse.builder().id(7L).createdAt(createdAt.plusMinutes(1)).build();
+        TransferResponse archivedSecond = TransferResponse.builder().id(6L).createdAt(createdAt).build();
+
+        when(userService.getCurrentUserEntity()).thenReturn(testUser);
+        when(cardService.isCardBelongsToUser(1L, testUser)).thenReturn(true);
+        when(transferRepository.findCardFeedIds(eq(1L), eq(1L), any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(2)))
+                .thenReturn(List.of());
+        when(transferArchiveRepository.findCardFeed(eq(1L), eq(1L), any(LocalDateTime.class), eq(Long.MAX_VALUE),
+                eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(archivedFirst, archivedSecond));
+
+        // Act
+        TransferFeedResponse result = transferService.getCardTransferFeed(1L, null, 1);
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(archivedFirst);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(TransferCursor.decode(result.getNextCursor()))
+                .isEqualTo(new TransferCursor(createdAt.plusMinutes(1), 7L));
+    }
+
+    @Test
+    void getCardTransferFeed_ShouldThrowAccessDenied_WhenUserNotOwnerAndNotAdmin() {
+        // Arrange
+        User anotherUser = User.builder().id(999L).role(User.Role.USER).build();
+
+        when(userService.getCurrentUserEntity()).thenReturn(anotherUser);
+        when(cardService.isCardBelongsToUser(1L, anotherUser)).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> transferService.getCardTransferFeed(1L, null, 10))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.SqlBudgetConfig;
+import com.example.bankcards.config.TestConfig;
+import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserWalletSummary;
+import com.example.bankcards.mapper.CardMapperImpl;
+import com.example.bankcards.mapper.TransferMapperImpl;
+import com.example.bankcards.mapper.UserMapperImpl;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.UserWalletSummaryRepository;
+import com.example.bankcards.service.impl.CardServiceImpl;
+import com.example.bankcards.service.impl.TransferServiceImpl;
+import com.example.bankcards.service.impl.UserServiceImpl;
+import com.example.bankcards.service.impl.WalletSummaryServiceImpl;
+import com.example.bankcards.util.CardStatus;
+import com.example.bankcards.util.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Сервисы выполняются в собственных транзакциях с коммитом, иначе flush при коммите не попадает в бюджет.
+// L2-кэш сбрасывается перед каждым замером - бюджет считается для холодного кэша
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.sql-budget.count-rows=true"
+})
+@Import({
+        SqlBudgetConfig.class,
+        TestConfig.class,
+        TransferServiceImpl.class,
+        CardServiceImpl.class,
+        UserServiceImpl.class,
+        WalletSummaryServiceImpl.class,
+        TransferMapperImpl.class,
+        CardMapperImpl.class,
+        UserMapperImpl.class,
+        SingleFlight.class,
+        SimpleMeterRegistry.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransferServiceSqlBudgetTest {
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private UserWalletSummaryRepository summaryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Advisory-блокировки, outbox и отметки card_view - Postgres-специфичный SQL, в бюджет H2 не входят
+    @MockBean
+    private CardLockService cardLockService;
+
+    @MockBean
+    private OutboxService outboxService;
+
+    @MockBean
+    private CardViewService cardViewService;
+
+    private Card fromCard;
+    private Card toCard;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .email("budget@example.com")
+                .password("password")
+                .firstName("Test")
+                .lastName("User")
+                .role(User.Role.USER)
+                .build());
+
+        fromCard = cardRepository.save(card(user, "0001"));
+        toCard = cardRepository.save(card(user, "0002"));
+
+        // В Postgres строку сводки создает триггер при регистрации пользователя
+        summaryRepository.save(UserWalletSummary.builder()
+                .userId(user.getId())
+                .totalBalance(BigDecimal.valueOf(2000))
+                .activeCards(2)
+                .build());
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                org.springframework.security.core.userdetails.User.withUsername(user.getEmail())
+                        .password("password")
+                        .roles("USER")
+                        .build(),
+                null));
+
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        transferRepository.deleteAllInBatch();
+        cardRepository.deleteAllInBatch();
+        summaryRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void createTransfer_ShouldStayWithinStatementBudget() {
+        // Arrange
+        TransferRequest request = TransferRequest.builder()
+                .fromCardId(fromCard.getId())
+                .toCardId(toCard.getId())
+                .amount(BigDecimal.valueOf(100))
+                .description("Budget")
+                .build();
+
+        // Act & Assert
+        // Статусы обеих карт читаются из базы мимо L2, сводки блокируются заранее
+        SqlBudget.of("createTransfer", () -> transferService.createTransfer(request))
+                .hasStatementsAtMost(15)
+                .hasRowsAtMost(10);
+    }
+
+    @Test
+    void getCardTransfers_ShouldStayWithinStatementBudget() {
+        // Act & Assert
+        SqlBudget.of("getCardTransfers", () -> transferService.getCardTransfers(fromCard.getId(), PageRequest.of(0, 20)))
+                .hasStatementsAtMost(5);
+    }
+
+    private Card card(User user, String suffix) {
+        return Card.builder()
+                .cardNumber("encrypted_" + suffix)
+                .maskedNumber("**** **** **** " + suffix)
+                .owner("TEST USER")
+                .expiryDate(LocalDate.now().plusYears(2))
+                .status(CardStatus.ACTIVE)
+                .requestedBlock(false)
+                .balance(BigDecimal.valueOf(1000))
+                .user(user)
+                .build();
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.dto.response.TransferSubmissionResponse;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.custom.card.InsufficientFundsException;
+import com.example.bankcards.exception.custom.card.SameCardTransferException;
+import com.example.bankcards.exception.custom.transfer.TransferQueueFullException;
+import com.example.bankcards.service.impl.TransferSubmissionServiceImpl;
+import com.example.bankcards.util.TransferSubmissionStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferSubmissionServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransferService transferService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private CardService cardService;
+
+    @Mock
+    private ResultSet claimedRow;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransferSubmissionServiceImpl submissionService;
+    private User user;
+    private TransferRequest request;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        submissionService = new TransferSubmissionServiceImpl(
+                jdbcTemplate, transactionManager, transferService, userService, cardService, meterRegistry);
+        ReflectionTestUtils.setField(submissionService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(submissionService, "batchSize", 2);
+        ReflectionTestUtils.setField(submissionService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(submissionService, "processingTimeout", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(submissionService, "retryAfter", Duration.ofSeconds(1));
+
+        user = User.builder()
+                .id(1L)
+                .email("user@example.com")
+                .role(User.Role.USER)
+                .build();
+
+        request = TransferRequest.builder()
+                .fromCardId(1L)
+                .toCardId(2L)
+                .amount(BigDecimal.valueOf(100))
+                .build();
+    }
+
+    @Test
+    void submitTransfer_ShouldRejectSameCard_BeforeTouchingQueue() {
+        // Arrange
+        request.setToCardId(1L);
+        when(userService.getCurrentUserEntity()).thenReturn(user);
+
+        // Act & Assert
+        assertThatThrownBy(() -> submissionService.submitTransfer(request))
+                .isInstanceOf(SameCardTransferException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submitTransfer_ShouldEnqueuePendingSubmission() {
+        // Arrange
+        TransferSubmissionResponse queued = TransferSubmissionResponse.builder()
+                .id(42L)
+                .status(TransferSubmissionStatus.PENDING)
+                .build();
+        when(userService.getCurrentUserEntity()).thenReturn(user);
+        when(cardService.isCardBelongsToUser(1L, user)).thenReturn(true);
+        when(jdbcTemplate.query(contains("INSERT INTO transfer_submissions"), any(RowMapper.class),
+                eq(1L), eq(1L), eq(2L), eq(BigDecimal.valueOf(100)), any(), eq(10), eq(10)))
+                .thenReturn(List.of(queued));
+
+        // Act
+        TransferSubmissionResponse result = submissionService.submitTransfer(request);
+
+        // Assert
+        assertThat(result.getId()).isEqualTo(42L);
+        assertThat(result.getStatus()).isEqualTo(TransferSubmissionStatus.PENDING);
+        assertThat(meterRegistry.counter("transfers.async.submitted", "outcome", "accepted").count()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submitTransfer_ShouldThrowQueueFull_WhenCapacityReached() {
+        // Arrange
+        when(userService.getCurrentUserEntity()).thenReturn(user);
+        when(cardService.isCardBelongsToUser(1L, user)).thenReturn(true);
+        when(jdbcTemplate.query(contains("INSERT INTO transfer_submissions"), any(RowMapper.class),
+                eq(1L), eq(1L), eq(2L), eq(BigDecimal.valueOf(100)), any(), eq(10), eq(10)))
+                .thenReturn(List.of());
+
+        // Act & Assert
+        assertThatThrownBy(() -> submissionService.submitTransfer(request))
+                .isInstanceOf(TransferQueueFullException.class);
+        assertThat(meterRegistry.counter("transfers.async.submitted", "outcome", "rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void processPending_ShouldCompleteSubmissionWithTransferId() throws SQLException {
+        // Arrange
+        stubClaimedSubmission(1);
+        stubFence(1, true);
+        when(userService.getUserEntityById(1L)).thenReturn(user);
+        when(transferService.createTransfer(eq(user), any(TransferRequest.class)))
+                .thenReturn(TransferResponse.builder().id(7L).build());
+        when(jdbcTemplate.update(contains("'COMPLETED'"), eq(7L), eq(42L), eq(1))).thenReturn(1);
+
+        // Act
+        int processed = submissionService.processPending();
+
+        // Assert
+        assertThat(processed).isEqualTo(1);
+        verify(jdbcTemplate).update(contains("'COMPLETED'"), eq(7L), eq(42L), eq(1));
+        assertThat(meterRegistry.counter("transfers.async.processed", "status", "completed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void processPending_ShouldFailSubmission_OnBusinessError() throws SQLException {
+        // Arrange
+        stubClaimedSubmission(1);
+        stubFence(1, true);
+        when(userService.getUserEntityById(1L)).thenReturn(user);
+        when(transferService.createTransfer(eq(user), any(TransferRequest.class)))
+                .thenThrow(new InsufficientFundsException());
+
+        // Act
+        submissionService.processPending();
+
+        // Assert
+        verify(jdbcTemplate).update(contains("'FAILED'"), eq("Insufficient funds on the card"), eq(42L), eq(1));
+        verify(jdbcTemplate, never()).update(contains("'COMPLETED'"), any(), any(), any());
+    }
+
+    @Test
+    void processPending_ShouldRequeueSubmission_OnTransientErrorUntilAttemptsExhausted() throws SQLException {
+        // Arrange
+        stubClaimedSubmission(1);
+        stubFence(1, true);
+        when(userService.getUserEntityById(1L)).thenReturn(user);
+        when(transferService.createTransfer(eq(user), any(TransferRequest.class)))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        // Act
+        submissionService.processPending();
+
+        // Assert
+        verify(jdbcTemplate).update(contains("status = 'PENDING'"), eq("lock timeout"), eq(42L), eq(1));
+        verify(jdbcTemplate, never()).update(contains("'FAILED'"), any(), any(), any());
+    }
+
+    @Test
+    void processPending_ShouldSkipSubmission_WhenReclaimedByAnotherWorker() throws SQLException {
+        // Arrange
+        // Пачка обрабатывалась дольше processing-timeout: другой узел уже забрал заявку и увеличил attempts
+        stubClaimedSubmission(1);
+        stubFence(1, false);
+
+        // Act
+        submissionService.processPending();
+
+        // Assert
+        verifyNoInteractions(transferService);
+        verify(jdbcTemplate, never()).update(contains("'COMPLETED'"), any(), any(), any());
+        verify(jdbcTemplate, never()).update(contains("'FAILED'"), any(), any(), any());
+        assertThat(meterRegistry.counter("transfers.async.superseded").count()).isEqualTo(1);
+    }
+
+    @Test
+    void processPending_ShouldReleaseRemainingSubmissions_WhenBatchRunsOutOfTime() throws SQLException {
+        // Arrange
+        ReflectionTestUtils.setField(submissionService, "processingTimeout", Duration.ZERO);
+        stubClaimedSubmission(2);
+
+        // Act
+        submissionService.processPending();
+
+        // Assert
+        // Заявка возвращается в очередь с прежним числом попыток, перевод не начинается
+        verify(jdbcTemplate).update(contains("attempts = attempts - 1"), eq(42L), eq(2));
+        verifyNoInteractions(transferService);
+    }
+
+    private void stubFence(int attempts, boolean stillOwned) {
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(Long.class), eq(42L), eq(attempts)))
+                .thenReturn(stillOwned ? List.of(42L) : List.of());
+    }
+
+    // Захваченная заявка отдается через настоящий RowMapper сервиса
+    @SuppressWarnings("unchecked")
+    private void stubClaimedSubmission(int attempts) throws SQLException {
+        when(claimedRow.getLong("id")).thenReturn(42L);
+        when(claimedRow.getLong("user_id")).thenReturn(1L);
+        when(claimedRow.getLong("from_card_id")).thenReturn(1L);
+        when(claimedRow.getLong("to_card_id")).thenReturn(2L);
+        when(claimedRow.getBigDecimal("amount")).thenReturn(BigDecimal.valueOf(100));
+        when(claimedRow.getString("description")).thenReturn(null);
+        when(claimedRow.getInt("attempts")).thenReturn(attempts);
+        when(claimedRow.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+        when(jdbcTemplate.query(contains("SET status = 'PROCESSING'"), any(RowMapper.class), any(Timestamp.class), eq(2)))
+                .thenAnswer(invocation -> List.of(invocation.getArgument(1, RowMapper.class).mapRow(claimedRow, 0)));
+    }
+}
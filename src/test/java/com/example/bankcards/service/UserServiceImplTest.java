@@ -2,18 +2,29 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.request.UserRequest;
 import com.example.bankcards.dto.response.UserResponse;
+import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.event.CardStatusChange;
 import com.example.bankcards.exception.custom.user.UserAlreadyExistsException;
 import com.example.bankcards.exception.custom.user.UserNotFoundException;
 import com.example.bankcards.mapper.UserMapper;
+import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.service.impl.UserServiceImpl;
+import com.example.bankcards.util.CardStatus;
 import com.example.bankcards.util.CurrentUserProvider;
+import com.example.bankcards.util.OutboxEventType;
+import com.example.bankcards.util.SingleFlight;
+import com.example.bankcards.util.UserIdentity;
+import com.example.bankcards.util.UserProfile;
+import com.example.bankcards.util.VersionedResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -21,6 +32,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,12 +47,24 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardViewService cardViewService;
+
+    @Mock
+    private OutboxService outboxService;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
     @Mock
     private UserMapper userMapper;
 
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -333,27 +357,48 @@ class UserServiceImplTest {
     }
 
     @Test
-    void deleteUser_ShouldDeleteUser_WhenUserExists() {
+    void deleteUser_ShouldTombstoneUserAndCards_WhenUserExists() {
         // Arrange
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(cardRepository.findByUserId(1L)).thenReturn(List.of(
+                Card.builder().id(5L).status(CardStatus.ACTIVE).requestedBlock(false).user(testUser).build(),
+                Card.builder().id(6L).status(CardStatus.BLOCKED).requestedBlock(true).user(testUser).build()));
 
         // Act
         userService.deleteUser(1L);
 
-        // Assert
-        verify(userRepository).deleteById(1L);
+        // Assert - по каждой снятой карте уходит событие в outbox
+        assertThat(testUser.getDeletedAt()).isNotNull();
+        verify(outboxService).append(OutboxEventType.CARD_STATUS_CHANGED, 5L,
+                new CardStatusChange(5L, 1L, CardStatus.ACTIVE, CardStatus.ACTIVE, false, true));
+        verify(outboxService).append(OutboxEventType.CARD_STATUS_CHANGED, 6L,
+                new CardStatusChange(6L, 1L, CardStatus.BLOCKED, CardStatus.BLOCKED, true, true));
+        verify(cardRepository).tombstoneByUserId(1L, testUser.getDeletedAt());
+        verify(cardViewService).markUserCardsStale(1L);
+        verify(userRepository, never()).deleteById(any());
     }
 
     @Test
     void deleteUser_ShouldThrowException_WhenUserNotFound() {
         // Arrange
-        when(userRepository.existsById(1L)).thenReturn(false);
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> userService.deleteUser(1L))
                 .isInstanceOf(UserNotFoundException.class);
     }
 
+    @Test
+    void getUserEntityById_ShouldThrowException_WhenUserIsTombstoned() {
+        // Arrange
+        testUser.setDeletedAt(LocalDateTime.now());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // Act & Assert
+        assertThatThrownBy(() -> userService.getUserEntityById(1L))
+                .isInstanceOf(UserNotFoundException.class);
+    }
+
     @Test
     void getUserByEmail_ShouldReturnUser_WhenUserExists() {
         // Arrange
@@ -427,6 +472,49 @@ class UserServiceImplTest {
         }
     }
 
+    @Test
+    void getVersionedCurrentUser_ShouldVersionTheRowItReturns() {
+        // Arrange - строка читается проекцией, не из natural-id кэша и без загрузки сущности
+        String currentEmail = "current@example.com";
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 15, 10, 30);
+        UserProfile profile = new UserProfile(3L, currentEmail, "Current", "User", User.Role.USER,
+                updatedAt.minusDays(1), updatedAt);
+        UserResponse currentUserResponse = UserResponse.builder().id(3L).email(currentEmail).build();
+
+        try (var mockedStatic = mockStatic(CurrentUserProvider.class)) {
+            mockedStatic.when(CurrentUserProvider::getCurrentEmail).thenReturn(currentEmail);
+            when(userRepository.findProfileByEmail(currentEmail)).thenReturn(Optional.of(profile));
+            when(userMapper.toDto(profile)).thenReturn(currentUserResponse);
+
+            // Act
+            VersionedResponse<UserResponse> result = userService.getVersionedCurrentUser();
+
+            // Assert
+            assertThat(result.body()).isSameAs(currentUserResponse);
+            assertThat(result.version().lastModified()).isEqualTo(updatedAt);
+            verify(userRepository, never()).findByEmail(any());
+            verify(userRepository, never()).findLiveByEmail(any());
+        }
+    }
+
+    @Test
+    void getCurrentUserIdentity_ShouldReturnIdAndRoleWithoutLoadingUser() {
+        // Arrange
+        try (var mockedStatic = mockStatic(CurrentUserProvider.class)) {
+            mockedStatic.when(CurrentUserProvider::getCurrentEmail).thenReturn("current@example.com");
+            when(userRepository.findIdentityByEmail("current@example.com"))
+                    .thenReturn(Optional.of(new UserIdentity(3L, User.Role.ADMIN)));
+
+            // Act
+            UserIdentity result = userService.getCurrentUserIdentity();
+
+            // Assert
+            assertThat(result.id()).isEqualTo(3L);
+            assertThat(result.isAdmin()).isTrue();
+            verify(userRepository, never()).findByEmail(any());
+        }
+    }
+
     @Test
     void updateUser_ShouldAllowSameEmail_WhenEmailNotChanged() {
         // Arrange
@@ -0,0 +1,152 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.response.WalletSummaryResponse;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserWalletSummary;
+import com.example.bankcards.repository.UserWalletSummaryRepository;
+import com.example.bankcards.service.WalletSummaryService.CardState;
+import com.example.bankcards.service.impl.WalletSummaryServiceImpl;
+import com.example.bankcards.util.CardStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletSummaryServiceImplTest {
+
+    @Mock
+    private UserWalletSummaryRepository summaryRepository;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private WalletSummaryServiceImpl walletSummaryService;
+
+    private UserWalletSummary summary;
+
+    @BeforeEach
+    void setUp() {
+        summary = UserWalletSummary.builder()
+                .userId(1L)
+                .totalBalance(BigDecimal.valueOf(1500))
+                .activeCards(2)
+                .blockedCards(1)
+                .expiredCards(0)
+                .pendingBlockRequests(1)
+                .build();
+    }
+
+    @Test
+    void getCurrentUserSummary_ShouldReadPrecomputedRow() {
+        // Arrange
+        when(userService.getCurrentUserEntity()).thenReturn(User.builder().id(1L).build());
+        when(summaryRepository.findById(1L)).thenReturn(Optional.of(summary));
+
+        // Act
+        WalletSummaryResponse result = walletSummaryService.getCurrentUserSummary();
+
+        // Assert
+        assertThat(result.getTotalBalance()).isEqualByComparingTo("1500");
+        assertThat(result.getTotalCards()).isEqualTo(3);
+        assertThat(result.getCardsByStatus()).containsEntry(CardStatus.ACTIVE, 2).containsEntry(CardStatus.BLOCKED, 1);
+        assertThat(result.getPendingBlockRequests()).isEqualTo(1);
+    }
+
+    @Test
+    void getCurrentUserSummary_ShouldReturnZeros_WhenRowMissing() {
+        // Arrange
+        when(userService.getCurrentUserEntity()).thenReturn(User.builder().id(1L).build());
+        when(summaryRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act
+        WalletSummaryResponse result = walletSummaryService.getCurrentUserSummary();
+
+        // Assert
+        assertThat(result.getTotalBalance()).isEqualByComparingTo("0");
+        assertThat(result.getTotalCards()).isZero();
+    }
+
+    @Test
+    void recordCardChange_ShouldApplyBalanceDelta() {
+        // Arrange
+        when(summaryRepository.findForUpdate(1L)).thenReturn(Optional.of(summary));
+
+        // Act
+        walletSummaryService.recordCardChange(1L,
+                new CardState(BigDecimal.valueOf(1000), CardStatus.ACTIVE, false),
+                new CardState(BigDecimal.valueOf(800), CardStatus.ACTIVE, false));
+
+        // Assert
+        assertThat(summary.getTotalBalance()).isEqualByComparingTo("1300");
+        assertThat(summary.getActiveCards()).isEqualTo(2);
+    }
+
+    @Test
+    void recordCardChange_ShouldMoveCardBetweenStatuses_WhenBlocked() {
+        // Arrange
+        when(summaryRepository.findForUpdate(1L)).thenReturn(Optional.of(summary));
+
+        // Act
+        walletSummaryService.recordCardChange(1L,
+                new CardState(BigDecimal.valueOf(500), CardStatus.ACTIVE, true),
+                new CardState(BigDecimal.valueOf(500), CardStatus.BLOCKED, false));
+
+        // Assert
+        assertThat(summary.getActiveCards()).isEqualTo(1);
+        assertThat(summary.getBlockedCards()).isEqualTo(2);
+        assertThat(summary.getPendingBlockRequests()).isZero();
+        assertThat(summary.getTotalBalance()).isEqualByComparingTo("1500");
+    }
+
+    @Test
+    void recordCardChange_ShouldRemoveCard_WhenDeleted() {
+        // Arrange
+        when(summaryRepository.findForUpdate(1L)).thenReturn(Optional.of(summary));
+
+        // Act
+        walletSummaryService.recordCardChange(1L,
+                new CardState(BigDecimal.valueOf(500), CardStatus.BLOCKED, false), null);
+
+        // Assert
+        assertThat(summary.getBlockedCards()).isZero();
+        assertThat(summary.getTotalBalance()).isEqualByComparingTo("1000");
+    }
+
+    @Test
+    void recordCardChange_ShouldSkipLocking_WhenStateUnchanged() {
+        // Arrange
+        CardState state = new CardState(BigDecimal.valueOf(500), CardStatus.ACTIVE, false);
+
+        // Act
+        walletSummaryService.recordCardChange(1L, state, state);
+
+        // Assert
+        verifyNoInteractions(summaryRepository);
+    }
+
+    @Test
+    void lockSummaries_ShouldLockEachUserOnceInAscendingOrder() {
+        // Arrange
+        when(summaryRepository.findForUpdate(anyLong())).thenReturn(Optional.of(summary));
+
+        // Act
+        walletSummaryService.lockSummaries(5L, 2L, 5L);
+
+        // Assert
+        InOrder inOrder = inOrder(summaryRepository);
+        inOrder.verify(summaryRepository).findForUpdate(2L);
+        inOrder.verify(summaryRepository).findForUpdate(5L);
+        verify(summaryRepository, times(2)).findForUpdate(anyLong());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.custom.card.CardNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLookups_ShouldShareOneLoad() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("card", 1L, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "card-1";
+            })));
+        }
+        waitUntil(() -> coalesced("card") == CALLERS - 1);
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("card-1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(executed("card")).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentLookups_ShouldAllReceiveLoaderException() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("card", 1L, () -> {
+                await(release);
+                throw new CardNotFoundException();
+            })));
+        }
+        waitUntil(() -> coalesced("card") == CALLERS - 1);
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(CardNotFoundException.class);
+        }
+    }
+
+    @Test
+    void sequentialLookups_ShouldNotReuseCompletedResult() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        singleFlight.execute("user", 1L, loads::incrementAndGet);
+        Integer second = singleFlight.execute("user", 1L, loads::incrementAndGet);
+
+        // Assert
+        assertThat(second).isEqualTo(2);
+        assertThat(executed("user")).isEqualTo(2);
+        assertThat(coalesced("user")).isZero();
+    }
+
+    @Test
+    void differentKeys_ShouldLoadIndependently() {
+        // Act
+        String card = singleFlight.execute("card", 1L, () -> "card");
+        String transfer = singleFlight.execute("transfer", 1L, () -> "transfer");
+
+        // Assert
+        assertThat(card).isEqualTo("card");
+        assertThat(transfer).isEqualTo("transfer");
+    }
+
+    private double executed(String name) {
+        return count(name, "executed");
+    }
+
+    private double coalesced(String name) {
+        return count(name, "coalesced");
+    }
+
+    private double count(String name, String outcome) {
+        Counter counter = meterRegistry.find("singleflight.requests").tag("name", name).tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
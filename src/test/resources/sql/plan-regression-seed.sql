@@ -0,0 +1,47 @@
+-- Синтетический объем для проверки планов: 20k пользователей, 100k карт, 400k переводов за 12 месяцев
+DO $$
+DECLARE
+    v_month DATE := date_trunc('month', now() - INTERVAL '12 months')::date;
+BEGIN
+    WHILE v_month <= date_trunc('month', now())::date LOOP
+        PERFORM create_transfers_partition(v_month);
+        v_month := (v_month + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO users (email, password, first_name, last_name, role)
+SELECT 'user' || g || '@plan.test', 'password', 'First' || g, 'Last' || g, 'USER'
+FROM generate_series(1, 20000) g;
+
+INSERT INTO cards (card_number, masked_number, owner, expiry_date, status, requested_block, balance, user_id)
+SELECT 'encrypted_' || u.id || '_' || k,
+       '**** **** **** ' || lpad(((u.id * 7 + k) % 10000)::text, 4, '0'),
+       'OWNER ' || u.id,
+       current_date + ((u.id + k) % 1500)::int - 100,
+       CASE WHEN (u.id + k) % 10 = 0 THEN 'BLOCKED' ELSE 'ACTIVE' END,
+       (u.id + k) % 25 = 0,
+       1000,
+       u.id
+FROM users u
+CROSS JOIN generate_series(1, 5) k
+WHERE u.email LIKE '%@plan.test';
+
+INSERT INTO transfers (from_card_id, to_card_id, amount, description, created_at, user_id)
+SELECT c1.id, c2.id, 1 + (c1.id % 500), 'Transfer',
+       now() - ((c1.id * 31 + c2.id) % 365) * INTERVAL '1 day',
+       c1.user_id
+FROM cards c1
+JOIN cards c2 ON c2.user_id = c1.user_id AND c2.id <> c1.id;
+
+INSERT INTO card_view (id, masked_number, owner, expiry_date, status, requested_block,
+                       balance, user_id, created_at, updated_at)
+SELECT id, masked_number, owner, expiry_date, status, requested_block,
+       balance, user_id, created_at, updated_at
+FROM cards
+ON CONFLICT (id) DO NOTHING;
+
+ANALYZE users;
+ANALYZE cards;
+ANALYZE transfers;
+ANALYZE card_view;